@@ -0,0 +1,97 @@
+package com.jabberpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import com.jabberpoint.io.SyntheticDeckGenerator;
+
+/**
+ * <p>Synthetic presentations for the benchmarks.</p>
+ * <p>Every slide has a title, five text items on the four levels and, on every fifth
+ * slide, an image, so the decks look like the ones JabberPoint is used for. The XML files
+ * come from SyntheticDeckGenerator with a fixed seed. The decks are the same on every run,
+ * so results of different builds can be compared.</p>
+ */
+final class BenchmarkDecks
+{
+    private static final String TEXT = "Synthetic item text that is long enough to be wrapped over more than one line "
+            + "when it is laid out at the width of a slide";
+
+    private BenchmarkDecks()
+    {
+    }
+
+    // a presentation with a number of slides
+    static Presentation create(int slides)
+    {
+        Presentation presentation = new Presentation();
+        presentation.setTitle("Benchmark deck of " + slides + " slides");
+        for (int number = 0; number < slides; number++)
+        {
+            presentation.append(slide(number));
+        }
+        return presentation;
+    }
+
+    // one slide of a synthetic presentation
+    static Slide slide(int number)
+    {
+        Slide slide = new Slide();
+        slide.setTitle("Slide " + (number + 1));
+        for (int item = 0; item < 5; item++)
+        {
+            slide.append(1 + item % 4, "Item " + (item + 1) + ": " + TEXT);
+        }
+        if (number % 5 == 0)
+        {
+            slide.append(new BitmapItem(1, "JabberPoint.gif"));
+        }
+        return slide;
+    }
+
+    /**
+     * Write a synthetic deck to a temporary XML file
+     *
+     * @param slides The number of slides
+     * @return The file
+     * @throws IOException If the file cannot be written
+     */
+    static File writeXML(int slides) throws IOException
+    {
+        File file = Files.createTempFile("jabberpoint-benchmark-" + slides + "-", ".xml").toFile();
+        file.deleteOnExit();
+        new SyntheticDeckGenerator(SyntheticDeckGenerator.DEFAULT_SEED).setSlides(slides).write(file);
+        return file;
+    }
+
+    /**
+     * Check that a reader built the whole deck, so readers are only compared on the same work
+     *
+     * @param name         The reader, for the message
+     * @param presentation The presentation it loaded
+     * @param expected     The presentation a reference reader loaded
+     * @throws IllegalStateException If the slide or item counts differ
+     */
+    static void checkSameDeck(String name, Presentation presentation, Presentation expected)
+    {
+        long items = countItems(presentation);
+        long expectedItems = countItems(expected);
+        if (presentation.getSize() != expected.getSize() || items != expectedItems)
+        {
+            throw new IllegalStateException(name + " loaded " + presentation.getSize() + " slides with " + items
+                    + " items, expected " + expected.getSize() + " slides with " + expectedItems + " items");
+        }
+    }
+
+    // the items on all slides, which parses every slide of a lazy presentation
+    private static long countItems(Presentation presentation)
+    {
+        long items = 0;
+        for (int number = 0; number < presentation.getSize(); number++)
+        {
+            items += presentation.getSlide(number).getSize();
+        }
+        return items;
+    }
+}
@@ -0,0 +1,55 @@
+package com.jabberpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+import com.jabberpoint.io.XMLParsingStrategy;
+import com.jabberpoint.io.XMLParsingStrategyFactory;
+
+/**
+ * Parses synthetic decks into a Document with each XMLParsingStrategy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark
+{
+    @Param({"10", "100", "1000"})
+    public int slides;
+
+    @Param({"DOM", "SAX", "STAX"})
+    public XMLParsingStrategyFactory.StrategyType strategy;
+
+    private File file;
+    private XMLParsingStrategy parser;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        this.file = BenchmarkDecks.writeXML(this.slides);
+        this.parser = XMLParsingStrategyFactory.getStrategy(this.strategy);
+    }
+
+    @Benchmark
+    public Document parse() throws Exception
+    {
+        return this.parser.parseFile(this.file);
+    }
+}
@@ -0,0 +1,97 @@
+package com.jabberpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jabberpoint.io.BinaryPresentationConverter;
+import com.jabberpoint.io.BinaryPresentationReader;
+import com.jabberpoint.io.IndexedXMLPresentationReader;
+import com.jabberpoint.io.ParallelXMLPresentationReader;
+import com.jabberpoint.io.PresentationReader;
+import com.jabberpoint.io.StrategicXMLPresentationReader;
+import com.jabberpoint.io.XMLParsingStrategyFactory;
+
+/**
+ * Loads synthetic decks into a Presentation with XMLAccessor.loadFile and with each PresentationReader
+ * The lazy reader only indexes the slides, so it measures the time until the first slide can be shown.
+ * Every reader is checked to build the same slides and items before it is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark
+{
+    @Param({"10", "100", "1000"})
+    public int slides;
+
+    @Param({"accessor", "dom", "sax", "stax", "parallel", "lazy", "binary"})
+    public String reader;
+
+    private String fileName;
+    private PresentationReader presentationReader;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        File file = BenchmarkDecks.writeXML(this.slides);
+        this.fileName = file.getPath();
+        switch (this.reader)
+        {
+            case "accessor":
+                XMLAccessor accessor = new XMLAccessor();
+                this.presentationReader = accessor::loadFile;
+                break;
+            case "dom":
+                this.presentationReader = new StrategicXMLPresentationReader(XMLParsingStrategyFactory.StrategyType.DOM);
+                break;
+            case "sax":
+                this.presentationReader = new StrategicXMLPresentationReader(XMLParsingStrategyFactory.StrategyType.SAX);
+                break;
+            case "stax":
+                this.presentationReader = new StrategicXMLPresentationReader(XMLParsingStrategyFactory.StrategyType.STAX);
+                break;
+            case "parallel":
+                this.presentationReader = new ParallelXMLPresentationReader();
+                break;
+            case "lazy":
+                this.presentationReader = new IndexedXMLPresentationReader();
+                break;
+            case "binary":
+                String binary = BinaryPresentationConverter.binaryFileName(this.fileName);
+                BinaryPresentationConverter.convert(this.fileName, binary);
+                new File(binary).deleteOnExit();
+                this.fileName = binary;
+                this.presentationReader = new BinaryPresentationReader();
+                break;
+            default:
+                throw new IOException("Unknown reader " + this.reader);
+        }
+        Presentation expected = new Presentation();
+        new StrategicXMLPresentationReader(XMLParsingStrategyFactory.StrategyType.STAX).loadPresentation(expected, file.getPath());
+        BenchmarkDecks.checkSameDeck(this.reader, load(), expected);
+    }
+
+    @Benchmark
+    public Presentation load() throws Exception
+    {
+        Presentation presentation = new Presentation();
+        this.presentationReader.loadPresentation(presentation, this.fileName);
+        return presentation;
+    }
+}
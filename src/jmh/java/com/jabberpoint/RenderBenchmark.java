@@ -0,0 +1,106 @@
+package com.jabberpoint;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.font.TextLayout;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Draws a synthetic slide on an off-screen Graphics2D, lays out its text and scales its image
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark
+{
+    // the size of the slide area, from a small window to a large screen
+    @Param({"600", "1200", "2400"})
+    public int width;
+
+    private BufferedImage canvas;
+    private Graphics2D graphics;
+    private Rectangle area;
+    private Slide slide;
+    private TextItem textItem;
+    private Style style;
+    private BufferedImage image;
+    private ImageObserver observer;
+
+    @Setup
+    public void setUp()
+    {
+        Style.createStyles();
+        int height = this.width * Slide.HEIGHT / Slide.WIDTH;
+        this.canvas = new BufferedImage(this.width, height, BufferedImage.TYPE_INT_RGB);
+        this.graphics = this.canvas.createGraphics();
+        this.area = new Rectangle(0, 0, this.width, height);
+        this.slide = BenchmarkDecks.slide(0);
+        this.textItem = (TextItem) this.slide.getSlideItem(0);
+        this.style = Style.getStyle(this.textItem.getLevel());
+        this.image = new BitmapItem(1, "JabberPoint.gif").getImage();
+        if (this.image == null)
+        {
+            this.image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        }
+        this.observer = (img, infoflags, x, y, w, h) -> false;
+        // The image is decoded, so the slide is not drawn with a placeholder
+        this.slide.draw(this.graphics, this.area, this.observer);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        this.graphics.dispose();
+    }
+
+    // a repaint of a slide that is already laid out
+    @Benchmark
+    public BufferedImage drawSlide()
+    {
+        this.slide.draw(this.graphics, this.area, this.observer);
+        return this.canvas;
+    }
+
+    // the first paint after a resize, which lays out the slide and its text again
+    @Benchmark
+    public BufferedImage drawSlideAfterResize()
+    {
+        TextItem.invalidateLayouts();
+        this.slide.draw(this.graphics, this.area, this.observer);
+        return this.canvas;
+    }
+
+    @Benchmark
+    public List<TextLayout> layOutText()
+    {
+        TextItem.invalidateLayouts();
+        return this.textItem.getLayouts(this.graphics, this.style, Slide.getScale(this.area));
+    }
+
+    @Benchmark
+    public BufferedImage scaleImage()
+    {
+        float scale = Slide.getScale(this.area);
+        return ScaledImageCache.scale(this.image, Math.max(1, (int) (this.image.getWidth() * scale)),
+                Math.max(1, (int) (this.image.getHeight() * scale)), null);
+    }
+}
@@ -0,0 +1,59 @@
+package com.jabberpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saves synthetic decks with XMLAccessor.saveFile
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveBenchmark
+{
+    @Param({"10", "100", "1000"})
+    public int slides;
+
+    private Presentation presentation;
+    private String fileName;
+    private XMLAccessor accessor;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        this.presentation = BenchmarkDecks.create(this.slides);
+        File directory = Files.createTempDirectory("jabberpoint-benchmark").toFile();
+        File file = new File(directory, "saved.xml");
+        this.fileName = file.getPath();
+        this.accessor = new XMLAccessor();
+        // Written once, so the DTD exists and is not written again
+        this.accessor.saveFile(this.presentation, this.fileName);
+        file.deleteOnExit();
+        new File(directory, "jabberpoint.dtd").deleteOnExit();
+        directory.deleteOnExit();
+    }
+
+    @Benchmark
+    public String save() throws IOException
+    {
+        this.accessor.saveFile(this.presentation, this.fileName);
+        return this.fileName;
+    }
+}
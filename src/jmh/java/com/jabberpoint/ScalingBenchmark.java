@@ -0,0 +1,123 @@
+package com.jabberpoint;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jabberpoint.io.DOMXMLParsingStrategy;
+import com.jabberpoint.io.StrategicXMLPresentationReader;
+import com.jabberpoint.io.XMLParsingStrategyFactory;
+
+/**
+ * <p>Loads wide and deep documents of 500 and 4000 slides through the DOM walk of
+ * XMLAccessor and StrategicXMLPresentationReader.</p>
+ * <p>Both read the same documents, with the titles and items nested under wrapper elements
+ * in the deep ones, and are checked to build the same slides. The walk is linear
+ * when the time at 4000 slides is about 8 times the time at 500; a repeated subtree search
+ * shows up as a much larger factor.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmark
+{
+    public enum Loader
+    {
+        ACCESSOR, STRATEGIC
+    }
+
+    @Param({"500", "4000"})
+    public int slides;
+
+    @Param({"0", "40"})
+    public int depth;
+
+    @Param({"ACCESSOR", "STRATEGIC"})
+    public Loader loader;
+
+    private File file;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        this.file = writeDeck();
+        Presentation expected = new Presentation();
+        new StrategicXMLPresentationReader(XMLParsingStrategyFactory.StrategyType.STAX).loadPresentation(expected, this.file.getAbsolutePath());
+        BenchmarkDecks.checkSameDeck(this.loader.name(), load(), expected);
+    }
+
+    @Benchmark
+    public Presentation load() throws Exception
+    {
+        Presentation presentation = new Presentation();
+        if (this.loader == Loader.ACCESSOR)
+        {
+            new XMLAccessor(new DOMXMLParsingStrategy()).loadFile(presentation, this.file.getAbsolutePath());
+        }
+        else
+        {
+            new StrategicXMLPresentationReader(new DOMXMLParsingStrategy()).loadPresentation(presentation, this.file.getAbsolutePath());
+        }
+        return presentation;
+    }
+
+    private File writeDeck() throws IOException
+    {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<presentation>\n");
+        for (int i = 0; i < this.slides; i++)
+        {
+            xml.append("<slide>");
+            appendOpen(xml);
+            xml.append("<title>Slide ").append(i).append("</title>");
+            xml.append("<item kind=\"text\" level=\"1\">Text ").append(i).append("</item>");
+            appendClose(xml);
+            xml.append("</slide>\n");
+        }
+        // Placed at the end, so a lookup that starts at the top has to search the whole document
+        xml.append("<showtitle>Scaling</showtitle>\n</presentation>");
+        return write(xml.toString());
+    }
+
+    private void appendOpen(StringBuilder xml)
+    {
+        for (int d = 0; d < this.depth; d++)
+        {
+            xml.append("<group>");
+        }
+    }
+
+    private void appendClose(StringBuilder xml)
+    {
+        for (int d = 0; d < this.depth; d++)
+        {
+            xml.append("</group>");
+        }
+    }
+
+    private File write(String content) throws IOException
+    {
+        File file = File.createTempFile("jabberpoint-scaling-" + this.slides + "-", ".xml");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file))
+        {
+            writer.write(content);
+        }
+        return file;
+    }
+}
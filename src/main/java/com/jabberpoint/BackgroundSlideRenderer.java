@@ -0,0 +1,230 @@
+package com.jabberpoint;
+
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+
+/**
+ * <p>Draws slides on a render thread of its own, so the event thread only copies finished frames.</p>
+ * <p>The render thread draws the requested slide through a RenderedSlideCache and publishes the
+ * cached image as the front frame, which is all the event thread ever draws. Cached images are
+ * not drawn on again, so the frame is never copied. Only the newest request is kept: a
+ * request that is replaced before it is drawn, or while it is drawn, is dropped, so paging
+ * quickly does not queue up slides that are no longer shown, and slides drawn in advance are
+ * shown at once.</p>
+ */
+public class BackgroundSlideRenderer
+{
+    // the render thread ends after this long without requests, so it does not keep an unused viewer alive
+    static final long IDLE_MILLIS = 10_000;
+
+    private final RenderedSlideCache cache;
+    private final Runnable onFrame;
+
+    private final Object requestLock = new Object();
+    private Request pending; // the newest request that is not drawn yet
+    private Request rendering; // the request that is being drawn
+    private Thread thread; // started with the first request after it was idle
+    private long dropped = 0;
+
+    // The event thread copies the front frame while it holds frameLock
+    private final Object frameLock = new Object();
+    private BufferedImage front; // an image of the cache, which is not drawn on once it is cached
+    private volatile Request frontRequest; // the request the front frame was drawn for
+    private volatile long frames = 0;
+
+    /**
+     * A slide to draw, with everything that makes a frame out of date
+     */
+    private static final class Request
+    {
+        final int number;
+        final Slide slide;
+        final int width;
+        final int height;
+        final int generation;
+        final GraphicsConfiguration configuration;
+        final ImageObserver observer;
+
+        Request(int number, Slide slide, int width, int height, int generation,
+                GraphicsConfiguration configuration, ImageObserver observer)
+        {
+            this.number = number;
+            this.slide = slide;
+            this.width = width;
+            this.height = height;
+            this.generation = generation;
+            this.configuration = configuration;
+            this.observer = observer;
+        }
+
+        boolean isFor(int number, Slide slide, int width, int height, int generation)
+        {
+            return this.number == number && this.slide == slide && this.width == width && this.height == height
+                    && this.generation == generation;
+        }
+    }
+
+    /**
+     * Create a renderer
+     *
+     * @param cache   The cache the slides are drawn through
+     * @param onFrame Called on the render thread when a new frame is in the front buffer
+     */
+    public BackgroundSlideRenderer(RenderedSlideCache cache, Runnable onFrame)
+    {
+        this.cache = cache;
+        this.onFrame = onFrame;
+    }
+
+    /**
+     * Ask for a slide to be drawn, replacing a request that is not drawn yet
+     *
+     * @param number        The number of the slide
+     * @param slide         The slide
+     * @param width         The width of the slide area
+     * @param height        The height of the slide area
+     * @param generation    Changes when the slide has to be drawn again, such as when an image is ready
+     * @param configuration The graphics configuration to draw a compatible image for, may be null
+     * @param observer      Told to repaint when an image on the slide is ready, may be null
+     */
+    public void request(int number, Slide slide, int width, int height, int generation,
+                        GraphicsConfiguration configuration, ImageObserver observer)
+    {
+        synchronized (this.requestLock)
+        {
+            if ((this.pending != null && this.pending.isFor(number, slide, width, height, generation))
+                    || (this.rendering != null && this.rendering.isFor(number, slide, width, height, generation)))
+            {
+                return;
+            }
+            if (this.pending != null)
+            {
+                this.dropped++;
+            }
+            this.pending = new Request(number, slide, width, height, generation, configuration, observer);
+            if (this.thread == null)
+            {
+                this.thread = new Thread(this::renderLoop, "slide-renderer");
+                this.thread.setDaemon(true);
+                this.thread.start();
+            }
+            this.requestLock.notifyAll();
+        }
+    }
+
+    /**
+     * @return Whether the front buffer shows this slide as it is now
+     */
+    public boolean isCurrent(int number, Slide slide, int width, int height, int generation)
+    {
+        Request request = this.frontRequest;
+        return request != null && request.isFor(number, slide, width, height, generation);
+    }
+
+    /**
+     * Copy the newest finished frame; this is all the event thread does per paint
+     *
+     * @param g The Graphics to draw on
+     * @param x The left of the slide area
+     * @param y The top of the slide area
+     * @return Whether there was a frame to copy
+     */
+    public boolean drawFrame(Graphics g, int x, int y)
+    {
+        synchronized (this.frameLock)
+        {
+            if (this.front == null)
+            {
+                return false;
+            }
+            g.drawImage(this.front, x, y, null);
+            return true;
+        }
+    }
+
+    private void renderLoop()
+    {
+        while (true)
+        {
+            Request request;
+            synchronized (this.requestLock)
+            {
+                long idleSince = System.nanoTime();
+                while (this.pending == null)
+                {
+                    long remaining = IDLE_MILLIS - (System.nanoTime() - idleSince) / 1_000_000;
+                    if (remaining <= 0)
+                    {
+                        // The next request starts a new thread
+                        this.thread = null;
+                        return;
+                    }
+                    try
+                    {
+                        this.requestLock.wait(remaining);
+                    } catch (InterruptedException e)
+                    {
+                        // The next request starts a new thread
+                        this.thread = null;
+                        return;
+                    }
+                }
+                request = this.pending;
+                this.pending = null;
+                this.rendering = request;
+            }
+            try
+            {
+                render(request);
+            } catch (RuntimeException e)
+            {
+                System.err.println("Error drawing slide " + (request.number + 1) + ": " + e.getMessage());
+            } finally
+            {
+                synchronized (this.requestLock)
+                {
+                    this.rendering = null;
+                }
+            }
+        }
+    }
+
+    private void render(Request request)
+    {
+        BufferedImage slide = this.cache.getRendered(request.number, request.slide, request.width, request.height,
+                request.configuration, request.observer);
+        synchronized (this.requestLock)
+        {
+            if (this.pending != null)
+            {
+                // The user has moved on; this frame would only flash by
+                this.dropped++;
+                return;
+            }
+        }
+        synchronized (this.frameLock)
+        {
+            this.front = slide;
+            this.frontRequest = request;
+            this.frames++;
+        }
+        this.onFrame.run();
+    }
+
+    // the number of requests that were replaced or superseded before their frame was shown
+    public long getDroppedCount()
+    {
+        synchronized (this.requestLock)
+        {
+            return this.dropped;
+        }
+    }
+
+    // the number of frames that were published to the front
+    public long getFrameCount()
+    {
+        return this.frames;
+    }
+}
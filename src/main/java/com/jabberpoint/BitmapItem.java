@@ -1,19 +1,46 @@
 package com.jabberpoint;
 
+import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Rectangle;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.ImageObserver;
 import java.io.File;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import java.io.IOException;
 
+import com.jabberpoint.metrics.ImageDecodeEvent;
+import com.jabberpoint.metrics.Metrics;
+import com.jabberpoint.metrics.Phase;
+
 
 /**
  * <p>De klasse voor een Bitmap item</p>
  * <p>Bitmap items have the responsibility to draw themselves.</p>
+ * <p>The image is not decoded when the item is created. The first time the item is
+ * measured or drawn its header is read and the image is decoded, both on a background
+ * thread, so a paint never waits for the file. Until the header is read a placeholder of
+ * a fixed size is drawn, then one of the size of the image; slides are laid out again when
+ * the size becomes known, and the observer is told to repaint when the image arrives.</p>
+ * <p>Decoded images are kept in the shared ImageCache, not in the item, so items that show
+ * the same image share one copy of it.</p>
  *
  * @author Ian F. Darwin, ian@darwinsys.com, Gert Florijn, Sylvia Stuurman
  * @version 1.6 2014/05/16 Sylvia Stuurman
@@ -21,79 +48,68 @@ import java.io.IOException;
 
 public class BitmapItem extends SlideItem
 {
-    private BufferedImage bufferedImage;
     private String imageName;
+    private volatile URL source; // where the image is read from, null if there is none
+    private volatile String imageKey; // the source as a String, the key in the ImageCache
+    private volatile ScaledKey scaledKey; // the key of the size the image was last drawn at
+    private Dimension imageSize; // from the image header, or from the image once it was decoded
+    private boolean readingSize = false; // whether the header is being read
+    private CompletableFuture<BufferedImage> decoding; // the decode this item last asked for
+    private final Executor decoder;
+    private final Set<ImageObserver> waitingObservers = new LinkedHashSet<>();
 
     protected static final String FILE = "File ";
     protected static final String NOTFOUND = " not found";
+    protected static final String FALLBACK = "resources-fallback.jpg";
+
+    private static final Color PLACEHOLDER = Color.lightGray;
+    // the size drawn until the header of the image has been read
+    static final Dimension PLACEHOLDER_SIZE = new Dimension(200, 150);
+
+    // bumped when the size of an image becomes known, so slides laid out with the placeholder are laid out again
+    private static final AtomicInteger SIZE_GENERATION = new AtomicInteger();
+
+    // Decoding is mostly CPU work, so leave a core for the event thread
+    private static final ExecutorService DECODER = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1), runnable ->
+            {
+                Thread thread = new Thread(runnable, "bitmap-decoder");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * The key of the image at one size in the ScaledImageCache, kept so a paint does not build it again
+     */
+    private static final class ScaledKey
+    {
+        final int width;
+        final int height;
+        final String key;
+
+        ScaledKey(int width, int height, String key)
+        {
+            this.width = width;
+            this.height = height;
+            this.key = key;
+        }
+    }
 
     // level is equal to item-level; name is the name of the file with the Image
     public BitmapItem(int level, String name)
+    {
+        this(level, name, DECODER);
+    }
+
+    // a bitmap-item that reads and decodes its image on a specific executor
+    BitmapItem(int level, String name, Executor decoder)
     {
         super(level);
+        this.decoder = decoder;
         this.imageName = name;
         if (this.imageName != null)
         {
-            try
-            {
-                // Try loading from exact path first
-                File file = new File(this.imageName);
-                if (file.exists())
-                {
-                    this.bufferedImage = ImageIO.read(file);
-                }
-                else
-                {
-                    // Try loading from classpath resources first (works in JARs too)
-                    java.io.InputStream is = getClass().getClassLoader().getResourceAsStream(this.imageName);
-                    if (is != null)
-                    {
-                        this.bufferedImage = ImageIO.read(is);
-                    }
-                    else
-                    {
-                        // Fallback to resources directory
-                        String resourcePath = "src/main/resources/" + this.imageName;
-                        File resourceFile = new File(resourcePath);
-                        if (resourceFile.exists())
-                        {
-                            this.bufferedImage = ImageIO.read(resourceFile);
-                        }
-                        else
-                        {
-                            // Try with fallback image if provided one doesn't exist
-                            is = getClass().getClassLoader().getResourceAsStream("resources-fallback.jpg");
-                            if (is != null)
-                            {
-                                this.bufferedImage = ImageIO.read(is);
-                                System.err.println(FILE + imageName + NOTFOUND + ", using fallback image");
-                            }
-                            else
-                            {
-                                System.err.println(FILE + imageName + NOTFOUND);
-                            }
-                        }
-                    }
-                }
-            } catch (IOException e)
-            {
-                System.err.println(FILE + this.imageName + NOTFOUND + ": " + e.getMessage());
-
-                // Try with fallback image if there was an error
-                try
-                {
-                    java.io.InputStream is = getClass().getClassLoader().getResourceAsStream("resources-fallback.jpg");
-                    if (is != null)
-                    {
-                        this.bufferedImage = ImageIO.read(is);
-                        System.err.println("Using fallback image");
-                    }
-                } catch (IOException fallbackEx)
-                {
-                    // If even fallback fails, just report error
-                    System.err.println("Fallback image also failed: " + fallbackEx.getMessage());
-                }
-            }
+            this.source = resolve(this.imageName);
         }
     }
 
@@ -103,32 +119,349 @@ public class BitmapItem extends SlideItem
         this(0, null);
     }
 
+    // find the image: exact path, classpath resource, resources directory, then the fallback image
+    private URL resolve(String name)
+    {
+        try
+        {
+            File file = new File(name);
+            if (file.exists())
+            {
+                return file.toURI().toURL();
+            }
+            // Classpath resources work in JARs too
+            URL resource = getClass().getClassLoader().getResource(name);
+            if (resource != null)
+            {
+                return resource;
+            }
+            File resourceFile = new File("src/main/resources/" + name);
+            if (resourceFile.exists())
+            {
+                return resourceFile.toURI().toURL();
+            }
+        } catch (MalformedURLException e)
+        {
+            System.err.println(FILE + name + NOTFOUND + ": " + e.getMessage());
+        }
+        URL fallback = getClass().getClassLoader().getResource(FALLBACK);
+        if (fallback != null)
+        {
+            System.err.println(FILE + name + NOTFOUND + ", using fallback image");
+        }
+        else
+        {
+            System.err.println(FILE + name + NOTFOUND);
+        }
+        return fallback;
+    }
+
     // give the filename of the image
     public String getName()
     {
         return this.imageName;
     }
 
+    // give the key of the image in the ImageCache; null if there is no image
+    String getImageKey()
+    {
+        URL url = this.source;
+        if (url == null)
+        {
+            return null;
+        }
+        String key = this.imageKey;
+        if (key == null)
+        {
+            key = url.toExternalForm();
+            this.imageKey = key;
+        }
+        return key;
+    }
+
+    private String getScaledKey(String sourceKey, int width, int height)
+    {
+        ScaledKey key = this.scaledKey;
+        if (key == null || key.width != width || key.height != height)
+        {
+            key = new ScaledKey(width, height, ScaledImageCache.key(sourceKey, width, height));
+            this.scaledKey = key;
+        }
+        return key.key;
+    }
+
+    // give the decoded image, waiting for the decoder if necessary; null if there is no image
+    public BufferedImage getImage()
+    {
+        BufferedImage image = getCachedImage();
+        if (image != null || this.source == null)
+        {
+            return image;
+        }
+        return startDecoding(null).join();
+    }
+
+    private BufferedImage getCachedImage()
+    {
+        String key = getImageKey();
+        return key != null ? ImageCache.getShared().getIfPresent(key) : null;
+    }
+
     // give the  bounding box of the image
     public Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style myStyle)
     {
-        if (this.bufferedImage == null)
+        return getBoundingBox(g, observer, scale, myStyle, new Rectangle());
+    }
+
+    @Override
+    public Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style myStyle, Rectangle bounds)
+    {
+        int imageWidth = 0;
+        int imageHeight = 0;
+        BufferedImage image = getCachedImage();
+        if (image != null)
         {
-            return new Rectangle((int) (myStyle.indent * scale), 0, 0, 0);
+            imageWidth = image.getWidth(observer);
+            imageHeight = image.getHeight(observer);
         }
-        return new Rectangle((int) (myStyle.indent * scale), 0, (int) (this.bufferedImage.getWidth(observer) * scale), ((int) (myStyle.leading * scale)) + (int) (this.bufferedImage.getHeight(observer) * scale));
+        else
+        {
+            Dimension size = getPlaceholderSize(observer);
+            if (size == null)
+            {
+                bounds.setBounds((int) (myStyle.indent * scale), 0, 0, 0);
+                return bounds;
+            }
+            imageWidth = size.width;
+            imageHeight = size.height;
+        }
+        bounds.setBounds((int) (myStyle.indent * scale), 0, (int) (imageWidth * scale), ((int) (myStyle.leading * scale)) + (int) (imageHeight * scale));
+        return bounds;
     }
 
-    // draw the image
+    // draw the image, or a placeholder while it is being decoded
     public void draw(int x, int y, float scale, Graphics g, Style myStyle, ImageObserver observer)
     {
-        if (this.bufferedImage == null)
-        {
-            return;
-        }
         int width = x + (int) (myStyle.indent * scale);
         int height = y + (int) (myStyle.leading * scale);
-        g.drawImage(this.bufferedImage, width, height, (int) (this.bufferedImage.getWidth(observer) * scale), (int) (this.bufferedImage.getHeight(observer) * scale), observer);
+        BufferedImage image = getCachedImage();
+        if (image != null)
+        {
+            int imageWidth = (int) (image.getWidth(observer) * scale);
+            int imageHeight = (int) (image.getHeight(observer) * scale);
+            String sourceKey = getImageKey();
+            BufferedImage scaled = ScaledImageCache.getShared().getScaledImage(getScaledKey(sourceKey, imageWidth, imageHeight),
+                    sourceKey, image, imageWidth, imageHeight,
+                    g instanceof Graphics2D ? ((Graphics2D) g).getDeviceConfiguration() : null, observer);
+            if (scaled != null)
+            {
+                g.drawImage(scaled, width, height, observer);
+            }
+            else
+            {
+                // Until the scaled copy is ready
+                g.drawImage(image, width, height, imageWidth, imageHeight, observer);
+            }
+        }
+        else
+        {
+            Dimension size = getPlaceholderSize(observer);
+            if (size == null)
+            {
+                return;
+            }
+            Color color = g.getColor();
+            g.setColor(PLACEHOLDER);
+            g.drawRect(width, height, (int) (size.width * scale) - 1, (int) (size.height * scale) - 1);
+            g.setColor(color);
+        }
+    }
+
+    // the size of the image while it is not decoded or cached, starting the decode; null if there is no image
+    private Dimension getPlaceholderSize(ImageObserver observer)
+    {
+        URL url = this.source;
+        if (url == null)
+        {
+            return null;
+        }
+        startDecoding(observer);
+        synchronized (this)
+        {
+            if (this.imageSize == null && !this.readingSize)
+            {
+                this.readingSize = true;
+                this.decoder.execute(() -> sizeRead(readSize(url)));
+            }
+            return this.imageSize != null ? this.imageSize : PLACEHOLDER_SIZE;
+        }
+    }
+
+    // Runs on a decoder thread; the size of the image from its header, or of the fallback image
+    private Dimension readSize(URL url)
+    {
+        Dimension size = readImageSize(url);
+        if (size == null)
+        {
+            // The decoder will fall back as well
+            URL fallback = getClass().getClassLoader().getResource(FALLBACK);
+            size = fallback != null ? readImageSize(fallback) : null;
+        }
+        return size != null ? size : new Dimension(0, 0);
+    }
+
+    private void sizeRead(Dimension size)
+    {
+        synchronized (this)
+        {
+            this.readingSize = false;
+            if (this.imageSize != null)
+            {
+                // The decode was quicker
+                return;
+            }
+            this.imageSize = size;
+        }
+        SIZE_GENERATION.incrementAndGet();
+    }
+
+    // the number of times the size of an image became known; slide layouts made before a change are not used
+    static int getSizeGeneration()
+    {
+        return SIZE_GENERATION.get();
+    }
+
+    // ask the cache for the image, unless a request is still running; the observer is told to repaint when it is ready
+    private synchronized CompletableFuture<BufferedImage> startDecoding(ImageObserver observer)
+    {
+        boolean running = this.decoding != null && !this.decoding.isDone();
+        if (observer != null)
+        {
+            this.waitingObservers.add(observer);
+        }
+        URL url = this.source;
+        if (url == null)
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!running)
+        {
+            this.decoding = ImageCache.getShared().get(url.toExternalForm(), () -> decode(url), this.decoder);
+            this.decoding.thenAccept(this::imageReady);
+        }
+        return this.decoding;
+    }
+
+    // Runs on a decoder thread
+    private BufferedImage decode(URL url)
+    {
+        long start = Metrics.start();
+        ImageDecodeEvent event = new ImageDecodeEvent();
+        event.begin();
+        BufferedImage image = null;
+        try
+        {
+            image = readImage(url);
+            return image;
+        } finally
+        {
+            Metrics.record(Phase.IMAGE_DECODE, start);
+            event.commit(url.toExternalForm(), image != null ? image.getWidth() : 0, image != null ? image.getHeight() : 0,
+                    image != null ? ImageCache.sizeOf(image) : 0);
+        }
+    }
+
+    private BufferedImage readImage(URL url)
+    {
+        try
+        {
+            BufferedImage image = ImageIO.read(url);
+            if (image != null)
+            {
+                return image;
+            }
+            System.err.println(FILE + this.imageName + NOTFOUND + ": no reader for this image format");
+        } catch (IOException e)
+        {
+            System.err.println(FILE + this.imageName + NOTFOUND + ": " + e.getMessage());
+        }
+
+        // Try with fallback image if there was an error
+        try
+        {
+            URL fallback = getClass().getClassLoader().getResource(FALLBACK);
+            if (fallback != null)
+            {
+                BufferedImage image = ImageIO.read(fallback);
+                System.err.println("Using fallback image");
+                return image;
+            }
+        } catch (IOException fallbackEx)
+        {
+            // If even fallback fails, just report error
+            System.err.println("Fallback image also failed: " + fallbackEx.getMessage());
+        }
+        return null;
+    }
+
+    private void imageReady(BufferedImage image)
+    {
+        ImageObserver[] observers;
+        boolean sizeChanged = false;
+        synchronized (this)
+        {
+            if (image != null)
+            {
+                // Kept for the placeholder if the image is evicted from the cache
+                Dimension size = new Dimension(image.getWidth(), image.getHeight());
+                sizeChanged = !size.equals(this.imageSize);
+                this.imageSize = size;
+            }
+            else
+            {
+                // Nothing could be decoded, so there is nothing to draw either
+                this.source = null;
+            }
+            observers = this.waitingObservers.toArray(new ImageObserver[0]);
+            this.waitingObservers.clear();
+        }
+        if (sizeChanged)
+        {
+            SIZE_GENERATION.incrementAndGet();
+        }
+        int width = image != null ? image.getWidth() : 0;
+        int height = image != null ? image.getHeight() : 0;
+        for (ImageObserver observer : observers)
+        {
+            // A Component repaints itself when it is told that all bits are there
+            observer.imageUpdate(image, ImageObserver.ALLBITS, 0, 0, width, height);
+        }
+    }
+
+    // Read only the header of the image for its size, without decoding the pixels; null if it cannot be read
+    private static Dimension readImageSize(URL url)
+    {
+        try (InputStream in = url.openStream();
+             ImageInputStream imageIn = ImageIO.createImageInputStream(in))
+        {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageIn);
+            if (readers.hasNext())
+            {
+                ImageReader reader = readers.next();
+                try
+                {
+                    reader.setInput(imageIn, true, true);
+                    return new Dimension(reader.getWidth(0), reader.getHeight(0));
+                } finally
+                {
+                    reader.dispose();
+                }
+            }
+        } catch (IOException e)
+        {
+            System.err.println(FILE + url + NOTFOUND + ": " + e.getMessage());
+        }
+        return null;
     }
 
     public String toString()
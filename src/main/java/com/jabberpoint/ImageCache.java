@@ -0,0 +1,324 @@
+package com.jabberpoint;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import com.jabberpoint.metrics.CacheLookupEvent;
+
+/**
+ * <p>Process-wide cache of decoded images, keyed by the resolved image source.</p>
+ * <p>Every source is decoded once, however many items show it; requests that arrive while
+ * it is being decoded share that decode. The decoded images are kept within a byte budget
+ * and the least recently used ones are evicted first, except the ones that are pinned because
+ * they are shown. The budget of the shared cache can be set with the system property
+ * jabberpoint.imageCache.maxBytes.</p>
+ */
+public class ImageCache
+{
+    public static final String MAX_BYTES_PROPERTY = "jabberpoint.imageCache.maxBytes";
+    public static final long DEFAULT_MAX_BYTES = 128L * 1024 * 1024;
+
+    private static final ImageCache SHARED = new ImageCache(Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES));
+
+    // Access order, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Object, Set<String>> pins = new WeakHashMap<>(); // per owner, the images it shows
+    private long maxBytes;
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * A cached image, or the decode that will produce it
+     */
+    private static class Entry
+    {
+        final CompletableFuture<BufferedImage> image;
+        long bytes = 0; // counted once the image is decoded
+
+        Entry(CompletableFuture<BufferedImage> image)
+        {
+            this.image = image;
+        }
+    }
+
+    /**
+     * Create a cache
+     *
+     * @param maxBytes The number of bytes the decoded images may take up
+     */
+    public ImageCache(long maxBytes)
+    {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return The cache shared by all BitmapItems
+     */
+    public static ImageCache getShared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * Give a decoded image without starting a decode
+     *
+     * @param key The resolved image source
+     * @return The image, or null if it is not decoded or not cached
+     */
+    public synchronized BufferedImage getIfPresent(String key)
+    {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        Entry entry = this.entries.get(key);
+        if (entry == null || !entry.image.isDone() || entry.image.isCompletedExceptionally())
+        {
+            this.misses++;
+            event.commit(getClass(), key, false, 0);
+            return null;
+        }
+        this.hits++;
+        event.commit(getClass(), key, true, entry.bytes);
+        return entry.image.join();
+    }
+
+    /**
+     * Give an image, decoding it if it is not cached
+     *
+     * @param key      The resolved image source
+     * @param loader   Decodes the image; it may return null if there is no image
+     * @param executor The executor to decode on
+     * @return The decoded image, or the decode that is already running for this key
+     */
+    public synchronized CompletableFuture<BufferedImage> get(String key, Supplier<BufferedImage> loader, Executor executor)
+    {
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        Entry entry = this.entries.get(key);
+        if (entry != null)
+        {
+            this.hits++;
+            event.commit(getClass(), key, true, entry.bytes);
+            return entry.image;
+        }
+        this.misses++;
+        event.commit(getClass(), key, false, 0);
+        Entry loading = new Entry(CompletableFuture.supplyAsync(loader, executor));
+        this.entries.put(key, loading);
+        loading.image.whenComplete((image, error) -> loaded(key, loading, image));
+        return loading.image;
+    }
+
+    /**
+     * Decode an image on the calling thread and store it, unless it is removed meanwhile
+     *
+     * @param key    The resolved image source
+     * @param loader Decodes the image; it may return null if there is no image
+     * @return The decoded image, also when it was removed while it was decoded
+     */
+    public BufferedImage load(String key, Supplier<BufferedImage> loader)
+    {
+        // Pending first, so a remove during the decode is seen by loaded()
+        Entry loading = new Entry(new CompletableFuture<>());
+        synchronized (this)
+        {
+            remove(key);
+            this.entries.put(key, loading);
+        }
+        BufferedImage image = null;
+        try
+        {
+            image = loader.get();
+        } finally
+        {
+            loading.image.complete(image);
+            loaded(key, loading, image);
+        }
+        return image;
+    }
+
+    /**
+     * Store an image that was decoded elsewhere
+     *
+     * @param key   The resolved image source
+     * @param image The decoded image
+     */
+    public void put(String key, BufferedImage image)
+    {
+        Entry entry = new Entry(CompletableFuture.completedFuture(image));
+        synchronized (this)
+        {
+            remove(key);
+            this.entries.put(key, entry);
+        }
+        loaded(key, entry, image);
+    }
+
+    private synchronized void loaded(String key, Entry entry, BufferedImage image)
+    {
+        if (this.entries.get(key) != entry)
+        {
+            // Removed or replaced while it was decoded
+            return;
+        }
+        if (image == null)
+        {
+            // Nothing to keep; the next request tries again
+            this.entries.remove(key);
+            return;
+        }
+        entry.bytes = sizeOf(image);
+        this.bytes += entry.bytes;
+        evict(entry);
+    }
+
+    // Evict the least recently used images until the budget is met, but never the one just added or a pinned one
+    private void evict(Entry keep)
+    {
+        Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+        while (this.bytes > this.maxBytes && iterator.hasNext())
+        {
+            Map.Entry<String, Entry> next = iterator.next();
+            Entry entry = next.getValue();
+            if (entry != keep && entry.image.isDone() && !isPinned(next.getKey()))
+            {
+                iterator.remove();
+                this.bytes -= entry.bytes;
+                this.evictions++;
+            }
+        }
+    }
+
+    /**
+     * <p>Keep the images an owner shows, even if they take up more than the budget.</p>
+     * <p>Images of one slide that do not fit in the budget together would otherwise evict
+     * each other, and every repaint would decode the evicted ones again. The images are
+     * released by the next call for the owner, or when the owner is collected.</p>
+     *
+     * @param owner The owner of the pins, held weakly
+     * @param keys  The resolved image sources it shows, empty to release them
+     */
+    public synchronized void pin(Object owner, Collection<String> keys)
+    {
+        if (keys.isEmpty())
+        {
+            this.pins.remove(owner);
+        }
+        else
+        {
+            this.pins.put(owner, new HashSet<>(keys));
+        }
+        // Images that are no longer pinned may have to make room now
+        evict(null);
+    }
+
+    // whether an owner shows the image
+    synchronized boolean isPinned(String key)
+    {
+        for (Set<String> keys : this.pins.values())
+        {
+            if (keys.contains(key))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove an image, or forget the decode that is running for it
+     *
+     * @param key The resolved image source
+     */
+    public synchronized void remove(String key)
+    {
+        Entry entry = this.entries.remove(key);
+        if (entry != null)
+        {
+            this.bytes -= entry.bytes;
+        }
+    }
+
+    /**
+     * Remove all images and reset the counters
+     */
+    public synchronized void clear()
+    {
+        this.entries.clear();
+        this.bytes = 0;
+        this.hits = 0;
+        this.misses = 0;
+        this.evictions = 0;
+    }
+
+    /**
+     * Change the budget, evicting images if the cache no longer fits
+     *
+     * @param maxBytes The number of bytes the decoded images may take up
+     */
+    public synchronized void setMaxBytes(long maxBytes)
+    {
+        this.maxBytes = maxBytes;
+        evict(null);
+    }
+
+    public synchronized long getMaxBytes()
+    {
+        return this.maxBytes;
+    }
+
+    // the bytes taken up by the decoded images
+    public synchronized long getByteSize()
+    {
+        return this.bytes;
+    }
+
+    // the number of images, including the ones that are being decoded
+    public synchronized int size()
+    {
+        return this.entries.size();
+    }
+
+    public synchronized long getHitCount()
+    {
+        return this.hits;
+    }
+
+    public synchronized long getMissCount()
+    {
+        return this.misses;
+    }
+
+    public synchronized long getEvictionCount()
+    {
+        return this.evictions;
+    }
+
+    /**
+     * @param image A decoded image
+     * @return The bytes held by the pixel data of the image
+     */
+    static long sizeOf(BufferedImage image)
+    {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return "ImageCache[" + this.entries.size() + " images, " + this.bytes + " of " + this.maxBytes + " bytes, "
+                + this.hits + " hits, " + this.misses + " misses, " + this.evictions + " evictions]";
+    }
+}
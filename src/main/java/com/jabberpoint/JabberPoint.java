@@ -1,16 +1,22 @@
 package com.jabberpoint;
 
 import javax.swing.JOptionPane;
+import java.io.File;
 import java.io.IOException;
 
 import com.jabberpoint.io.PresentationReader;
 import com.jabberpoint.io.PresentationLoader;
 import com.jabberpoint.io.XMLPresentationLoader;
+import com.jabberpoint.io.BinaryPresentationReader;
 import com.jabberpoint.io.DemoPresentationReader;
+import com.jabberpoint.io.IndexedXMLPresentationReader;
+import com.jabberpoint.io.ParallelXMLPresentationReader;
+import com.jabberpoint.io.ProgressivePresentationReader;
 import com.jabberpoint.io.StrategicXMLPresentationReader;
 import com.jabberpoint.io.XMLParsingStrategyFactory;
 import com.jabberpoint.error.DialogErrorHandler;
 import com.jabberpoint.error.ErrorHandler;
+import com.jabberpoint.metrics.Metrics;
 
 /**
  * JabberPoint Main Programma
@@ -28,9 +34,22 @@ public class JabberPoint
     protected static final String IOERR = "IO Error: ";
     protected static final String JABERR = "Jabberpoint Error ";
     protected static final String JABVERSION = "Jabberpoint 1.6 - OU version";
+    protected static final String EXPORT_USAGE = "Usage: JabberPoint --export <presentation> <directory> [<width>x<height>] [<threads>]";
 
     public static void main(String argv[])
     {
+        if (argv.length > 0 && argv[0].equals("--export"))
+        {
+            // Write the slides as images without opening a window
+            System.exit(export(argv));
+        }
+
+        if (Boolean.getBoolean(Metrics.ENABLED_PROPERTY))
+        {
+            // Published over JMX as com.jabberpoint:type=Metrics
+            Metrics.enable();
+        }
+
         // Create styles first
         Style.createStyles();
 
@@ -53,6 +72,12 @@ public class JabberPoint
             {
                 reader = new DemoPresentationReader();
             }
+            else if (argv.length == 1 && argv[0].endsWith(".jpb"))
+            {
+                // Binary presentations written by BinaryPresentationWriter
+                reader = new BinaryPresentationReader();
+                filename = argv[0];
+            }
             else if (argv.length == 1)
             {
                 // Use the strategic XML reader with the default DOM strategy
@@ -66,6 +91,31 @@ public class JabberPoint
                         XMLParsingStrategyFactory.StrategyType.SAX);
                 filename = argv[1];
             }
+            else if (argv.length == 2 && argv[0].equals("--stax"))
+            {
+                // Use the strategic XML reader with the StAX pull-parser strategy
+                reader = new StrategicXMLPresentationReader(
+                        XMLParsingStrategyFactory.StrategyType.STAX);
+                filename = argv[1];
+            }
+            else if (argv.length == 2 && argv[0].equals("--parallel"))
+            {
+                // Parse the slides on all cores
+                reader = new ParallelXMLPresentationReader();
+                filename = argv[1];
+            }
+            else if (argv.length == 2 && argv[0].equals("--progressive"))
+            {
+                // Show the first slide while the rest is loaded in the background
+                reader = new ProgressivePresentationReader(errorHandler);
+                filename = argv[1];
+            }
+            else if (argv.length == 2 && argv[0].equals("--lazy"))
+            {
+                // Index the slides and only parse them when they are shown
+                reader = new IndexedXMLPresentationReader();
+                filename = argv[1];
+            }
             else
             {
                 // Default to DOM strategy
@@ -76,11 +126,70 @@ public class JabberPoint
 
             // Load the presentation
             reader.loadPresentation(presentation, filename);
-            presentation.setSlideNumber(0);
+            if (!(reader instanceof ProgressivePresentationReader))
+            {
+                // A progressive load shows its first slide on the event thread when it arrives
+                presentation.setSlideNumber(0);
+            }
         } catch (Exception ex)
         {
             // Use the error handler instead of directly showing dialog
             errorHandler.handleError(IOERR, ex);
         }
     }
+
+    /**
+     * Export the slides of a presentation to PNG files
+     *
+     * @param argv --export, the presentation, the directory, and optionally the size and the number of threads
+     * @return The exit status
+     */
+    static int export(String[] argv)
+    {
+        System.setProperty("java.awt.headless", "true");
+        if (argv.length < 3 || argv.length > 5)
+        {
+            System.err.println(EXPORT_USAGE);
+            return 2;
+        }
+        int width = Slide.WIDTH;
+        int height = Slide.HEIGHT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        SlideExporter exporter;
+        try
+        {
+            if (argv.length > 3)
+            {
+                String[] size = argv[3].split("x");
+                width = Integer.parseInt(size[0]);
+                height = Integer.parseInt(size[1]);
+            }
+            if (argv.length > 4)
+            {
+                threads = Integer.parseInt(argv[4]);
+            }
+            exporter = new SlideExporter(width, height, threads);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e)
+        {
+            System.err.println(EXPORT_USAGE);
+            return 2;
+        }
+        try
+        {
+            Style.createStyles();
+            Presentation presentation = new Presentation();
+            PresentationReader reader = argv[1].endsWith(".jpb")
+                    ? new BinaryPresentationReader() : new StrategicXMLPresentationReader();
+            reader.loadPresentation(presentation, argv[1]);
+            long start = System.nanoTime();
+            int count = exporter.export(presentation, new File(argv[2])).size();
+            System.out.println("Exported " + count + " slides to " + argv[2] + " in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return 0;
+        } catch (Exception ex)
+        {
+            System.err.println(IOERR + ex.getMessage());
+            return 1;
+        }
+    }
 }
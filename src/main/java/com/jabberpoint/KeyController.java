@@ -13,10 +13,18 @@ import java.awt.event.KeyAdapter;
 public class KeyController extends KeyAdapter
 {
     private Presentation presentation; // Commands are given to the presentation
+    private NavigationCoalescer navigator; // collapses key repeats, null to page on every key
 
     public KeyController(Presentation p)
+    {
+        this(p, null);
+    }
+
+    // a controller that pages through the coalescer, so a held key only shows the slide it stops at
+    public KeyController(Presentation p, NavigationCoalescer navigator)
     {
         this.presentation = p;
+        this.navigator = navigator;
     }
 
     public void keyPressed(KeyEvent keyEvent)
@@ -27,12 +35,26 @@ public class KeyController extends KeyAdapter
             case KeyEvent.VK_DOWN:
             case KeyEvent.VK_ENTER:
             case '+':
-                presentation.nextSlide();
+                if (navigator != null)
+                {
+                    navigator.step(1);
+                }
+                else
+                {
+                    presentation.nextSlide();
+                }
                 break;
             case KeyEvent.VK_PAGE_UP:
             case KeyEvent.VK_UP:
             case '-':
-                presentation.prevSlide();
+                if (navigator != null)
+                {
+                    navigator.step(-1);
+                }
+                else
+                {
+                    presentation.prevSlide();
+                }
                 break;
             case 'q':
             case 'Q':
@@ -12,6 +12,8 @@ import java.io.IOException;
 import javax.swing.JOptionPane;
 
 import com.jabberpoint.io.PresentationLoader;
+import com.jabberpoint.io.PresentationReader;
+import com.jabberpoint.io.ProgressivePresentationReader;
 import com.jabberpoint.io.XMLPresentationLoader;
 import com.jabberpoint.error.DialogErrorHandler;
 import com.jabberpoint.error.ErrorHandler;
@@ -77,10 +79,9 @@ public class MenuController extends MenuBar
             {
                 try
                 {
-                    // Use loader directly from io package
-                    PresentationLoader loader = new XMLPresentationLoader();
-                    loader.loadPresentation(presentation, TESTFILE);
-                    presentation.setSlideNumber(0);
+                    // Load in the background; the first slide is shown as soon as it is read
+                    PresentationReader reader = new ProgressivePresentationReader(errorHandler);
+                    reader.loadPresentation(presentation, TESTFILE);
                 } catch (Exception exc)
                 {
                     errorHandler.handleError("Could not load presentation", exc);
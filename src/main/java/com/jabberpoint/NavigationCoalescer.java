@@ -0,0 +1,98 @@
+package com.jabberpoint;
+
+import java.util.concurrent.Executor;
+import javax.swing.SwingUtilities;
+
+/**
+ * <p>Collapses quick successions of navigation steps into one slide change.</p>
+ * <p>Every step is added to a pending offset, and one slide change to the sum is posted
+ * behind the events that are already queued. When a held key repeats faster than slides
+ * are shown, the presentation jumps straight to the latest target, so observers are told
+ * about it once and slides in between are never drawn.</p>
+ */
+public class NavigationCoalescer
+{
+    private final Presentation presentation;
+    private final Executor executor;
+    private int pendingSteps = 0;
+    private boolean scheduled = false;
+    private long coalesced = 0;
+
+    /**
+     * Create a coalescer that changes the slide on the event thread
+     *
+     * @param presentation The presentation to navigate
+     */
+    public NavigationCoalescer(Presentation presentation)
+    {
+        this(presentation, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Create a coalescer
+     *
+     * @param presentation The presentation to navigate
+     * @param executor     Runs the slide change after the steps that are already queued
+     */
+    public NavigationCoalescer(Presentation presentation, Executor executor)
+    {
+        this.presentation = presentation;
+        this.executor = executor;
+    }
+
+    /**
+     * Move a number of slides, together with the other steps that arrive before the slide is changed
+     *
+     * @param steps The number of slides to move, negative to move back
+     */
+    public void step(int steps)
+    {
+        boolean schedule;
+        synchronized (this)
+        {
+            this.pendingSteps += steps;
+            schedule = !this.scheduled;
+            if (schedule)
+            {
+                this.scheduled = true;
+            }
+            else
+            {
+                this.coalesced++;
+            }
+        }
+        if (schedule)
+        {
+            this.executor.execute(this::flush);
+        }
+    }
+
+    // go to the sum of the pending steps, staying within the presentation
+    private void flush()
+    {
+        int steps;
+        synchronized (this)
+        {
+            steps = this.pendingSteps;
+            this.pendingSteps = 0;
+            this.scheduled = false;
+        }
+        int size = this.presentation.getSize();
+        if (size == 0 || steps == 0)
+        {
+            return;
+        }
+        int current = this.presentation.getSlideNumber();
+        int target = Math.max(0, Math.min(size - 1, current + steps));
+        if (target != current)
+        {
+            this.presentation.setSlideNumber(target);
+        }
+    }
+
+    // the number of steps that were folded into an earlier slide change
+    public synchronized long getCoalescedCount()
+    {
+        return this.coalesced;
+    }
+}
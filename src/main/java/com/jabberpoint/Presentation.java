@@ -1,7 +1,10 @@
 package com.jabberpoint;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import com.jabberpoint.error.DialogErrorHandler;
 import com.jabberpoint.io.PresentationReader;
@@ -23,6 +26,9 @@ public class Presentation
     private int currentSlideNumber = 0;
     private PresentationObserverManager observerManager;
     private SlideViewerComponent slideViewComponent = null; // the viewcomponent of the Slides
+    private volatile int loadNumber = 0; // changes whenever the slides are replaced
+    private volatile boolean loading = false;
+    private int expectedSize = 0;
 
     public Presentation()
     {
@@ -63,11 +69,43 @@ public class Presentation
         this.observerManager.addObserver(observer);
     }
 
+    /**
+     * Add an observer that is told through a queue of its own, so it does not hold up navigation
+     *
+     * @param observer The observer to add
+     * @param executor Runs the notifications, such as PresentationObserverManager.EVENT_THREAD
+     */
+    public void addObserver(PresentationObserver observer, Executor executor)
+    {
+        this.observerManager.addObserver(observer, executor);
+    }
+
+    /**
+     * Add an observer that the presentation does not keep alive, such as a view that may be replaced
+     *
+     * @param observer The observer to add
+     * @param executor Runs the notifications, such as PresentationObserverManager.EVENT_THREAD
+     */
+    public void addWeakObserver(PresentationObserver observer, Executor executor)
+    {
+        this.observerManager.addWeakObserver(observer, executor);
+    }
+
     public void removeObserver(PresentationObserver observer)
     {
         this.observerManager.removeObserver(observer);
     }
 
+    /**
+     * Set how long the presentation has to stay on a slide before observers are told it settled
+     *
+     * @param millis The delay in milliseconds; 0 reports every slide change as settled at once
+     */
+    public void setSettleDelay(int millis)
+    {
+        this.observerManager.setSettleDelay(millis);
+    }
+
     private void notifySlideChanged()
     {
         this.observerManager.notifySlideChanged(this.currentSlideNumber);
@@ -153,6 +191,8 @@ public class Presentation
     // Delete the presentation to be ready for the next one.
     void clear()
     {
+        endLoad();
+        release(this.slides);
         this.slides = new ArrayList<>();
         this.currentSlideNumber = -1;
         notifyPresentationChanged();
@@ -202,10 +242,116 @@ public class Presentation
 
     public void setSlides(List<Slide> slides)
     {
+        endLoad();
+        if (slides != this.slides)
+        {
+            release(this.slides);
+        }
         this.slides = (slides != null) ? slides : new ArrayList<>();
         notifyPresentationChanged();
     }
 
+    // close slides that hold on to their file, such as a LazySlideList, when they are replaced
+    private static void release(List<Slide> slides)
+    {
+        if (slides instanceof Closeable)
+        {
+            try
+            {
+                ((Closeable) slides).close();
+            } catch (IOException e)
+            {
+                System.err.println("Error releasing slides: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Start a progressive load
+     * The slides are removed; they arrive later through appendLoadedSlides. Replacing
+     * the slides in any other way, or starting another load, supersedes this load.
+     *
+     * @return The number of this load, to be passed back with its slides
+     */
+    public int startLoading()
+    {
+        endLoad();
+        release(this.slides);
+        this.slides = new ArrayList<>();
+        this.currentSlideNumber = -1;
+        this.loading = true;
+        notifyPresentationChanged();
+        return this.loadNumber;
+    }
+
+    /**
+     * Append a batch of slides from a progressive load and show the first slide as soon as it exists
+     *
+     * @param load         The number returned by startLoading
+     * @param batch        The slides to append
+     * @param expectedSize The provisional estimate of the total number of slides
+     * @return False if the load was superseded and the slides were not appended
+     */
+    public boolean appendLoadedSlides(int load, List<Slide> batch, int expectedSize)
+    {
+        if (!isCurrentLoad(load))
+        {
+            return false;
+        }
+        this.slides.addAll(batch);
+        this.expectedSize = Math.max(expectedSize, this.slides.size());
+        if (this.currentSlideNumber < 0 && !this.slides.isEmpty())
+        {
+            setSlideNumber(0);
+        }
+        this.observerManager.notifyLoadProgress(this.slides.size(), this.expectedSize);
+        return true;
+    }
+
+    /**
+     * Finish a progressive load, after its last slide was appended
+     *
+     * @param load The number returned by startLoading
+     */
+    public void finishLoading(int load)
+    {
+        if (!isCurrentLoad(load))
+        {
+            return;
+        }
+        this.loading = false;
+        this.expectedSize = this.slides.size();
+        this.observerManager.notifyLoadComplete(this.slides.size());
+    }
+
+    /**
+     * @param load The number returned by startLoading
+     * @return True while the load is running and has not been superseded
+     */
+    public boolean isCurrentLoad(int load)
+    {
+        return this.loading && this.loadNumber == load;
+    }
+
+    public boolean isLoading()
+    {
+        return this.loading;
+    }
+
+    // the number of slides to show while loading: the provisional estimate, never less than the slides loaded so far
+    public int getExpectedSize()
+    {
+        return this.loading ? Math.max(this.expectedSize, this.slides.size()) : this.slides.size();
+    }
+
+    // stop accepting slides from the running load, if any
+    private void endLoad()
+    {
+        this.loadNumber++;
+        this.loading = false;
+        this.expectedSize = 0;
+    }
+
     public int getCurrentSlideNumber()
     {
         return this.currentSlideNumber;
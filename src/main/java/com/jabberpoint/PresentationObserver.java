@@ -5,7 +5,44 @@ package com.jabberpoint;
  */
 public interface PresentationObserver
 {
-    void onSlideChanged(int slideNumber);
+    /**
+     * Called for every slide the presentation moves to
+     * Observers that only care where the user stops implement onSlideSettled instead.
+     *
+     * @param slideNumber The current slide number
+     */
+    default void onSlideChanged(int slideNumber)
+    {
+    }
+
+    /**
+     * Called once the presentation has stayed on a slide for a moment, so slides that are
+     * paged past quickly are not reported
+     *
+     * @param slideNumber The slide the presentation settled on
+     */
+    default void onSlideSettled(int slideNumber)
+    {
+    }
 
     void onPresentationChanged();
+
+    /**
+     * Called while a presentation is loaded progressively, after new slides were appended
+     *
+     * @param loadedSlides   The number of slides loaded so far
+     * @param expectedSlides The provisional estimate of the total number of slides
+     */
+    default void onLoadProgress(int loadedSlides, int expectedSlides)
+    {
+    }
+
+    /**
+     * Called when a progressive load has appended its last slide
+     *
+     * @param slideCount The final number of slides
+     */
+    default void onLoadComplete(int slideCount)
+    {
+    }
 } 
\ No newline at end of file
@@ -1,60 +1,478 @@
-package com.jabberpoint;
-
-import java.util.ArrayList;
-import java.util.List;
-
-/**
- * Manages observers for a presentation
- * Extracted to follow Single Responsibility Principle
- */
-public class PresentationObserverManager
-{
-    private List<PresentationObserver> observers = new ArrayList<>();
-
-    /**
-     * Add an observer to be notified of presentation changes
-     *
-     * @param observer The observer to add
-     */
-    public void addObserver(PresentationObserver observer)
-    {
-        if (observer != null)
-        {
-            this.observers.add(observer);
-        }
-    }
-
-    /**
-     * Remove an observer
-     *
-     * @param observer The observer to remove
-     */
-    public void removeObserver(PresentationObserver observer)
-    {
-        this.observers.remove(observer);
-    }
-
-    /**
-     * Notify all observers that the slide has changed
-     *
-     * @param slideNumber The current slide number
-     */
-    public void notifySlideChanged(int slideNumber)
-    {
-        for (PresentationObserver observer : this.observers)
-        {
-            observer.onSlideChanged(slideNumber);
-        }
-    }
-
-    /**
-     * Notify all observers that the presentation has changed
-     */
-    public void notifyPresentationChanged()
-    {
-        for (PresentationObserver observer : this.observers)
-        {
-            observer.onPresentationChanged();
-        }
-    }
+package com.jabberpoint;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Manages observers for a presentation
+ * Extracted to follow Single Responsibility Principle
+ * <p>
+ * Observers added without an executor are told on the notifying thread, before the
+ * notification returns. Observers added with an executor get a queue of their own that is
+ * drained on that executor, so a slow observer does not hold up navigation or the other
+ * observers. A slide change, settle or load progress replaces one of the same kind that is
+ * still queued, and a full queue drops the oldest of those; presentation changes and load
+ * completions are never dropped. Observers may be added and
+ * removed while they are notified.
+ * <p>
+ * Observers added with addWeakObserver are only held weakly, so a view that is no longer
+ * shown can be collected without being removed. Registrations of collected observers are
+ * purged when the next notification finds them.
+ */
+public class PresentationObserverManager
+{
+    public static final int DEFAULT_SETTLE_DELAY = 150; // milliseconds
+    public static final int DEFAULT_QUEUE_CAPACITY = 64; // notifications per queued observer
+
+    /**
+     * Tells observers on the Swing event thread, for views
+     */
+    public static final Executor EVENT_THREAD = SwingUtilities::invokeLater;
+
+    /**
+     * Tells observers on a shared pool of daemon threads, for observers that do not touch Swing
+     */
+    public static final Executor BACKGROUND = createBackgroundPool();
+
+    private final List<Registration> observers = new CopyOnWriteArrayList<>();
+    private final int queueCapacity;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+    private int settleDelay = DEFAULT_SETTLE_DELAY;
+    private Timer settleTimer; // restarted by every slide change, made with the first one
+    private volatile int settlingSlide = -1;
+
+    /**
+     * The kinds of notification a later one of the same kind makes superfluous
+     */
+    private enum Kind
+    {
+        SLIDE_CHANGED, SLIDE_SETTLED, LOAD_PROGRESS, OTHER
+    }
+
+    /**
+     * A notification waiting for its observer
+     */
+    private static final class Notification
+    {
+        final Kind kind;
+        final Consumer<PresentationObserver> call;
+
+        Notification(Kind kind, Consumer<PresentationObserver> call)
+        {
+            this.kind = kind;
+            this.call = call;
+        }
+    }
+
+    /**
+     * An observer, held strongly or weakly, with its queue if it is told on an executor
+     */
+    private final class Registration
+    {
+        private final PresentationObserver strong;
+        private final WeakReference<PresentationObserver> weak;
+        final ObserverQueue queue; // null if the observer is told on the notifying thread
+
+        Registration(PresentationObserver observer, Executor executor, boolean weak)
+        {
+            this.strong = weak ? null : observer;
+            this.weak = weak ? new WeakReference<>(observer) : null;
+            this.queue = executor != null ? new ObserverQueue(this, executor) : null;
+        }
+
+        // the observer, or null once a weakly held one is collected
+        PresentationObserver get()
+        {
+            return this.strong != null ? this.strong : this.weak.get();
+        }
+
+        void close()
+        {
+            if (this.queue != null)
+            {
+                this.queue.close();
+            }
+        }
+    }
+
+    /**
+     * The notifications of one observer, drained in order by one task at a time on its executor
+     */
+    private final class ObserverQueue
+    {
+        private final Registration registration;
+        private final Executor executor;
+        private final ArrayDeque<Notification> pending = new ArrayDeque<>();
+        private boolean scheduled = false;
+        private boolean closed = false;
+
+        ObserverQueue(Registration registration, Executor executor)
+        {
+            this.registration = registration;
+            this.executor = executor;
+        }
+
+        void offer(Notification notification)
+        {
+            synchronized (this)
+            {
+                if (this.closed)
+                {
+                    return;
+                }
+                if (notification.kind != Kind.OTHER && this.pending.removeIf(queued -> queued.kind == notification.kind))
+                {
+                    PresentationObserverManager.this.coalesced.increment();
+                }
+                if (this.pending.size() >= PresentationObserverManager.this.queueCapacity && dropOldestCoalescible())
+                {
+                    PresentationObserverManager.this.dropped.increment();
+                }
+                this.pending.addLast(notification);
+                if (this.scheduled)
+                {
+                    return;
+                }
+                this.scheduled = true;
+            }
+            this.executor.execute(this::drain);
+        }
+
+        // Presentation changes and load completions are never dropped, so a full queue of them grows instead
+        private boolean dropOldestCoalescible()
+        {
+            Iterator<Notification> queued = this.pending.iterator();
+            while (queued.hasNext())
+            {
+                if (queued.next().kind != Kind.OTHER)
+                {
+                    queued.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void drain()
+        {
+            while (true)
+            {
+                Notification notification;
+                PresentationObserver observer;
+                synchronized (this)
+                {
+                    notification = this.pending.pollFirst();
+                    // Only looked up here, so a queue does not keep a weakly held observer alive
+                    observer = this.registration.get();
+                    if (notification == null || this.closed || observer == null)
+                    {
+                        this.pending.clear();
+                        this.scheduled = false;
+                        return;
+                    }
+                }
+                try
+                {
+                    notification.call.accept(observer);
+                } catch (RuntimeException e)
+                {
+                    System.err.println("Error notifying observer " + observer + ": " + e.getMessage());
+                }
+            }
+        }
+
+        synchronized void close()
+        {
+            this.closed = true;
+            this.pending.clear();
+        }
+    }
+
+    /**
+     * Create a manager whose queued observers hold up to DEFAULT_QUEUE_CAPACITY notifications
+     */
+    public PresentationObserverManager()
+    {
+        this(DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Create a manager
+     *
+     * @param queueCapacity The number of notifications a queued observer holds before the oldest slide changes,
+     *                      settles and load progress are dropped
+     */
+    PresentationObserverManager(int queueCapacity)
+    {
+        if (queueCapacity <= 0)
+        {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    private static ExecutorService createBackgroundPool()
+    {
+        return Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2), runnable ->
+        {
+            Thread thread = new Thread(runnable, "presentation-observer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Add an observer to be notified of presentation changes on the notifying thread
+     *
+     * @param observer The observer to add
+     */
+    public void addObserver(PresentationObserver observer)
+    {
+        register(observer, null, false);
+    }
+
+    /**
+     * Add an observer to be notified of presentation changes on an executor
+     *
+     * @param observer The observer to add
+     * @param executor Runs the notifications, such as EVENT_THREAD or BACKGROUND
+     */
+    public void addObserver(PresentationObserver observer, Executor executor)
+    {
+        register(observer, executor, false);
+    }
+
+    /**
+     * Add an observer that is only held weakly, so it is dropped once nothing else refers to it
+     * Keep a reference to it elsewhere: a lambda that is only passed in here is soon collected.
+     *
+     * @param observer The observer to add
+     */
+    public void addWeakObserver(PresentationObserver observer)
+    {
+        register(observer, null, true);
+    }
+
+    /**
+     * Add an observer that is only held weakly and is notified on an executor
+     *
+     * @param observer The observer to add
+     * @param executor Runs the notifications, such as EVENT_THREAD or BACKGROUND
+     */
+    public void addWeakObserver(PresentationObserver observer, Executor executor)
+    {
+        register(observer, executor, true);
+    }
+
+    private void register(PresentationObserver observer, Executor executor, boolean weak)
+    {
+        if (observer == null)
+        {
+            return;
+        }
+        if (executor != null)
+        {
+            // One queue per observer, so its notifications stay in order
+            removeObserver(observer);
+        }
+        this.observers.add(new Registration(observer, executor, weak));
+    }
+
+    /**
+     * Remove an observer; notifications that are still queued for it are dropped
+     *
+     * @param observer The observer to remove
+     */
+    public void removeObserver(PresentationObserver observer)
+    {
+        for (Registration registration : this.observers)
+        {
+            PresentationObserver registered = registration.get();
+            if (registered == observer || registered == null)
+            {
+                purge(registration, registered == null);
+                if (registered != null && registration.queue == null)
+                {
+                    // Like List.remove, an observer added twice is removed once
+                    return;
+                }
+            }
+        }
+    }
+
+    private void purge(Registration registration, boolean collected)
+    {
+        if (this.observers.remove(registration))
+        {
+            registration.close();
+            if (collected)
+            {
+                this.purged.increment();
+            }
+        }
+    }
+
+    // tell every observer, at once or through its queue, and purge the ones that were collected
+    private void notifyObservers(Kind kind, Consumer<PresentationObserver> call)
+    {
+        Notification notification = null;
+        for (Registration registration : this.observers)
+        {
+            PresentationObserver observer = registration.get();
+            if (observer == null)
+            {
+                purge(registration, true);
+            }
+            else if (registration.queue == null)
+            {
+                call.accept(observer);
+            }
+            else
+            {
+                if (notification == null)
+                {
+                    notification = new Notification(kind, call);
+                }
+                registration.queue.offer(notification);
+            }
+        }
+    }
+
+    /**
+     * @return The observers that are registered and not collected, in the order they were added
+     */
+    public List<PresentationObserver> getObservers()
+    {
+        List<PresentationObserver> live = new ArrayList<>(this.observers.size());
+        for (Registration registration : this.observers)
+        {
+            PresentationObserver observer = registration.get();
+            if (observer != null)
+            {
+                live.add(observer);
+            }
+        }
+        return live;
+    }
+
+    // the registrations, including those of collected observers that have not been purged yet
+    public int getRegistrationCount()
+    {
+        return this.observers.size();
+    }
+
+    /**
+     * Notify all observers that the slide has changed
+     *
+     * @param slideNumber The current slide number
+     */
+    public void notifySlideChanged(int slideNumber)
+    {
+        notifyObservers(Kind.SLIDE_CHANGED, observer -> observer.onSlideChanged(slideNumber));
+        settle(slideNumber);
+    }
+
+    // report the slide as settled once no other slide change followed within the settle delay
+    private synchronized void settle(int slideNumber)
+    {
+        if (this.settleDelay <= 0)
+        {
+            notifySlideSettled(slideNumber);
+            return;
+        }
+        this.settlingSlide = slideNumber;
+        if (this.settleTimer == null)
+        {
+            // Fires on the event thread, like the slide changes of the key and menu controllers
+            this.settleTimer = new Timer(this.settleDelay, e -> notifySlideSettled(this.settlingSlide));
+            this.settleTimer.setRepeats(false);
+        }
+        this.settleTimer.setInitialDelay(this.settleDelay);
+        this.settleTimer.restart();
+    }
+
+    /**
+     * Notify all observers that the presentation settled on a slide
+     *
+     * @param slideNumber The slide the presentation settled on
+     */
+    public void notifySlideSettled(int slideNumber)
+    {
+        notifyObservers(Kind.SLIDE_SETTLED, observer -> observer.onSlideSettled(slideNumber));
+    }
+
+    /**
+     * Set how long the presentation has to stay on a slide before it is reported as settled
+     *
+     * @param millis The delay in milliseconds; 0 reports every slide change as settled at once
+     */
+    public synchronized void setSettleDelay(int millis)
+    {
+        this.settleDelay = millis;
+    }
+
+    public synchronized int getSettleDelay()
+    {
+        return this.settleDelay;
+    }
+
+    /**
+     * Notify all observers that the presentation has changed
+     */
+    public void notifyPresentationChanged()
+    {
+        notifyObservers(Kind.OTHER, PresentationObserver::onPresentationChanged);
+    }
+
+    /**
+     * Notify all observers that a progressive load appended slides
+     *
+     * @param loadedSlides   The number of slides loaded so far
+     * @param expectedSlides The provisional estimate of the total number of slides
+     */
+    public void notifyLoadProgress(int loadedSlides, int expectedSlides)
+    {
+        notifyObservers(Kind.LOAD_PROGRESS, observer -> observer.onLoadProgress(loadedSlides, expectedSlides));
+    }
+
+    /**
+     * Notify all observers that a progressive load has finished
+     *
+     * @param slideCount The final number of slides
+     */
+    public void notifyLoadComplete(int slideCount)
+    {
+        notifyObservers(Kind.OTHER, observer -> observer.onLoadComplete(slideCount));
+    }
+
+    // the notifications that were dropped because a queue was full
+    public long getDroppedCount()
+    {
+        return this.dropped.sum();
+    }
+
+    // the queued notifications that were replaced by a later one of the same kind
+    public long getCoalescedCount()
+    {
+        return this.coalesced.sum();
+    }
+
+    // the registrations of weakly held observers that were removed after they were collected
+    public long getPurgedCount()
+    {
+        return this.purged.sum();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.jabberpoint;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>Cache of slides that are already drawn, at the size of the slide area.</p>
+ * <p>Entries are keyed by the slide number and the size, and the least recently shown
+ * slides are evicted first. A slide that is drawn while one of its images is still being
+ * decoded or scaled is removed again once that image is ready, so it is drawn once more
+ * with the image. Slides that are likely to be shown next can be drawn in the background.
+ * The budget of the cache can be set with the system property jabberpoint.slideCache.maxBytes.</p>
+ */
+public class RenderedSlideCache extends ImageCache
+{
+    public static final String SLIDE_MAX_BYTES_PROPERTY = "jabberpoint.slideCache.maxBytes";
+    public static final long DEFAULT_SLIDE_MAX_BYTES = 64L * 1024 * 1024;
+
+    // One thread, so prerendering does not take the cores away from decoding and painting
+    private static final ExecutorService RENDERER = Executors.newSingleThreadExecutor(runnable ->
+    {
+        Thread thread = new Thread(runnable, "slide-prerenderer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Executor executor;
+
+    /**
+     * Create a cache with the budget of the system property
+     */
+    public RenderedSlideCache()
+    {
+        this(Long.getLong(SLIDE_MAX_BYTES_PROPERTY, DEFAULT_SLIDE_MAX_BYTES));
+    }
+
+    /**
+     * Create a cache
+     *
+     * @param maxBytes The number of bytes the drawn slides may take up
+     */
+    public RenderedSlideCache(long maxBytes)
+    {
+        this(maxBytes, RENDERER);
+    }
+
+    // a cache that prerenders on a specific executor
+    RenderedSlideCache(long maxBytes, Executor executor)
+    {
+        super(maxBytes);
+        this.executor = executor;
+    }
+
+    /**
+     * Give a drawn slide, drawing it on the calling thread if it is not cached
+     *
+     * @param number        The number of the slide
+     * @param slide         The slide
+     * @param width         The width of the slide area
+     * @param height        The height of the slide area
+     * @param configuration The graphics configuration to draw a compatible image for, may be null
+     * @param observer      Told to repaint when an image on the slide is ready, may be null
+     * @return The drawn slide
+     */
+    public BufferedImage getRendered(int number, Slide slide, int width, int height,
+                                     GraphicsConfiguration configuration, ImageObserver observer)
+    {
+        String key = key(number, width, height);
+        BufferedImage rendered = getIfPresent(key);
+        if (rendered == null)
+        {
+            ImageObserver invalidating = invalidating(key, observer);
+            rendered = load(key, () -> render(slide, width, height, configuration, invalidating));
+        }
+        return rendered;
+    }
+
+    /**
+     * Draw a slide in the background, unless it is cached or already being drawn
+     *
+     * @param number        The number of the slide
+     * @param slide         The slide
+     * @param width         The width of the slide area
+     * @param height        The height of the slide area
+     * @param configuration The graphics configuration to draw a compatible image for, may be null
+     * @param observer      Told to repaint when an image on the slide is ready, may be null
+     */
+    public void prerender(int number, Slide slide, int width, int height,
+                          GraphicsConfiguration configuration, ImageObserver observer)
+    {
+        String key = key(number, width, height);
+        ImageObserver invalidating = invalidating(key, observer);
+        get(key, () -> render(slide, width, height, configuration, invalidating), this.executor);
+    }
+
+    // an observer that drops the drawn slide when one of its images is ready, and passes the update on
+    private ImageObserver invalidating(String key, ImageObserver observer)
+    {
+        return (image, infoflags, x, y, width, height) ->
+        {
+            if ((infoflags & (ImageObserver.ALLBITS | ImageObserver.FRAMEBITS)) != 0)
+            {
+                remove(key);
+            }
+            return observer == null || observer.imageUpdate(image, infoflags, x, y, width, height);
+        };
+    }
+
+    /**
+     * @param number The number of the slide
+     * @param width  The width of the slide area
+     * @param height The height of the slide area
+     * @return The key of the slide drawn at that size
+     */
+    public static String key(int number, int width, int height)
+    {
+        return "slide" + number + "@" + width + "x" + height;
+    }
+
+    /**
+     * Draw a slide on a white background
+     *
+     * @param slide         The slide
+     * @param width         The width of the slide area
+     * @param height        The height of the slide area
+     * @param configuration The graphics configuration to draw a compatible image for, may be null
+     * @param observer      Told when an image on the slide changes, may be null
+     * @return The drawn slide
+     */
+    static BufferedImage render(Slide slide, int width, int height, GraphicsConfiguration configuration, ImageObserver observer)
+    {
+        BufferedImage image = configuration != null
+                ? configuration.createCompatibleImage(width, height, Transparency.OPAQUE)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try
+        {
+            g.setColor(Color.white);
+            g.fillRect(0, 0, width, height);
+            slide.draw(g, new Rectangle(0, 0, width, height), observer);
+        } finally
+        {
+            g.dispose();
+        }
+        return image;
+    }
+}
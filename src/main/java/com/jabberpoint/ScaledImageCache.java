@@ -0,0 +1,184 @@
+package com.jabberpoint;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>Cache of images that are already scaled to the size they are drawn at.</p>
+ * <p>Entries are keyed by the image source and the target size, so every scale that rounds
+ * to the same pixel size shares one entry. A missing entry is built on a background thread
+ * in a raster compatible with the graphics it is drawn on, and the observer is told to
+ * repaint when it is ready; after that a repaint is a plain copy. When the window is resized
+ * only the latest size of an image is built. The budget of the shared cache can be set with
+ * the system property jabberpoint.scaledImageCache.maxBytes.</p>
+ */
+public class ScaledImageCache extends ImageCache
+{
+    public static final String SCALED_MAX_BYTES_PROPERTY = "jabberpoint.scaledImageCache.maxBytes";
+    public static final long DEFAULT_SCALED_MAX_BYTES = 64L * 1024 * 1024;
+
+    // One thread, so a resize does not take the cores away from decoding and painting
+    private static final ExecutorService SCALER = Executors.newSingleThreadExecutor(runnable ->
+    {
+        Thread thread = new Thread(runnable, "image-scaler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Created after SCALER, which it uses
+    private static final ScaledImageCache SHARED = new ScaledImageCache(
+            Long.getLong(SCALED_MAX_BYTES_PROPERTY, DEFAULT_SCALED_MAX_BYTES));
+
+    // The size each image source was last asked for; older requests are not built
+    private final Map<String, String> latestRequests = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    /**
+     * Create a cache
+     *
+     * @param maxBytes The number of bytes the scaled images may take up
+     */
+    public ScaledImageCache(long maxBytes)
+    {
+        this(maxBytes, SCALER);
+    }
+
+    // a cache that builds the scaled images on a specific executor
+    ScaledImageCache(long maxBytes, Executor executor)
+    {
+        super(maxBytes);
+        this.executor = executor;
+    }
+
+    /**
+     * @return The cache shared by all BitmapItems
+     */
+    public static ScaledImageCache getShared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * Give an image scaled to a size, building it in the background if it is not cached
+     *
+     * @param sourceKey     The key of the full-size image in the ImageCache
+     * @param image         The full-size image
+     * @param width         The width to draw at
+     * @param height        The height to draw at
+     * @param configuration The graphics configuration to build a compatible image for, may be null
+     * @param observer      Told to repaint when the scaled image is ready, may be null
+     * @return The scaled image, or null while it is being built
+     */
+    public BufferedImage getScaledImage(String sourceKey, BufferedImage image, int width, int height,
+                                        GraphicsConfiguration configuration, ImageObserver observer)
+    {
+        return getScaledImage(key(sourceKey, width, height), sourceKey, image, width, height, configuration, observer);
+    }
+
+    /**
+     * Give an image scaled to a size, with a key the caller built with key() and kept
+     *
+     * @param key           The key of the scaled image
+     * @param sourceKey     The key of the full-size image in the ImageCache
+     * @param image         The full-size image
+     * @param width         The width to draw at
+     * @param height        The height to draw at
+     * @param configuration The graphics configuration to build a compatible image for, may be null
+     * @param observer      Told to repaint when the scaled image is ready, may be null
+     * @return The scaled image, or null while it is being built
+     */
+    public BufferedImage getScaledImage(String key, String sourceKey, BufferedImage image, int width, int height,
+                                        GraphicsConfiguration configuration, ImageObserver observer)
+    {
+        if (width == image.getWidth() && height == image.getHeight())
+        {
+            return image;
+        }
+        BufferedImage scaled = getIfPresent(key);
+        if (scaled != null || width <= 0 || height <= 0)
+        {
+            return scaled;
+        }
+        this.latestRequests.put(sourceKey, key);
+        get(key, () -> key.equals(this.latestRequests.get(sourceKey)) ? scale(image, width, height, configuration) : null, this.executor)
+                .thenAccept(result ->
+                {
+                    if (result != null && observer != null)
+                    {
+                        observer.imageUpdate(result, ImageObserver.ALLBITS, 0, 0, width, height);
+                    }
+                });
+        return null;
+    }
+
+    /**
+     * @param sourceKey The key of the full-size image in the ImageCache
+     * @param width     The width to draw at
+     * @param height    The height to draw at
+     * @return The key of the image at that size
+     */
+    public static String key(String sourceKey, int width, int height)
+    {
+        return sourceKey + "@" + width + "x" + height;
+    }
+
+    /**
+     * Scale an image; large reductions are done in halving steps so no pixels are skipped
+     *
+     * @param image         The image to scale
+     * @param width         The target width
+     * @param height        The target height
+     * @param configuration The graphics configuration to build a compatible image for, may be null
+     * @return The scaled image
+     */
+    static BufferedImage scale(BufferedImage image, int width, int height, GraphicsConfiguration configuration)
+    {
+        BufferedImage current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do
+        {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            if (currentWidth == width || currentHeight == height)
+            {
+                // Enlarging, or the last step
+                currentWidth = width;
+                currentHeight = height;
+            }
+            BufferedImage next = createImage(currentWidth, currentHeight, image, configuration);
+            Graphics2D g = next.createGraphics();
+            try
+            {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally
+            {
+                g.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private static BufferedImage createImage(int width, int height, BufferedImage image, GraphicsConfiguration configuration)
+    {
+        int transparency = image.getColorModel().getTransparency();
+        if (configuration != null)
+        {
+            return configuration.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height, transparency == Transparency.OPAQUE
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+}
@@ -1,6 +1,7 @@
 package com.jabberpoint;
 
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.image.ImageObserver;
 import java.util.Vector;
@@ -18,6 +19,9 @@ public class Slide
     public final static int HEIGHT = 800;
     protected String title; // title is saved separately
     protected Vector<SlideItem> items; // slide items are saved in a Vector
+    private TextItem titleItem; // draws the title, made again when the title changes
+    private int modificationCount = 0; // counts the changes to the title and the items
+    private volatile SlideLayout layout; // the layout of the last paint
 
     public Slide()
     {
@@ -31,6 +35,7 @@ public class Slide
         if (anItem != null)
         {
             this.items.addElement(anItem);
+            this.modificationCount++;
         }
     }
 
@@ -44,6 +49,7 @@ public class Slide
     public void setTitle(String newTitle)
     {
         this.title = newTitle;
+        this.modificationCount++;
     }
 
     // Create TextItem of String, and add the TextItem
@@ -75,28 +81,41 @@ public class Slide
         return this.items.size();
     }
 
-    // draw the slide
+    // draw the slide; once it is laid out for the area only Java2D allocates, while it renders the text
     public void draw(Graphics g, Rectangle area, ImageObserver view)
     {
-        float scale = getScale(area);
-        int y = area.y;
-        // Title is handled separately
-        String title = getTitle();
-        SlideItem slideItem = new TextItem(0, title != null ? title : "");
-        Style style = Style.getStyle(slideItem.getLevel());
-        slideItem.draw(area.x, y, scale, g, style, view);
-        y += slideItem.getBoundingBox(g, view, scale, style).height;
-        for (int number = 0; number < getSize(); number++)
+        getLayout(g, area, view).draw(g, view);
+    }
+
+    // give the layout of the slide in an area, laid out again only when the slide or the area changed
+    public SlideLayout getLayout(Graphics g, Rectangle area, ImageObserver view)
+    {
+        SlideLayout current = this.layout;
+        if (current == null || !current.matches(area, ((Graphics2D) g).getFontRenderContext(), this.modificationCount))
+        {
+            // Title is handled separately
+            current = SlideLayout.layOut(getTitleItem(), this.items.toArray(new SlideItem[0]), this.modificationCount, g, area, view);
+            this.layout = current;
+        }
+        return current;
+    }
+
+    // give the item that draws the title
+    private TextItem getTitleItem()
+    {
+        String title = this.title != null ? this.title : "";
+        TextItem item = this.titleItem;
+        // Compared by identity: setTitle stores a new String, so a changed title is never the same object
+        if (item == null || item.getText() != title)
         {
-            slideItem = getSlideItems().elementAt(number);
-            style = Style.getStyle(slideItem.getLevel());
-            slideItem.draw(area.x, y, scale, g, style, view);
-            y += slideItem.getBoundingBox(g, view, scale, style).height;
+            item = new TextItem(0, title);
+            this.titleItem = item;
         }
+        return item;
     }
 
     // Give the scale for drawing
-    private float getScale(Rectangle area)
+    static float getScale(Rectangle area)
     {
         return Math.min(((float) area.width) / ((float) WIDTH), ((float) area.height) / ((float) HEIGHT));
     }
@@ -0,0 +1,172 @@
+package com.jabberpoint;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+
+/**
+ * <p>Writes every slide of a presentation to an image file, without a window.</p>
+ * <p>The slides are drawn with Slide.draw into BufferedImages and written with ImageIO on a
+ * pool of worker threads, one slide per task, so a large presentation is exported on all
+ * cores. Images on a slide are decoded and pinned in the ImageCache before it is drawn,
+ * so no placeholders end up in the files.</p>
+ */
+public class SlideExporter
+{
+    public static final String DEFAULT_FORMAT = "png";
+
+    private final int width;
+    private final int height;
+    private final int threads;
+    private final String format;
+
+    /**
+     * Create an exporter that writes PNG files
+     *
+     * @param width   The width of the images
+     * @param height  The height of the images
+     * @param threads The number of slides drawn at the same time
+     */
+    public SlideExporter(int width, int height, int threads)
+    {
+        this(width, height, threads, DEFAULT_FORMAT);
+    }
+
+    /**
+     * Create an exporter
+     *
+     * @param width   The width of the images
+     * @param height  The height of the images
+     * @param threads The number of slides drawn at the same time
+     * @param format  The ImageIO format name of the files, such as png
+     */
+    public SlideExporter(int width, int height, int threads, String format)
+    {
+        if (width <= 0 || height <= 0 || threads <= 0)
+        {
+            throw new IllegalArgumentException("Size and threads must be positive: " + width + "x" + height + ", " + threads);
+        }
+        this.width = width;
+        this.height = height;
+        this.threads = threads;
+        this.format = format;
+    }
+
+    /**
+     * Write all slides, named slide-0001.png and so on
+     *
+     * @param presentation The presentation to export
+     * @param directory    The directory to write to; it is made if it does not exist
+     * @return The files, in slide order
+     * @throws IOException If a slide cannot be written
+     */
+    public List<File> export(Presentation presentation, File directory) throws IOException
+    {
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        int count = presentation.getSize();
+        String pattern = "slide-%0" + Math.max(4, String.valueOf(count).length()) + "d." + this.format;
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads, runnable ->
+        {
+            Thread thread = new Thread(runnable, "slide-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try
+        {
+            List<Future<File>> tasks = new ArrayList<>(count);
+            for (int number = 0; number < count; number++)
+            {
+                Slide slide = presentation.getSlide(number);
+                File file = new File(directory, String.format(pattern, number + 1));
+                tasks.add(pool.submit(() -> write(slide, file)));
+            }
+            List<File> files = new ArrayList<>(count);
+            for (Future<File> task : tasks)
+            {
+                files.add(task.get());
+            }
+            return files;
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error exporting slide: " + e.getCause().getMessage(), e.getCause());
+        } finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    // draw one slide and write it
+    private File write(Slide slide, File file) throws IOException
+    {
+        // Pinned while the slide is drawn, so the other workers cannot evict its images in between
+        ImageCache.getShared().pin(slide, imageKeys(slide));
+        try
+        {
+            decodeImages(slide);
+            BufferedImage image = RenderedSlideCache.render(slide, this.width, this.height, null, null);
+            if (!ImageIO.write(image, this.format, file))
+            {
+                throw new IOException("No image writer for " + this.format);
+            }
+            return file;
+        } finally
+        {
+            ImageCache.getShared().pin(slide, Collections.emptyList());
+        }
+    }
+
+    // the keys of the images on the slide in the ImageCache
+    private static List<String> imageKeys(Slide slide)
+    {
+        List<String> keys = new ArrayList<>();
+        for (int number = 0; number < slide.getSize(); number++)
+        {
+            SlideItem item = slide.getSlideItem(number);
+            String key = item instanceof BitmapItem ? ((BitmapItem) item).getImageKey() : null;
+            if (key != null)
+            {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    // wait for the images of the slide, which are otherwise drawn as placeholders until they are decoded
+    private static void decodeImages(Slide slide)
+    {
+        for (int number = 0; number < slide.getSize(); number++)
+        {
+            SlideItem item = slide.getSlideItem(number);
+            if (item instanceof BitmapItem)
+            {
+                try
+                {
+                    ((BitmapItem) item).getImage();
+                } catch (CompletionException e)
+                {
+                    System.err.println("Error reading image " + ((BitmapItem) item).getName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -35,6 +35,13 @@ public abstract class SlideItem
     // Give the bounding box
     public abstract Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style style);
 
+    // Give the bounding box in a Rectangle of the caller, so one Rectangle can be reused for every item
+    public Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style style, Rectangle bounds)
+    {
+        bounds.setBounds(getBoundingBox(g, observer, scale, style));
+        return bounds;
+    }
+
     // Draw the item
     public abstract void draw(int x, int y, float scale, Graphics g, Style style, ImageObserver observer);
 }
@@ -0,0 +1,176 @@
+package com.jabberpoint;
+
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.font.FontRenderContext;
+import java.awt.image.ImageObserver;
+
+import com.jabberpoint.metrics.Metrics;
+import com.jabberpoint.metrics.Phase;
+
+/**
+ * <p>The layout of a slide in one slide area: the position, size and font of the title and of
+ * every item.</p>
+ * <p>A layout is immutable. It is made once and replayed by every paint until the slide changes,
+ * the window is resized or the size of an image becomes known, so a paint does not measure anything. Items outside the clip of
+ * the Graphics are not drawn.</p>
+ */
+public final class SlideLayout
+{
+    // drawn a little outside their bounds by antialiasing, so the clip test leaves some room
+    private static final int MARGIN = 2;
+
+    // one Rectangle per painting thread for the clip
+    private static final ThreadLocal<Rectangle> CLIP = ThreadLocal.withInitial(Rectangle::new);
+
+    private final Rectangle area;
+    private final float scale;
+    private final FontRenderContext frc;
+    private final int modificationCount;
+    private final int textGeneration;
+    private final int sizeGeneration;
+    // the title first, then the items; one entry per index in each array
+    private final SlideItem[] items;
+    private final Style[] styles;
+    private final Font[] fonts;
+    private final int[] tops;
+    private final int[] lefts;
+    private final int[] widths;
+    private final int[] heights;
+
+    private SlideLayout(Rectangle area, float scale, FontRenderContext frc, int modificationCount, int textGeneration, int size)
+    {
+        this.area = new Rectangle(area);
+        this.scale = scale;
+        this.frc = frc;
+        this.modificationCount = modificationCount;
+        this.textGeneration = textGeneration;
+        this.sizeGeneration = BitmapItem.getSizeGeneration();
+        this.items = new SlideItem[size];
+        this.styles = new Style[size];
+        this.fonts = new Font[size];
+        this.tops = new int[size];
+        this.lefts = new int[size];
+        this.widths = new int[size];
+        this.heights = new int[size];
+    }
+
+    /**
+     * Lay out the title and the items of a slide below each other
+     *
+     * @param title             The item that draws the title
+     * @param items             The items of the slide
+     * @param modificationCount The modification count of the slide
+     * @param g                 The Graphics the slide is measured for
+     * @param area              The area the slide is drawn in
+     * @param observer          Told when an image that is measured changes
+     * @return The layout
+     */
+    static SlideLayout layOut(SlideItem title, SlideItem[] items, int modificationCount, Graphics g, Rectangle area, ImageObserver observer)
+    {
+        long start = Metrics.start();
+        float scale = Slide.getScale(area);
+        SlideLayout layout = new SlideLayout(area, scale, ((Graphics2D) g).getFontRenderContext(), modificationCount,
+                TextItem.getLayoutGeneration(), items.length + 1);
+        Rectangle bounds = new Rectangle();
+        int y = area.y;
+        for (int number = 0; number <= items.length; number++)
+        {
+            SlideItem item = number == 0 ? title : items[number - 1];
+            Style style = Style.getStyle(item.getLevel());
+            item.getBoundingBox(g, observer, scale, style, bounds);
+            layout.items[number] = item;
+            layout.styles[number] = style;
+            layout.fonts[number] = style.getFont(scale);
+            layout.tops[number] = y;
+            layout.lefts[number] = area.x + bounds.x;
+            layout.widths[number] = bounds.width;
+            layout.heights[number] = bounds.height;
+            y += bounds.height;
+        }
+        Metrics.record(Phase.LAYOUT, start);
+        return layout;
+    }
+
+    /**
+     * @param area              The area the slide is drawn in
+     * @param frc               The FontRenderContext of the Graphics it is drawn on
+     * @param modificationCount The modification count of the slide
+     * @return Whether this layout can be drawn for them
+     */
+    boolean matches(Rectangle area, FontRenderContext frc, int modificationCount)
+    {
+        return this.modificationCount == modificationCount && this.textGeneration == TextItem.getLayoutGeneration()
+                && this.sizeGeneration == BitmapItem.getSizeGeneration()
+                && this.area.equals(area) && this.frc.equals(frc);
+    }
+
+    /**
+     * Draw the items that are inside the clip of the Graphics
+     *
+     * @param g        The Graphics to draw on
+     * @param observer Told when an image that is drawn changes
+     */
+    public void draw(Graphics g, ImageObserver observer)
+    {
+        long start = Metrics.start();
+        Rectangle clip = CLIP.get();
+        // left as it is when there is no clip, so everything is drawn
+        clip.setBounds(Integer.MIN_VALUE / 2, Integer.MIN_VALUE / 2, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        g.getClipBounds(clip);
+        for (int number = 0; number < this.items.length; number++)
+        {
+            if (isVisible(number, clip))
+            {
+                this.items[number].draw(this.area.x, this.tops[number], this.scale, g, this.styles[number], observer);
+            }
+        }
+        Metrics.record(Phase.SLIDE_PAINT, start);
+    }
+
+    private boolean isVisible(int number, Rectangle clip)
+    {
+        return this.tops[number] - MARGIN < clip.y + clip.height && this.tops[number] + this.heights[number] + MARGIN > clip.y
+                && this.lefts[number] - MARGIN < clip.x + clip.width && this.lefts[number] + this.widths[number] + MARGIN > clip.x;
+    }
+
+    // the number of laid out items, the title included
+    public int getItemCount()
+    {
+        return this.items.length;
+    }
+
+    // give the item at a position; 0 is the title
+    public SlideItem getItem(int number)
+    {
+        return this.items[number];
+    }
+
+    public Style getStyle(int number)
+    {
+        return this.styles[number];
+    }
+
+    public Font getFont(int number)
+    {
+        return this.fonts[number];
+    }
+
+    // give the bounds of an item in the coordinates of the Graphics
+    public Rectangle getBounds(int number)
+    {
+        return new Rectangle(this.lefts[number], this.tops[number], this.widths[number], this.heights[number]);
+    }
+
+    public Rectangle getArea()
+    {
+        return new Rectangle(this.area);
+    }
+
+    public float getScale()
+    {
+        return this.scale;
+    }
+}
@@ -4,10 +4,20 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Image;
 import java.awt.Rectangle;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.image.ImageObserver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.JComponent;
 
+import com.jabberpoint.metrics.Metrics;
+import com.jabberpoint.metrics.Phase;
+import com.jabberpoint.metrics.SlidePaintEvent;
+
 /**
  * <p>SlideViewerComponent is a graphical component that can show slides.</p>
  *
@@ -19,8 +29,17 @@ public class SlideViewerComponent extends JComponent implements PresentationObse
 {
 
     private Slide slide; // current slide
+    private int slideNumber = -1; // the number of the current slide, changed together with it
     private Font labelFont; // font of labels
     private Presentation presentation; // the presentation
+    private final Rectangle slideArea = new Rectangle(); // reused by every paint, which runs on the event thread
+    private String label; // "Slide N of M", made again when N or M changes
+    private int labelSlideNumber = -1;
+    private int labelCount = -1;
+    private boolean labelLoading = false;
+    private final RenderedSlideCache renderedSlides = new RenderedSlideCache(); // slides drawn at the current size
+    private BackgroundSlideRenderer renderer; // null unless slides are drawn on a render thread
+    private final AtomicInteger renderGeneration = new AtomicInteger(); // bumped when the shown slide has to be drawn again
 
     private static final long serialVersionUID = 227L;
 
@@ -32,52 +51,220 @@ public class SlideViewerComponent extends JComponent implements PresentationObse
     private static final int XPOS = 1100;
     private static final int YPOS = 20;
 
+    // set to true to draw slides on a render thread instead of the event thread
+    public static final String BACKGROUND_RENDERING_PROPERTY = "jabberpoint.backgroundRendering";
+
     public SlideViewerComponent(Presentation presentation)
     {
         setBackground(BGCOLOR);
         this.labelFont = new Font(FONTNAME, FONTSTYLE, FONTSIZE);
         this.presentation = presentation;
-        this.presentation.addObserver(this);
+        // Told on the event thread, where slide changes from a loader thread or a burst of keys are folded together.
+        // Held weakly, so a viewer that is replaced is collected with its drawn slides without being removed.
+        this.presentation.addWeakObserver(this, PresentationObserverManager.EVENT_THREAD);
+        setBackgroundRendering(Boolean.getBoolean(BACKGROUND_RENDERING_PROPERTY));
+        addComponentListener(new ComponentAdapter()
+        {
+            @Override
+            public void componentResized(ComponentEvent e)
+            {
+                // The slides and their text are laid out again for the new scale, with fonts derived up front
+                TextItem.invalidateLayouts();
+                SlideViewerComponent.this.renderedSlides.clear();
+                SlideViewerComponent.this.renderGeneration.incrementAndGet();
+                Style.warmFonts(Slide.getScale(getSlideArea(new Rectangle())));
+            }
+        });
     }
 
     @Override
     public void onSlideChanged(int slideNumber)
     {
+        this.slideNumber = slideNumber;
         this.slide = this.presentation.getSlide(slideNumber);
+        pinImages();
         repaint();
     }
 
+    @Override
+    public void onSlideSettled(int slideNumber)
+    {
+        // Forward and back are then a single copy; slides that are paged past are not drawn in advance
+        prerender(slideNumber + 1);
+        prerender(slideNumber - 1);
+    }
+
+    // draw a slide in the background at the current size
+    private void prerender(int slideNumber)
+    {
+        Slide neighbour = this.presentation.getSlide(slideNumber);
+        Rectangle area = getSlideArea(new Rectangle());
+        if (neighbour != null && area.width > 0 && area.height > 0)
+        {
+            this.renderedSlides.prerender(slideNumber, neighbour, area.width, area.height, getGraphicsConfiguration(), this);
+        }
+    }
+
     @Override
     public void onPresentationChanged()
     {
+        this.renderedSlides.clear();
+        this.renderGeneration.incrementAndGet();
         if (this.presentation.getSize() > 0)
         {
+            this.slideNumber = this.presentation.getSlideNumber();
             this.slide = this.presentation.getCurrentSlide();
         }
         else
         {
+            this.slideNumber = -1;
             this.slide = null;
         }
+        pinImages();
         repaint();
     }
 
+    // keep the decoded images of the current slide, so images that do not fit in the cache together are not decoded over and over
+    private void pinImages()
+    {
+        List<String> keys = new ArrayList<>();
+        if (this.slide != null)
+        {
+            for (SlideItem item : this.slide.getSlideItems())
+            {
+                String key = item instanceof BitmapItem ? ((BitmapItem) item).getImageKey() : null;
+                if (key != null)
+                {
+                    keys.add(key);
+                }
+            }
+        }
+        ImageCache.getShared().pin(this, keys);
+    }
+
+    @Override
+    public void onLoadProgress(int loadedSlides, int expectedSlides)
+    {
+        // Only the slide count in the label changes
+        repaint(XPOS, 0, getWidth() - XPOS, YPOS + FONTSIZE);
+    }
+
+    @Override
+    public void onLoadComplete(int slideCount)
+    {
+        repaint(XPOS, 0, getWidth() - XPOS, YPOS + FONTSIZE);
+    }
+
+    // "Slide N of M" once the presentation is complete, "Slide N of ~M" while it is still being loaded
+    private String getLabel()
+    {
+        int slideNumber = this.presentation.getSlideNumber();
+        boolean loading = this.presentation.isLoading();
+        int count = loading ? this.presentation.getExpectedSize() : this.presentation.getSize();
+        if (this.label == null || slideNumber != this.labelSlideNumber || count != this.labelCount || loading != this.labelLoading)
+        {
+            this.label = "Slide " + (1 + slideNumber) + " of " + (loading ? "~" : "") + count;
+            this.labelSlideNumber = slideNumber;
+            this.labelCount = count;
+            this.labelLoading = loading;
+        }
+        return this.label;
+    }
+
+    /**
+     * Draw slides on a render thread, so a paint only copies the newest finished frame
+     *
+     * @param enabled Whether to draw slides on a render thread
+     */
+    public void setBackgroundRendering(boolean enabled)
+    {
+        if (enabled == isBackgroundRendering())
+        {
+            return;
+        }
+        // repaint() may be called from any thread
+        this.renderer = enabled ? new BackgroundSlideRenderer(this.renderedSlides, this::repaint) : null;
+        repaint();
+    }
+
+    public boolean isBackgroundRendering()
+    {
+        return this.renderer != null;
+    }
+
+    @Override
+    public boolean imageUpdate(Image img, int infoflags, int x, int y, int width, int height)
+    {
+        if ((infoflags & (ImageObserver.ALLBITS | ImageObserver.FRAMEBITS)) != 0)
+        {
+            // An image on the slide is ready, so the frame that shows its placeholder is out of date
+            this.renderGeneration.incrementAndGet();
+        }
+        return super.imageUpdate(img, infoflags, x, y, width, height);
+    }
+
     public Dimension getPreferredSize()
     {
         return new Dimension(Slide.WIDTH, Slide.HEIGHT);
     }
 
     public void paintComponent(Graphics g)
+    {
+        long start = Metrics.start();
+        paintSlide(g);
+        Metrics.record(Phase.COMPONENT_PAINT, start);
+    }
+
+    private void paintSlide(Graphics g)
     {
         g.setColor(BGCOLOR);
-        g.fillRect(0, 0, getSize().width, getSize().height);
-        if (this.presentation.getSlideNumber() < 0 || this.slide == null)
+        g.fillRect(0, 0, getWidth(), getHeight());
+        // The notifications arrive through the event queue, so the presentation may already be on
+        // a later slide; the slide and its number are taken together, or the drawn slide would be
+        // cached under the number of another one
+        if (this.slideNumber < 0 || this.slide == null)
         {
             return;
         }
+        SlidePaintEvent event = new SlidePaintEvent();
+        event.begin();
+        Rectangle area = getSlideArea(this.slideArea);
+        BackgroundSlideRenderer backgroundRenderer = this.renderer;
+        if (backgroundRenderer != null)
+        {
+            paintFrame(g, backgroundRenderer, area);
+        }
+        else if (area.width > 0 && area.height > 0)
+        {
+            g.drawImage(this.renderedSlides.getRendered(this.slideNumber, this.slide,
+                    area.width, area.height, getGraphicsConfiguration(), this), area.x, area.y, null);
+        }
+        // The label last, so the slide does not cover it
         g.setFont(this.labelFont);
         g.setColor(COLOR);
-        g.drawString("Slide " + (1 + this.presentation.getSlideNumber()) + " of " + this.presentation.getSize(), XPOS, YPOS);
-        Rectangle area = new Rectangle(0, YPOS, getWidth(), (getHeight() - YPOS));
-        this.slide.draw(g, area, this);
+        g.drawString(getLabel(), XPOS, YPOS);
+        event.commit(this.slideNumber, this.slide.getSize(), area.width, area.height,
+                backgroundRenderer != null);
+    }
+
+    // copy the newest frame, and ask for a new one if it does not show the current slide as it is now
+    private void paintFrame(Graphics g, BackgroundSlideRenderer backgroundRenderer, Rectangle area)
+    {
+        int slideNumber = this.slideNumber;
+        int generation = this.renderGeneration.get();
+        if (area.width > 0 && area.height > 0
+                && !backgroundRenderer.isCurrent(slideNumber, this.slide, area.width, area.height, generation))
+        {
+            backgroundRenderer.request(slideNumber, this.slide, area.width, area.height, generation,
+                    getGraphicsConfiguration(), this);
+        }
+        backgroundRenderer.drawFrame(g, area.x, area.y);
+    }
+
+    // the part of the component the slide is drawn in, below the label
+    private Rectangle getSlideArea(Rectangle area)
+    {
+        area.setBounds(0, YPOS, getWidth(), (getHeight() - YPOS));
+        return area;
     }
 }
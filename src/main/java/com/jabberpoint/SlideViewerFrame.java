@@ -41,7 +41,7 @@ public class SlideViewerFrame extends JFrame
             }
         });
         getContentPane().add(slideViewerComponent);
-        addKeyListener(new KeyController(presentation)); // add a controller
+        addKeyListener(new KeyController(presentation, new NavigationCoalescer(presentation))); // add a controller
         System.out.println("Adding KeyListener: " + getKeyListeners().length);
         setMenuBar(new MenuController(this, presentation));    // add another controller
         System.out.println("MenuBar set: " + (getMenuBar() != null));
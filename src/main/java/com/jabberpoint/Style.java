@@ -2,6 +2,8 @@ package com.jabberpoint;
 
 import java.awt.Color;
 import java.awt.Font;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>Style is for Indent, Color, Font and Leading.</p>
@@ -18,11 +20,16 @@ public class Style
     private static Style[] styles; // de styles
 
     private static final String FONTNAME = "Helvetica";
+    // font sizes are rounded to a quarter point, so nearby scales share a font
+    static final int SIZE_STEPS = 4;
+    // the derived fonts kept per style; a window dragged through many sizes would otherwise keep them all
+    static final int MAX_DERIVED_FONTS = 32;
     int indent;
     Color color;
     Font font;
     int fontSize;
     int leading;
+    private final Map<Integer, Font> derivedFonts = new ConcurrentHashMap<>(); // by size in quarter points
 
     public static void createStyles()
     {
@@ -63,6 +70,36 @@ public class Style
 
     public Font getFont(float scale)
     {
-        return font.deriveFont(fontSize * scale);
+        int steps = Math.round(fontSize * scale * SIZE_STEPS);
+        Font derived = derivedFonts.get(steps);
+        if (derived == null)
+        {
+            // Start over once full; the sizes in use are derived again on the next paint
+            if (derivedFonts.size() >= MAX_DERIVED_FONTS)
+            {
+                derivedFonts.clear();
+            }
+            derived = derivedFonts.computeIfAbsent(steps, size -> font.deriveFont((float) size / SIZE_STEPS));
+        }
+        return derived;
+    }
+
+    // the number of derived fonts this style keeps
+    int getDerivedFontCount()
+    {
+        return derivedFonts.size();
+    }
+
+    // derive the fonts of all styles for a scale before they are needed
+    public static void warmFonts(float scale)
+    {
+        if (styles == null)
+        {
+            return;
+        }
+        for (Style style : styles)
+        {
+            style.getFont(scale);
+        }
     }
 }
@@ -3,7 +3,6 @@ package com.jabberpoint;
 import java.awt.Rectangle;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Point;
 import java.awt.font.TextLayout;
 import java.awt.font.TextAttribute;
 import java.awt.font.LineBreakMeasurer;
@@ -14,6 +13,8 @@ import java.text.AttributedString;
 import java.util.List;
 import java.util.Iterator;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p>A tekst item.</p>
@@ -26,9 +27,42 @@ import java.util.ArrayList;
 public class TextItem extends SlideItem
 {
     private String text;
+    private volatile Layout cachedLayout; // the lines as they were last laid out
 
     private static final String EMPTYTEXT = "No Text Given";
 
+    // bumped to make every item lay out its text again
+    private static final AtomicInteger LAYOUT_GENERATION = new AtomicInteger();
+
+    /**
+     * The lines of the text laid out for one style, scale and FontRenderContext, with their bounding box
+     * The text of an item never changes, so it is not part of the key.
+     */
+    private static final class Layout
+    {
+        final Style style;
+        final float scale;
+        final FontRenderContext frc;
+        final int generation;
+        final List<TextLayout> lines;
+        final Rectangle bounds;
+
+        Layout(Style style, float scale, FontRenderContext frc, int generation, List<TextLayout> lines, Rectangle bounds)
+        {
+            this.style = style;
+            this.scale = scale;
+            this.frc = frc;
+            this.generation = generation;
+            this.lines = lines;
+            this.bounds = bounds;
+        }
+
+        boolean matches(Style style, float scale, FontRenderContext frc, int generation)
+        {
+            return this.style == style && this.scale == scale && this.generation == generation && this.frc.equals(frc);
+        }
+    }
+
     // a textitem of level level, with the text string
     public TextItem(int level, String string)
     {
@@ -62,10 +96,36 @@ public class TextItem extends SlideItem
         return attrStr;
     }
 
+    /**
+     * Make every TextItem and every slide lay out again on the next paint
+     * Called when the window is resized; cached layouts for other sizes are then never used again.
+     */
+    public static void invalidateLayouts()
+    {
+        LAYOUT_GENERATION.incrementAndGet();
+    }
+
+    // the number of times the layouts were invalidated; slide layouts made before a change are not used
+    static int getLayoutGeneration()
+    {
+        return LAYOUT_GENERATION.get();
+    }
+
     // give the bounding box of the item
     public Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style myStyle)
     {
-        List<TextLayout> layouts = getLayouts(g, myStyle, scale);
+        return new Rectangle(getLayout(g, myStyle, scale).bounds);
+    }
+
+    @Override
+    public Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style myStyle, Rectangle bounds)
+    {
+        bounds.setBounds(getLayout(g, myStyle, scale).bounds);
+        return bounds;
+    }
+
+    private Rectangle computeBoundingBox(List<TextLayout> layouts, float scale, Style myStyle)
+    {
         int xsize = 0, ysize = (int) (myStyle.leading * scale);
         if (layouts != null)
         {
@@ -94,18 +154,42 @@ public class TextItem extends SlideItem
             return;
         }
         List<TextLayout> layouts = getLayouts(g, myStyle, scale);
-        Point pen = new Point(x + (int) (myStyle.indent * scale), y + (int) (myStyle.leading * scale));
+        int penX = x + (int) (myStyle.indent * scale);
+        int penY = y + (int) (myStyle.leading * scale);
         Graphics2D g2d = (Graphics2D) g;
         g2d.setColor(myStyle.color);
-        for (TextLayout layout : layouts)
+        // An index loop, so a paint does not allocate an iterator
+        for (int number = 0; number < layouts.size(); number++)
+        {
+            TextLayout layout = layouts.get(number);
+            penY += (int) layout.getAscent();
+            layout.draw(g2d, penX, penY);
+            penY += (int) layout.getDescent();
+        }
+    }
+
+    // give the lines of the text, laid out again only when the style, scale or FontRenderContext changed
+    List<TextLayout> getLayouts(Graphics g, Style s, float scale)
+    {
+        return getLayout(g, s, scale).lines;
+    }
+
+    private Layout getLayout(Graphics g, Style s, float scale)
+    {
+        FontRenderContext frc = ((Graphics2D) g).getFontRenderContext();
+        int generation = LAYOUT_GENERATION.get();
+        Layout cached = this.cachedLayout;
+        if (cached != null && cached.matches(s, scale, frc, generation))
         {
-            pen.y += (int) layout.getAscent();
-            layout.draw(g2d, pen.x, pen.y);
-            pen.y += (int) layout.getDescent();
+            return cached;
         }
+        List<TextLayout> lines = Collections.unmodifiableList(layOut(frc, s, scale));
+        cached = new Layout(s, scale, frc, generation, lines, computeBoundingBox(lines, scale, s));
+        this.cachedLayout = cached;
+        return cached;
     }
 
-    private List<TextLayout> getLayouts(Graphics g, Style s, float scale)
+    private List<TextLayout> layOut(FontRenderContext frc, Style s, float scale)
     {
         List<TextLayout> layouts = new ArrayList<TextLayout>();
         String text = getText();
@@ -117,8 +201,6 @@ public class TextItem extends SlideItem
         }
 
         AttributedString attrStr = getAttributedString(s, scale);
-        Graphics2D g2d = (Graphics2D) g;
-        FontRenderContext frc = g2d.getFontRenderContext();
         LineBreakMeasurer measurer = new LineBreakMeasurer(attrStr.getIterator(), frc);
         float wrappingWidth = (Slide.WIDTH - s.indent) * scale;
         while (measurer.getPosition() < text.length())
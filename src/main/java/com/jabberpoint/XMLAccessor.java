@@ -1,10 +1,15 @@
 package com.jabberpoint;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Vector;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.FileWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -14,11 +19,15 @@ import org.xml.sax.SAXException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.NodeList;
+import org.w3c.dom.Node;
 
 import com.jabberpoint.io.XMLParsingStrategy;
 import com.jabberpoint.io.DOMXMLParsingStrategy;
+import com.jabberpoint.io.PresentationHandler;
+import com.jabberpoint.io.StreamingXMLParsingStrategy;
 import com.jabberpoint.io.XMLParsingStrategyFactory;
+import com.jabberpoint.metrics.Metrics;
+import com.jabberpoint.metrics.Phase;
 
 /**
  * XMLAccessor, reads and writes XML files
@@ -73,27 +82,22 @@ public class XMLAccessor extends Accessor
         this.parsingStrategy = parsingStrategy != null ? parsingStrategy : XMLParsingStrategyFactory.getDefaultStrategy();
     }
 
-    private String getTitle(Element element, String tagName)
+    public void loadFile(Presentation presentation, String filename) throws IOException
     {
-        NodeList titles = element.getElementsByTagName(tagName);
-        if (titles.getLength() == 0)
+        if (parsingStrategy instanceof StreamingXMLParsingStrategy)
         {
-            return ""; // Return empty string if no title element found
+            loadStreaming((StreamingXMLParsingStrategy) parsingStrategy, presentation, filename);
+            return;
         }
-        return titles.item(0).getTextContent();
-    }
-
-    public void loadFile(Presentation presentation, String filename) throws IOException
-    {
-        int slideNumber, itemNumber, max = 0, maxItems = 0;
         try
         {
             // Use the parser from the strategy pattern
             Document document = parsingStrategy.parseFile(new File(filename));
             Element doc = parsingStrategy.getRootElement(document);
 
-            // First, get the title so it doesn't get cleared
-            String title = getTitle(doc, SHOWTITLE);
+            // Build the slides first so the title doesn't get cleared
+            List<Slide> slides = new ArrayList<>();
+            String title = walk(doc, slides);
 
             // Clear the presentation
             presentation.clear();
@@ -101,27 +105,119 @@ public class XMLAccessor extends Accessor
             // Set the title after clearing
             presentation.setTitle(title);
 
-            NodeList slides = doc.getElementsByTagName(SLIDE);
-            max = slides.getLength();
-            for (slideNumber = 0; slideNumber < max; slideNumber++)
+            for (Slide slide : slides)
             {
-                Element xmlSlide = (Element) slides.item(slideNumber);
-                Slide slide = new Slide();
-                slide.setTitle(getTitle(xmlSlide, SLIDETITLE));
                 presentation.append(slide);
+            }
+        } catch (IOException iox)
+        {
+            System.err.println(iox.toString());
+            throw iox; // Rethrow to ensure caller knows about the error
+        } catch (Exception ex)
+        {
+            System.err.println(ex.getMessage());
+            throw new IOException("Error parsing XML: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Walk the document once, depth first, and build the slides on the way.
+     * The first showtitle is the presentation title; within a slide the first title is the
+     * slide title and every item becomes a slide item, at any depth. Every node is visited
+     * once, so the cost is linear in the size of the document however deep or wide it is.
+     *
+     * @param root   The root element
+     * @param slides Receives the slides in document order
+     * @return The presentation title, or an empty string if there is none
+     */
+    private String walk(Element root, List<Slide> slides)
+    {
+        String title = null;
+        Slide slide = null;
+        Node slideNode = null;
+        boolean slideTitleSeen = false;
+
+        Node node = root;
+        while (node != null)
+        {
+            if (node != root && node.getNodeType() == Node.ELEMENT_NODE)
+            {
+                String tagName = node.getNodeName();
+                if (title == null && SHOWTITLE.equals(tagName))
+                {
+                    title = node.getTextContent();
+                }
+                else if (SLIDE.equals(tagName))
+                {
+                    slide = new Slide();
+                    slide.setTitle(""); // empty if the slide has no title element
+                    slides.add(slide);
+                    slideNode = node;
+                    slideTitleSeen = false;
+                }
+                else if (slide != null && !slideTitleSeen && SLIDETITLE.equals(tagName))
+                {
+                    slide.setTitle(node.getTextContent());
+                    slideTitleSeen = true;
+                }
+                else if (slide != null && ITEM.equals(tagName))
+                {
+                    loadSlideItem(slide, (Element) node);
+                }
+            }
+
+            // Advance in document order: first child, else the next sibling of the nearest ancestor
+            Node next = node.getFirstChild();
+            while (next == null && node != root)
+            {
+                if (node == slideNode)
+                {
+                    slide = null;
+                    slideNode = null;
+                }
+                next = node.getNextSibling();
+                if (next == null)
+                {
+                    node = node.getParentNode();
+                }
+            }
+            node = next;
+        }
+        return title == null ? "" : title;
+    }
+
+    // Build the presentation directly from parser events, without a Document in memory
+    private void loadStreaming(StreamingXMLParsingStrategy strategy, Presentation presentation, String filename) throws IOException
+    {
+        try
+        {
+            // Collected first, so a file that fails halfway leaves the presentation as it was
+            List<Slide> slides = new ArrayList<>();
+            String[] title = {""};
+            strategy.parse(new File(filename), new PresentationHandler()
+            {
+                @Override
+                public void onTitle(String text)
+                {
+                    title[0] = text;
+                }
 
-                NodeList slideItems = xmlSlide.getElementsByTagName(ITEM);
-                maxItems = slideItems.getLength();
-                for (itemNumber = 0; itemNumber < maxItems; itemNumber++)
+                @Override
+                public void onSlide(Slide slide)
                 {
-                    Element item = (Element) slideItems.item(itemNumber);
-                    loadSlideItem(slide, item);
+                    slides.add(slide);
                 }
+            });
+            presentation.clear();
+            presentation.setTitle(title[0]);
+            for (Slide slide : slides)
+            {
+                presentation.append(slide);
             }
         } catch (IOException iox)
         {
             System.err.println(iox.toString());
-            throw iox; // Rethrow to ensure caller knows about the error
+            throw iox;
         } catch (Exception ex)
         {
             System.err.println(ex.getMessage());
@@ -130,6 +226,18 @@ public class XMLAccessor extends Accessor
     }
 
     protected void loadSlideItem(Slide slide, Element item)
+    {
+        long start = Metrics.start();
+        try
+        {
+            buildSlideItem(slide, item);
+        } finally
+        {
+            Metrics.record(Phase.MODEL_BUILD, start);
+        }
+    }
+
+    private void buildSlideItem(Slide slide, Element item)
     {
         int level = 1; // default
         NamedNodeMap attributes = item.getAttributes();
@@ -211,12 +319,15 @@ public class XMLAccessor extends Accessor
             }
         }
 
+        // Written next to the file and moved over it when complete. Slides loaded lazily are still
+        // read from the file they came from, which may be the one that is saved to.
+        File temp = File.createTempFile(file.getName() + ".", ".tmp", file.getAbsoluteFile().getParentFile());
         try
         {
             // Note: For XML saving, we bypass the parsingStrategy and write directly to the file
             // This is because the XMLParsingStrategy is primarily for parsing, not for creating
             // XML structures. We could extend XMLParsingStrategy to include serialization methods in the future.
-            PrintWriter out = new PrintWriter(new FileWriter(filename));
+            PrintWriter out = new PrintWriter(new FileWriter(temp));
             out.println("<?xml version=\"1.0\"?>");
 
             // Get the directory path from the filename
@@ -276,10 +387,30 @@ public class XMLAccessor extends Accessor
             }
             out.println("</presentation>");
             out.close();
+            if (out.checkError())
+            {
+                throw new IOException("Error writing " + filename);
+            }
+            replace(temp, file);
         } catch (IOException e)
         {
             System.err.println(e.toString());
             throw e;
+        } finally
+        {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    // move the written file over the target, atomically where the file system can
+    private static void replace(File written, File target) throws IOException
+    {
+        try
+        {
+            Files.move(written.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(written.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }
     }
 }
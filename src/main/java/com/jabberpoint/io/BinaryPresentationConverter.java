@@ -0,0 +1,52 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.Presentation;
+
+/**
+ * Converts presentations from the XML format to the binary format
+ * <p>
+ * Usage: {@code java com.jabberpoint.io.BinaryPresentationConverter input.xml [output.jpb]}
+ */
+public class BinaryPresentationConverter
+{
+
+    /**
+     * Convert an XML presentation file to a binary presentation file
+     *
+     * @param xmlFileName    The XML file to read
+     * @param binaryFileName The binary file to write
+     * @throws Exception If reading or writing fails
+     */
+    public static void convert(String xmlFileName, String binaryFileName) throws Exception
+    {
+        Presentation presentation = new Presentation();
+        new XMLPresentationLoader(new SAXXMLParsingStrategy()).loadPresentation(presentation, xmlFileName);
+        new BinaryPresentationWriter().savePresentation(presentation, binaryFileName);
+    }
+
+    /**
+     * The binary file name for an XML file name: the extension is replaced by .jpb
+     *
+     * @param xmlFileName The XML file name
+     * @return The binary file name
+     */
+    public static String binaryFileName(String xmlFileName)
+    {
+        int dot = xmlFileName.lastIndexOf('.');
+        int separator = Math.max(xmlFileName.lastIndexOf('/'), xmlFileName.lastIndexOf('\\'));
+        String base = dot > separator ? xmlFileName.substring(0, dot) : xmlFileName;
+        return base + BinaryPresentationFormat.EXTENSION;
+    }
+
+    public static void main(String[] argv) throws Exception
+    {
+        if (argv.length < 1 || argv.length > 2)
+        {
+            System.err.println("Usage: BinaryPresentationConverter input.xml [output" + BinaryPresentationFormat.EXTENSION + "]");
+            return;
+        }
+        String output = argv.length == 2 ? argv[1] : binaryFileName(argv[0]);
+        convert(argv[0], output);
+        System.out.println("Converted " + argv[0] + " to " + output);
+    }
+}
@@ -0,0 +1,76 @@
+package com.jabberpoint.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Constants and varint helpers shared by the binary presentation reader and writer
+ * <p>
+ * Layout of a {@code .jpb} file:
+ * <pre>
+ * magic        4 bytes  'J' 'P' 'B' 0x1A
+ * version      1 byte
+ * stringCount  varint, followed by that many (varint byteLength, UTF-8 bytes)
+ * title        varint string reference
+ * slideCount   varint
+ * slide table  one varint byte length per slide
+ * slides       per slide: varint title reference, varint itemCount,
+ *              per item: varint kind, zigzag varint level, varint string reference
+ * </pre>
+ * A string reference is the index in the string pool plus one; 0 stands for null.
+ */
+final class BinaryPresentationFormat
+{
+    static final byte[] MAGIC = {'J', 'P', 'B', 0x1A};
+    static final int VERSION = 1;
+    static final String EXTENSION = ".jpb";
+
+    static final int KIND_TEXT = 0;
+    static final int KIND_IMAGE = 1;
+
+    private BinaryPresentationFormat()
+    {
+    }
+
+    static void writeVarint(OutputStream out, int value) throws IOException
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static void writeSignedVarint(OutputStream out, int value) throws IOException
+    {
+        writeVarint(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readVarint(InputStream in) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7)
+        {
+            int b = in.read();
+            if (b < 0)
+            {
+                throw new EOFException("Unexpected end of binary presentation");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in binary presentation");
+    }
+
+    static int readSignedVarint(InputStream in) throws IOException
+    {
+        int value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
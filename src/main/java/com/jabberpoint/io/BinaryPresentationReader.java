@@ -0,0 +1,161 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.BitmapItem;
+import com.jabberpoint.Presentation;
+import com.jabberpoint.Slide;
+import com.jabberpoint.TextItem;
+import com.jabberpoint.metrics.DeckLoadEvent;
+import com.jabberpoint.metrics.SlideParseEvent;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PresentationReader for the compact binary format written by BinaryPresentationWriter
+ * The file is read through a memory mapping and no text has to be tokenised or unescaped.
+ */
+public class BinaryPresentationReader implements PresentationReader
+{
+
+    @Override
+    public void loadPresentation(Presentation presentation, String fileName) throws IOException
+    {
+        File file = new File(fileName);
+
+        if (!file.exists())
+        {
+            throw new java.io.FileNotFoundException(fileName);
+        }
+
+        DeckLoadEvent event = new DeckLoadEvent();
+        event.begin();
+        MappedPresentationFile mapped = MappedPresentationFile.map(file);
+        long itemCount = 0;
+        List<Slide> slides;
+        try (InputStream in = mapped.openStream())
+        {
+            readHeader(in);
+            // Every string, slide and byte takes up at least one byte, so no count can exceed the file
+            long size = mapped.size();
+
+            String[] strings = new String[readCount(in, size, "string count")];
+            for (int i = 0; i < strings.length; i++)
+            {
+                byte[] bytes = new byte[readCount(in, size, "string length")];
+                readFully(in, bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            String title = string(strings, BinaryPresentationFormat.readVarint(in));
+            int slideCount = readCount(in, size, "slide count");
+            // The slide table is only needed for random access and for the events, slides are read in order here
+            int[] lengths = new int[slideCount];
+            for (int i = 0; i < slideCount; i++)
+            {
+                lengths[i] = BinaryPresentationFormat.readVarint(in);
+            }
+
+            slides = new ArrayList<>(slideCount);
+            for (int i = 0; i < slideCount; i++)
+            {
+                SlideParseEvent slideEvent = new SlideParseEvent();
+                slideEvent.begin();
+                Slide slide = readSlide(in, strings, size);
+                slideEvent.commit(i, slide.getSize(), lengths[i]);
+                slides.add(slide);
+                itemCount += slide.getSize();
+            }
+
+            presentation.setTitle(title);
+            presentation.setSlides(slides);
+        }
+        event.commit(fileName, getClass(), slides.size(), itemCount, mapped.size());
+    }
+
+    private void readHeader(InputStream in) throws IOException
+    {
+        byte[] magic = new byte[BinaryPresentationFormat.MAGIC.length];
+        readFully(in, magic);
+        for (int i = 0; i < magic.length; i++)
+        {
+            if (magic[i] != BinaryPresentationFormat.MAGIC[i])
+            {
+                throw new IOException("Not a binary JabberPoint presentation");
+            }
+        }
+        int version = in.read();
+        if (version != BinaryPresentationFormat.VERSION)
+        {
+            throw new IOException("Unsupported binary presentation version: " + version);
+        }
+    }
+
+    private Slide readSlide(InputStream in, String[] strings, long size) throws IOException
+    {
+        Slide slide = new Slide();
+        slide.setTitle(string(strings, BinaryPresentationFormat.readVarint(in)));
+        int itemCount = readCount(in, size, "item count");
+        for (int i = 0; i < itemCount; i++)
+        {
+            int kind = BinaryPresentationFormat.readVarint(in);
+            int level = BinaryPresentationFormat.readSignedVarint(in);
+            String content = string(strings, BinaryPresentationFormat.readVarint(in));
+            if (kind == BinaryPresentationFormat.KIND_TEXT)
+            {
+                slide.append(new TextItem(level, content));
+            }
+            else if (kind == BinaryPresentationFormat.KIND_IMAGE)
+            {
+                slide.append(new BitmapItem(level, content));
+            }
+            else
+            {
+                throw new IOException("Unknown item kind in binary presentation: " + kind);
+            }
+        }
+        return slide;
+    }
+
+    private String string(String[] strings, int reference) throws IOException
+    {
+        if (reference == 0)
+        {
+            return null;
+        }
+        if (reference < 0 || reference > strings.length)
+        {
+            throw new IOException("String reference out of range in binary presentation: " + reference);
+        }
+        return strings[reference - 1];
+    }
+
+    // a count or length, which a corrupt file could make negative or far larger than the file
+    private int readCount(InputStream in, long size, String what) throws IOException
+    {
+        int count = BinaryPresentationFormat.readVarint(in);
+        if (count < 0 || count > size)
+        {
+            throw new IOException("Invalid " + what + " in binary presentation: " + count);
+        }
+        return count;
+    }
+
+    private void readFully(InputStream in, byte[] bytes) throws IOException
+    {
+        int total = 0;
+        while (total < bytes.length)
+        {
+            int read = in.read(bytes, total, bytes.length - total);
+            if (read < 0)
+            {
+                throw new EOFException("Unexpected end of binary presentation");
+            }
+            total += read;
+        }
+    }
+}
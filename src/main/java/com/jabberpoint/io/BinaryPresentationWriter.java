@@ -0,0 +1,162 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.BitmapItem;
+import com.jabberpoint.Presentation;
+import com.jabberpoint.Slide;
+import com.jabberpoint.SlideItem;
+import com.jabberpoint.TextItem;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PresentationWriter for the compact binary format
+ * Every distinct string is stored once in a shared pool; slides only hold varint references to it.
+ * See BinaryPresentationFormat for the layout.
+ */
+public class BinaryPresentationWriter implements PresentationWriter
+{
+
+    @Override
+    public void savePresentation(Presentation presentation, String fileName) throws IOException
+    {
+        File file = new File(fileName);
+        File parentDir = file.getParentFile();
+        if (parentDir != null && !parentDir.exists() && !parentDir.mkdirs())
+        {
+            throw new IOException("Failed to create directory: " + parentDir.getAbsolutePath());
+        }
+
+        Map<String, Integer> pool = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int titleRef = reference(presentation.getTitle(), pool, strings);
+
+        // Slides are encoded first, so the pool is complete before it is written
+        ByteArrayOutputStream slideData = new ByteArrayOutputStream();
+        int[] slideLengths = new int[presentation.getSize()];
+        for (int slideNumber = 0; slideNumber < presentation.getSize(); slideNumber++)
+        {
+            int start = slideData.size();
+            writeSlide(slideData, presentation.getSlide(slideNumber), pool, strings);
+            slideLengths[slideNumber] = slideData.size() - start;
+        }
+
+        // Written next to the file and moved over it when complete, so a failed save leaves the old deck
+        File temp = File.createTempFile(file.getName() + ".", ".tmp", file.getAbsoluteFile().getParentFile());
+        try
+        {
+            write(temp, titleRef, strings, slideLengths, slideData);
+            replace(temp, file);
+        } finally
+        {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private void write(File file, int titleRef, List<String> strings, int[] slideLengths, ByteArrayOutputStream slideData) throws IOException
+    {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file)))
+        {
+            out.write(BinaryPresentationFormat.MAGIC);
+            out.write(BinaryPresentationFormat.VERSION);
+
+            BinaryPresentationFormat.writeVarint(out, strings.size());
+            for (String string : strings)
+            {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                BinaryPresentationFormat.writeVarint(out, bytes.length);
+                out.write(bytes);
+            }
+
+            BinaryPresentationFormat.writeVarint(out, titleRef);
+            BinaryPresentationFormat.writeVarint(out, slideLengths.length);
+            for (int length : slideLengths)
+            {
+                BinaryPresentationFormat.writeVarint(out, length);
+            }
+            slideData.writeTo(out);
+        }
+    }
+
+    // Move the written file over the target, atomically where the file system allows it
+    private static void replace(File written, File target) throws IOException
+    {
+        try
+        {
+            Files.move(written.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(written.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void writeSlide(OutputStream out, Slide slide, Map<String, Integer> pool, List<String> strings) throws IOException
+    {
+        if (slide == null)
+        {
+            slide = new Slide();
+        }
+        BinaryPresentationFormat.writeVarint(out, reference(slide.getTitle(), pool, strings));
+
+        // Only text and image items can be stored, like in the XML format
+        List<SlideItem> items = new ArrayList<>();
+        for (int itemNumber = 0; itemNumber < slide.getSize(); itemNumber++)
+        {
+            SlideItem slideItem = slide.getSlideItem(itemNumber);
+            if (slideItem instanceof TextItem || slideItem instanceof BitmapItem)
+            {
+                items.add(slideItem);
+            }
+            else
+            {
+                System.out.println("Ignoring " + slideItem);
+            }
+        }
+
+        BinaryPresentationFormat.writeVarint(out, items.size());
+        for (SlideItem slideItem : items)
+        {
+            if (slideItem instanceof TextItem)
+            {
+                BinaryPresentationFormat.writeVarint(out, BinaryPresentationFormat.KIND_TEXT);
+                BinaryPresentationFormat.writeSignedVarint(out, slideItem.getLevel());
+                BinaryPresentationFormat.writeVarint(out, reference(((TextItem) slideItem).getText(), pool, strings));
+            }
+            else
+            {
+                BinaryPresentationFormat.writeVarint(out, BinaryPresentationFormat.KIND_IMAGE);
+                BinaryPresentationFormat.writeSignedVarint(out, slideItem.getLevel());
+                BinaryPresentationFormat.writeVarint(out, reference(((BitmapItem) slideItem).getName(), pool, strings));
+            }
+        }
+    }
+
+    // The pool index of a string plus one, adding it to the pool when it is new; 0 for null
+    private int reference(String string, Map<String, Integer> pool, List<String> strings)
+    {
+        if (string == null)
+        {
+            return 0;
+        }
+        Integer index = pool.get(string);
+        if (index == null)
+        {
+            index = strings.size();
+            strings.add(string);
+            pool.put(string, index);
+        }
+        return index + 1;
+    }
+}
@@ -10,6 +10,9 @@ import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
 import java.io.IOException;
 
+import com.jabberpoint.metrics.Metrics;
+import com.jabberpoint.metrics.Phase;
+
 /**
  * DOM implementation of the XMLParsingStrategy interface
  * Uses the standard DOM parser to parse XML files
@@ -44,8 +47,15 @@ public class DOMXMLParsingStrategy implements XMLParsingStrategy
     @Override
     public Document parseFile(File file) throws ParserConfigurationException, SAXException, IOException
     {
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        return builder.parse(file);
+        long start = Metrics.start();
+        try
+        {
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            return builder.parse(file);
+        } finally
+        {
+            Metrics.record(Phase.PARSE, start);
+        }
     }
 
     @Override
@@ -3,6 +3,7 @@ package com.jabberpoint.io;
 import com.jabberpoint.Presentation;
 import com.jabberpoint.Slide;
 import com.jabberpoint.BitmapItem;
+import com.jabberpoint.metrics.DeckLoadEvent;
 
 import java.util.ArrayList;
 
@@ -15,6 +16,8 @@ public class DemoPresentationReader implements PresentationReader
     @Override
     public void loadPresentation(Presentation presentation, String unusedFilename) throws Exception
     {
+        DeckLoadEvent event = new DeckLoadEvent();
+        event.begin();
         // Clear the presentation by setting an empty slide list
         presentation.setSlides(new ArrayList<>());
 
@@ -54,5 +57,12 @@ public class DemoPresentationReader implements PresentationReader
         slide.append(1, "This is the end of the presentation.");
         slide.append(new BitmapItem(1, "JabberPoint.gif"));
         presentation.append(slide);
+
+        long itemCount = 0;
+        for (Slide demoSlide : presentation.getSlides())
+        {
+            itemCount += demoSlide.getSize();
+        }
+        event.commit("demo", getClass(), presentation.getSize(), itemCount, 0);
     }
 } 
\ No newline at end of file
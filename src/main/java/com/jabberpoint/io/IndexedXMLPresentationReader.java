@@ -0,0 +1,52 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.Presentation;
+import com.jabberpoint.Slide;
+import com.jabberpoint.metrics.DeckLoadEvent;
+
+import java.io.File;
+
+/**
+ * PresentationReader that loads slides lazily
+ * One scan records the byte range of every slide; a slide is only parsed when the
+ * presentation asks for it, so opening a deck costs one scan plus the slides that are shown.
+ */
+public class IndexedXMLPresentationReader implements PresentationReader
+{
+
+    @Override
+    public void loadPresentation(Presentation presentation, String fileName) throws Exception
+    {
+        File file = new File(fileName);
+
+        if (!file.exists())
+        {
+            throw new java.io.FileNotFoundException(fileName);
+        }
+
+        DeckLoadEvent event = new DeckLoadEvent();
+        event.begin();
+        SlideIndex index = SlideIndex.build(file);
+
+        // Only the content in front of the first slide is parsed for the title
+        presentation.setTitle("");
+        new StAXXMLParsingStrategy().parse(file, new PresentationHandler()
+        {
+            @Override
+            public void onTitle(String title)
+            {
+                presentation.setTitle(title);
+            }
+
+            @Override
+            public void onSlide(Slide slide)
+            {
+                // Not reached, no slides are requested
+            }
+        }, 0, 0);
+
+        presentation.setSlides(new LazySlideList(index));
+        // The slides are parsed when they are shown, each with its own SlideParseEvent
+        event.commit(fileName, getClass(), index.size(), -1, file.length());
+    }
+}
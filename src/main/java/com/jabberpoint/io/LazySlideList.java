@@ -0,0 +1,141 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.Slide;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List of slides that parses each slide from its file only when it is first asked for
+ * <p>
+ * The size comes from the SlideIndex, so a Presentation backed by this list knows how many
+ * slides it has without having built any of them. Slides that have been parsed are kept,
+ * and slides appended after loading are stored behind the indexed ones.
+ * Slide bytes are read from the memory mapping of the index, so the text of a slide is only
+ * decoded when that slide is parsed.
+ * <p>
+ * The list keeps the file mapped until it is closed; Presentation closes it when its slides
+ * are replaced. Slides that were not parsed by then are empty.
+ */
+public class LazySlideList extends AbstractList<Slide> implements Closeable
+{
+    private final SlideIndex index;
+    private final StAXXMLParsingStrategy parser;
+    private final Slide[] materialized;
+    private final List<Slide> appended = new ArrayList<>();
+    private int materializedCount = 0;
+
+    /**
+     * Create a lazy list over the slides of an index
+     *
+     * @param index The index of the presentation file
+     */
+    public LazySlideList(SlideIndex index)
+    {
+        this.index = index;
+        this.parser = new StAXXMLParsingStrategy();
+        this.materialized = new Slide[index.size()];
+    }
+
+    @Override
+    public synchronized Slide get(int number)
+    {
+        if (number >= this.materialized.length)
+        {
+            return this.appended.get(number - this.materialized.length);
+        }
+        Slide slide = this.materialized[number];
+        if (slide == null)
+        {
+            slide = parseSlide(number);
+            this.materialized[number] = slide;
+            this.materializedCount++;
+        }
+        return slide;
+    }
+
+    @Override
+    public synchronized int size()
+    {
+        return this.materialized.length + this.appended.size();
+    }
+
+    @Override
+    public synchronized Slide set(int number, Slide slide)
+    {
+        if (number >= this.materialized.length)
+        {
+            return this.appended.set(number - this.materialized.length, slide);
+        }
+        Slide previous = get(number);
+        this.materialized[number] = slide;
+        return previous;
+    }
+
+    @Override
+    public synchronized void add(int number, Slide slide)
+    {
+        if (number < this.materialized.length)
+        {
+            throw new UnsupportedOperationException("Slides can only be inserted after the indexed slides");
+        }
+        this.appended.add(number - this.materialized.length, slide);
+        this.modCount++;
+    }
+
+    /**
+     * Release the mapping of the file
+     */
+    @Override
+    public synchronized void close()
+    {
+        this.index.getSource().close();
+    }
+
+    /**
+     * @return The number of indexed slides that have been parsed so far
+     */
+    public synchronized int getMaterializedCount()
+    {
+        return this.materializedCount;
+    }
+
+    private Slide parseSlide(int number)
+    {
+        List<Slide> result = new ArrayList<>(1);
+        try (InputStream in = openSlide(number))
+        {
+            this.parser.parse(in, null, new PresentationHandler()
+            {
+                @Override
+                public void onTitle(String title)
+                {
+                    // Only the slide fragment is parsed, it carries no presentation title
+                }
+
+                @Override
+                public void onSlide(Slide slide)
+                {
+                    result.add(slide);
+                }
+            }, 0, 1, number);
+        } catch (Exception e)
+        {
+            System.err.println("Could not load slide " + number + ": " + e.getMessage());
+        }
+        // A broken slide is shown empty rather than failing the whole presentation
+        return result.isEmpty() ? new Slide() : result.get(0);
+    }
+
+    // The slide bytes, preceded by the XML declaration so the fragment keeps the file encoding
+    private InputStream openSlide(int number)
+    {
+        InputStream slide = this.index.getSource().openStream(this.index.getOffset(number), this.index.getLength(number));
+        return new SequenceInputStream(new ByteArrayInputStream(this.index.getDeclaration()), slide);
+    }
+}
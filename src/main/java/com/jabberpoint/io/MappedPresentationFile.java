@@ -0,0 +1,188 @@
+package com.jabberpoint.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only memory mapping of a presentation file
+ * <p>
+ * The file is mapped with FileChannel.map, so its bytes live in the page cache instead of
+ * being copied onto the heap. Streams over the whole file or over a byte range read straight
+ * from the mapping; parsers only copy the small chunks they decode. Files larger than one
+ * mapping are split into several segments.
+ * <p>
+ * Java cannot unmap a buffer on request; close() lets go of the segments, so the mapping is
+ * released once the streams that are still open are done with it and the buffers are collected.
+ */
+public class MappedPresentationFile implements Closeable
+{
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final File file;
+    private volatile ByteBuffer[] segments; // null once closed
+    private final long size;
+
+    private MappedPresentationFile(File file, ByteBuffer[] segments, long size)
+    {
+        this.file = file;
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Map a file into memory
+     *
+     * @param file The file to map
+     * @return The mapped file
+     * @throws IOException If the file cannot be opened or mapped
+     */
+    public static MappedPresentationFile map(File file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            int count = (int) Math.max(1, (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            ByteBuffer[] segments = new ByteBuffer[count];
+            for (int i = 0; i < count; i++)
+            {
+                long start = i * SEGMENT_SIZE;
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+                segments[i] = segment;
+            }
+            // The mapping stays valid after the channel is closed
+            return new MappedPresentationFile(file, segments, size);
+        }
+    }
+
+    /**
+     * @return The mapped file
+     */
+    public File getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * @return The size of the file in bytes
+     */
+    public long size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Open a stream over the whole file
+     *
+     * @return A stream reading from the mapping
+     */
+    public InputStream openStream()
+    {
+        return openStream(0, this.size);
+    }
+
+    /**
+     * Open a stream over a byte range of the file
+     *
+     * @param offset The offset of the first byte
+     * @param length The number of bytes
+     * @return A stream reading from the mapping
+     */
+    public InputStream openStream(long offset, long length)
+    {
+        if (offset < 0 || length < 0 || offset + length > this.size)
+        {
+            throw new IndexOutOfBoundsException("Range " + offset + "+" + length + " outside file of " + this.size + " bytes");
+        }
+        ByteBuffer[] mapped = this.segments;
+        if (mapped == null)
+        {
+            throw new IllegalStateException("Mapping of " + this.file + " is closed");
+        }
+        return new MappedInputStream(mapped, offset, offset + length);
+    }
+
+    /**
+     * Let go of the mapping; streams that are already open can still be read
+     */
+    @Override
+    public void close()
+    {
+        this.segments = null;
+    }
+
+    public boolean isClosed()
+    {
+        return this.segments == null;
+    }
+
+    /**
+     * InputStream reading a range of the mapped segments
+     * Each stream has its own position, so several threads can read the same mapping.
+     */
+    private static class MappedInputStream extends InputStream
+    {
+        private final ByteBuffer[] segments;
+        private long position;
+        private final long end;
+
+        MappedInputStream(ByteBuffer[] segments, long position, long end)
+        {
+            this.segments = segments;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public int read()
+        {
+            if (this.position >= this.end)
+            {
+                return -1;
+            }
+            ByteBuffer segment = this.segments[(int) (this.position / SEGMENT_SIZE)];
+            int value = segment.get((int) (this.position % SEGMENT_SIZE)) & 0xff;
+            this.position++;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length)
+        {
+            if (length == 0)
+            {
+                return 0;
+            }
+            if (this.position >= this.end)
+            {
+                return -1;
+            }
+            ByteBuffer segment = this.segments[(int) (this.position / SEGMENT_SIZE)].duplicate();
+            int start = (int) (this.position % SEGMENT_SIZE);
+            int count = (int) Math.min(Math.min(length, this.end - this.position), segment.limit() - start);
+            segment.position(start);
+            segment.get(bytes, offset, count);
+            this.position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long count)
+        {
+            long skipped = Math.max(0, Math.min(count, this.end - this.position));
+            this.position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available()
+        {
+            return (int) Math.min(Integer.MAX_VALUE, this.end - this.position);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.Presentation;
+import com.jabberpoint.Slide;
+import com.jabberpoint.metrics.DeckLoadEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * PresentationReader that parses the slides of a file in parallel
+ * <p>
+ * The file is split at top-level slide boundaries with a SlideIndex, the ranges are parsed
+ * on a ForkJoinPool, and the slides are added to the presentation in document order.
+ */
+public class ParallelXMLPresentationReader implements PresentationReader
+{
+    /**
+     * Ranges smaller than this many bytes are parsed by a single task
+     */
+    static final long CHUNK_BYTES = 256 * 1024;
+
+    private static final byte[] OPEN = "<slides>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLOSE = "</slides>".getBytes(StandardCharsets.US_ASCII);
+
+    // XMLInputFactory is not guaranteed to be thread-safe, so every worker gets its own parser
+    private static final ThreadLocal<StAXXMLParsingStrategy> PARSERS = ThreadLocal.withInitial(StAXXMLParsingStrategy::new);
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a reader that uses the common ForkJoinPool
+     */
+    public ParallelXMLPresentationReader()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a reader that uses a specific ForkJoinPool
+     *
+     * @param pool The pool to parse on
+     */
+    public ParallelXMLPresentationReader(ForkJoinPool pool)
+    {
+        this.pool = pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
+    @Override
+    public void loadPresentation(Presentation presentation, String fileName) throws Exception
+    {
+        File file = new File(fileName);
+
+        if (!file.exists())
+        {
+            throw new java.io.FileNotFoundException(fileName);
+        }
+
+        DeckLoadEvent event = new DeckLoadEvent();
+        event.begin();
+        SlideIndex index = SlideIndex.build(file);
+
+        List<String> titles = new ArrayList<>(1);
+        PARSERS.get().parse(file, new PresentationHandler()
+        {
+            @Override
+            public void onTitle(String title)
+            {
+                titles.add(title);
+            }
+
+            @Override
+            public void onSlide(Slide slide)
+            {
+                // Not reached, no slides are requested
+            }
+        }, 0, 0);
+
+        List<Slide> slides;
+        try
+        {
+            slides = index.size() == 0 ? new ArrayList<>() : this.pool.invoke(new ParseTask(index, 0, index.size()));
+        } catch (RuntimeException e)
+        {
+            // ForkJoinPool may rethrow a copy of the task exception, so look through the causes
+            for (Throwable cause = e; cause != null; cause = cause.getCause())
+            {
+                if (cause instanceof ChunkException)
+                {
+                    throw ((ChunkException) cause).getCause();
+                }
+            }
+            throw e;
+        }
+
+        presentation.setTitle(titles.isEmpty() ? "" : titles.get(0));
+        presentation.setSlides(slides);
+        long itemCount = 0;
+        for (Slide slide : slides)
+        {
+            itemCount += slide.getSize();
+        }
+        event.commit(fileName, getClass(), slides.size(), itemCount, file.length());
+    }
+
+    /**
+     * Parses the slides [from, to) of an index, splitting the range while it is large
+     */
+    private static class ParseTask extends RecursiveTask<List<Slide>>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final transient SlideIndex index;
+        private final int from;
+        private final int to;
+
+        ParseTask(SlideIndex index, int from, int to)
+        {
+            this.index = index;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Slide> compute()
+        {
+            long start = this.index.getOffset(this.from);
+            long end = this.index.getOffset(this.to - 1) + this.index.getLength(this.to - 1);
+            if (this.to - this.from == 1 || end - start <= CHUNK_BYTES)
+            {
+                return parseRange(start, end);
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+            ParseTask second = new ParseTask(this.index, middle, this.to);
+            second.fork();
+            List<Slide> slides = new ParseTask(this.index, this.from, middle).compute();
+            slides.addAll(second.join());
+            return slides;
+        }
+
+        // The byte range holds consecutive slides; it is wrapped in one element to parse it as a document
+        private List<Slide> parseRange(long start, long end)
+        {
+            List<Slide> slides = new ArrayList<>(this.to - this.from);
+            InputStream in = new SequenceInputStream(Collections.enumeration(Arrays.asList(
+                    new ByteArrayInputStream(this.index.getDeclaration()),
+                    new ByteArrayInputStream(OPEN),
+                    this.index.getSource().openStream(start, end - start),
+                    new ByteArrayInputStream(CLOSE))));
+            try
+            {
+                PARSERS.get().parse(in, null, new PresentationHandler()
+                {
+                    @Override
+                    public void onTitle(String title)
+                    {
+                        // Slide ranges carry no presentation title
+                    }
+
+                    @Override
+                    public void onSlide(Slide slide)
+                    {
+                        slides.add(slide);
+                    }
+                }, 0, Integer.MAX_VALUE, this.from);
+            } catch (Exception e)
+            {
+                throw new ChunkException(new IOException("Error parsing slides " + this.from + " to " + (this.to - 1) + ": " + e.getMessage(), e));
+            }
+            return slides;
+        }
+    }
+
+    /**
+     * Carries a parse failure out of a ForkJoin task
+     */
+    private static class ChunkException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        ChunkException(IOException cause)
+        {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause()
+        {
+            return (IOException) super.getCause();
+        }
+    }
+}
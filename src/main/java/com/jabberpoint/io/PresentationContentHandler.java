@@ -0,0 +1,219 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.BitmapItem;
+import com.jabberpoint.Slide;
+import com.jabberpoint.SlideItem;
+import com.jabberpoint.SlideItemFactory;
+import com.jabberpoint.TextItem;
+import com.jabberpoint.metrics.SlideParseEvent;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * SAX ContentHandler that builds Slide and SlideItem objects while the document is read
+ * <p>
+ * Understands both the XMLAccessor vocabulary ({@code showtitle}, {@code item kind level})
+ * and the StrategicXMLPresentationReader vocabulary (root {@code title}, {@code text}, {@code image}).
+ * Only the slide that is currently being read is kept, every finished slide is handed
+ * to the PresentationHandler immediately.
+ */
+public class PresentationContentHandler extends DefaultHandler
+{
+    static final String SHOWTITLE = "showtitle";
+    static final String TITLE = "title";
+    static final String SLIDE = "slide";
+    static final String ITEM = "item";
+    static final String TEXT = "text";
+    static final String IMAGE = "image";
+    static final String LEVEL = "level";
+    static final String KIND = "kind";
+    static final String NAME = "name";
+
+    static final String MISSING_ATTRIBUTES = "Missing required attributes (level or kind)";
+    private static final String NFE = "Number Format Exception";
+    private static final String UNKNOWNTYPE = "Unknown Element type";
+
+    private final PresentationHandler handler;
+    private final StringBuilder text = new StringBuilder();
+
+    private int depth = 0;
+    private int captureDepth = -1; // depth of the element whose text is being collected
+    private String captureElement;
+    private Slide slide;
+    private SlideParseEvent slideEvent; // timing the slide that is being read
+    private int slideNumber = -1;
+    private boolean slideTitleSeen;
+    private String itemKind;
+    private int itemLevel;
+
+    /**
+     * Create a content handler reporting to the given PresentationHandler
+     *
+     * @param handler The handler receiving the title and the slides
+     */
+    public PresentationContentHandler(PresentationHandler handler)
+    {
+        this.handler = handler;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes)
+    {
+        this.depth++;
+        if (this.captureDepth >= 0)
+        {
+            // Nested markup inside a text element only contributes its characters
+            return;
+        }
+
+        if (SLIDE.equals(qName))
+        {
+            this.slide = new Slide();
+            this.slideTitleSeen = false;
+            this.slideNumber++;
+            this.slideEvent = new SlideParseEvent();
+            this.slideEvent.begin();
+        }
+        else if (this.slide == null)
+        {
+            // Presentation level: showtitle anywhere, or a title directly under the root
+            if (SHOWTITLE.equals(qName) || (TITLE.equals(qName) && this.depth == 2))
+            {
+                startCapture(qName);
+            }
+        }
+        else if (TITLE.equals(qName))
+        {
+            if (!this.slideTitleSeen)
+            {
+                startCapture(qName);
+            }
+        }
+        else if (ITEM.equals(qName))
+        {
+            startItem(attributes);
+        }
+        else if (TEXT.equals(qName))
+        {
+            this.itemLevel = Integer.parseInt(attributes.getValue(LEVEL));
+            startCapture(qName);
+        }
+        else if (IMAGE.equals(qName))
+        {
+            int level = Integer.parseInt(attributes.getValue(LEVEL));
+            this.slide.append(new BitmapItem(level, attributes.getValue(NAME)));
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName)
+    {
+        if (this.captureDepth == this.depth)
+        {
+            endCapture();
+        }
+        else if (this.captureDepth < 0 && SLIDE.equals(qName) && this.slide != null)
+        {
+            // SAX does not tell the offsets, so the bytes are left at 0
+            this.slideEvent.commit(this.slideNumber, this.slide.getSize(), 0);
+            this.handler.onSlide(this.slide);
+            this.slide = null;
+        }
+        this.depth--;
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length)
+    {
+        if (this.captureDepth >= 0)
+        {
+            this.text.append(ch, start, length);
+        }
+    }
+
+    private void startItem(Attributes attributes)
+    {
+        String levelText = attributes.getValue(LEVEL);
+        String kind = attributes.getValue(KIND);
+        if (levelText == null || kind == null)
+        {
+            System.err.println(MISSING_ATTRIBUTES);
+            return;
+        }
+        this.itemKind = kind;
+        this.itemLevel = parseItemLevel(levelText);
+        startCapture(ITEM);
+    }
+
+    /**
+     * Parse the level attribute of an item element, falling back to level 1
+     *
+     * @param levelText The attribute value
+     * @return The parsed level
+     */
+    static int parseItemLevel(String levelText)
+    {
+        int level = 1; // default
+        try
+        {
+            level = Integer.parseInt(levelText);
+        } catch (NumberFormatException x)
+        {
+            System.err.println(NFE);
+        }
+        return level;
+    }
+
+    /**
+     * Create the SlideItem for an item element and append it to the slide
+     *
+     * @param slide   The slide to append to
+     * @param kind    The kind attribute of the item
+     * @param level   The level of the item
+     * @param content The text content of the item
+     */
+    static void appendItem(Slide slide, String kind, int level, String content)
+    {
+        try
+        {
+            SlideItem slideItem = SlideItemFactory.createSlideItem(kind, level, content);
+            slide.append(slideItem);
+        } catch (IllegalArgumentException e)
+        {
+            System.err.println(UNKNOWNTYPE + ": " + kind);
+        }
+    }
+
+    private void startCapture(String element)
+    {
+        this.captureElement = element;
+        this.captureDepth = this.depth;
+        this.text.setLength(0);
+    }
+
+    private void endCapture()
+    {
+        String content = this.text.toString();
+        String element = this.captureElement;
+        this.captureDepth = -1;
+        this.captureElement = null;
+
+        if (this.slide == null)
+        {
+            this.handler.onTitle(content);
+        }
+        else if (TITLE.equals(element))
+        {
+            this.slide.setTitle(content);
+            this.slideTitleSeen = true;
+        }
+        else if (TEXT.equals(element))
+        {
+            this.slide.append(new TextItem(this.itemLevel, content));
+        }
+        else if (ITEM.equals(element))
+        {
+            appendItem(this.slide, this.itemKind, this.itemLevel, content);
+        }
+    }
+}
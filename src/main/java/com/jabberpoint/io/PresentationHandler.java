@@ -0,0 +1,25 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.Slide;
+
+/**
+ * Callback interface used by streaming parsers
+ * Receives the presentation title and every slide as soon as it has been parsed,
+ * so no intermediate document tree has to be kept in memory
+ */
+public interface PresentationHandler
+{
+    /**
+     * Called when the presentation title has been read
+     *
+     * @param title The presentation title
+     */
+    void onTitle(String title);
+
+    /**
+     * Called when a slide has been read completely
+     *
+     * @param slide The fully built slide
+     */
+    void onSlide(Slide slide);
+}
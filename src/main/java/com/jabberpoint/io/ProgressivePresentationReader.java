@@ -0,0 +1,250 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.Presentation;
+import com.jabberpoint.Slide;
+import com.jabberpoint.error.ConsoleErrorHandler;
+import com.jabberpoint.error.ErrorHandler;
+import com.jabberpoint.metrics.DeckLoadEvent;
+
+import javax.swing.SwingUtilities;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * PresentationReader that loads slides in the background
+ * loadPresentation returns as soon as the load has been handed to the delivery executor, which
+ * starts it and receives every later change as well. A loader thread streams the
+ * file and hands the slides to the presentation in batches, so the first slide is shown
+ * while the rest of the deck is still being read. Progress and completion are reported
+ * through PresentationObserver.onLoadProgress and onLoadComplete.
+ */
+public class ProgressivePresentationReader implements PresentationReader
+{
+    /**
+     * The number of slides handed to the presentation at once, after the first slide
+     */
+    static final int BATCH_SIZE = 32;
+
+    private final StreamingXMLParsingStrategy parsingStrategy;
+    private final Executor deliveryExecutor;
+    private final ErrorHandler errorHandler;
+
+    /**
+     * Create a reader that streams with StAX and changes the presentation on the Swing event thread
+     */
+    public ProgressivePresentationReader()
+    {
+        this(new ConsoleErrorHandler());
+    }
+
+    /**
+     * Create a reader that streams with StAX and changes the presentation on the Swing event thread
+     *
+     * @param errorHandler Receives errors that happen after loadPresentation has returned
+     */
+    public ProgressivePresentationReader(ErrorHandler errorHandler)
+    {
+        this(new StAXXMLParsingStrategy(), SwingUtilities::invokeLater, errorHandler);
+    }
+
+    /**
+     * Create a reader with a specific parser and delivery thread
+     *
+     * @param parsingStrategy  The streaming parser to read the file with
+     * @param deliveryExecutor Runs every change to the presentation, in order
+     * @param errorHandler     Receives errors that happen after loadPresentation has returned
+     */
+    public ProgressivePresentationReader(StreamingXMLParsingStrategy parsingStrategy, Executor deliveryExecutor, ErrorHandler errorHandler)
+    {
+        this.parsingStrategy = parsingStrategy != null ? parsingStrategy : new StAXXMLParsingStrategy();
+        this.deliveryExecutor = deliveryExecutor != null ? deliveryExecutor : SwingUtilities::invokeLater;
+        this.errorHandler = errorHandler != null ? errorHandler : new ConsoleErrorHandler();
+    }
+
+    @Override
+    public void loadPresentation(Presentation presentation, String fileName) throws IOException
+    {
+        File file = new File(fileName);
+
+        if (!file.exists())
+        {
+            throw new java.io.FileNotFoundException(fileName);
+        }
+
+        // Committed by the loader thread, so it spans the whole load and not just the start
+        DeckLoadEvent event = new DeckLoadEvent();
+        event.begin();
+        MappedPresentationFile mapped = MappedPresentationFile.map(file);
+        // Started on the delivery thread as well, which may be showing the presentation already
+        CompletableFuture<Integer> started = new CompletableFuture<>();
+        this.deliveryExecutor.execute(() ->
+        {
+            presentation.setTitle("");
+            started.complete(presentation.startLoading());
+        });
+
+        Thread loader = new Thread(() -> load(presentation, started, mapped, event), "presentation-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Runs on the loader thread; the presentation itself is only changed through the delivery executor
+    private void load(Presentation presentation, CompletableFuture<Integer> started, MappedPresentationFile mapped, DeckLoadEvent event)
+    {
+        int load = started.join();
+        try (CountingInputStream in = new CountingInputStream(mapped.openStream()))
+        {
+            LoadHandler handler = new LoadHandler(presentation, load, in, mapped.size());
+            this.parsingStrategy.parse(in, mapped.getFile().getAbsolutePath(), handler);
+            handler.flush();
+            deliver(presentation, load, () -> presentation.finishLoading(load));
+            event.commit(mapped.getFile().getPath(), getClass(), handler.loaded, handler.itemCount, mapped.size());
+        } catch (Exception e)
+        {
+            for (Throwable cause = e; cause != null; cause = cause.getCause())
+            {
+                if (cause instanceof LoadSupersededException)
+                {
+                    // Another load or presentation replaced this one, nothing left to do
+                    return;
+                }
+            }
+            this.deliveryExecutor.execute(() ->
+            {
+                if (presentation.isCurrentLoad(load))
+                {
+                    presentation.finishLoading(load);
+                    this.errorHandler.handleError("Could not load presentation", e);
+                }
+            });
+        }
+    }
+
+    // Stops the parse as soon as the load is superseded
+    private void deliver(Presentation presentation, int load, Runnable change)
+    {
+        if (!presentation.isCurrentLoad(load))
+        {
+            throw new LoadSupersededException();
+        }
+        this.deliveryExecutor.execute(change);
+    }
+
+    // Assume the rest of the file holds slides of the same average size as the part read so far
+    static int estimate(int loaded, long bytesRead, long fileSize)
+    {
+        if (bytesRead <= 0 || bytesRead >= fileSize)
+        {
+            return loaded;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(loaded, loaded * fileSize / bytesRead));
+    }
+
+    /**
+     * Collects the parsed slides and hands them to the presentation in batches
+     */
+    private class LoadHandler implements PresentationHandler
+    {
+        private final Presentation presentation;
+        private final int load;
+        private final CountingInputStream in;
+        private final long fileSize;
+        private List<Slide> batch = new ArrayList<>();
+        private int loaded = 0;
+        private long itemCount = 0;
+
+        LoadHandler(Presentation presentation, int load, CountingInputStream in, long fileSize)
+        {
+            this.presentation = presentation;
+            this.load = load;
+            this.in = in;
+            this.fileSize = fileSize;
+        }
+
+        @Override
+        public void onTitle(String title)
+        {
+            deliver(this.presentation, this.load, () -> this.presentation.setTitle(title));
+        }
+
+        @Override
+        public void onSlide(Slide slide)
+        {
+            this.batch.add(slide);
+            this.loaded++;
+            this.itemCount += slide.getSize();
+            // The first slide goes out on its own, so it can be shown right away
+            if (this.loaded == 1 || this.batch.size() >= BATCH_SIZE)
+            {
+                flush();
+            }
+        }
+
+        void flush()
+        {
+            if (this.batch.isEmpty())
+            {
+                return;
+            }
+            List<Slide> slides = this.batch;
+            int expected = estimate(this.loaded, this.in.getCount(), this.fileSize);
+            this.batch = new ArrayList<>();
+            deliver(this.presentation, this.load, () -> this.presentation.appendLoadedSlides(this.load, slides, expected));
+        }
+    }
+
+    /**
+     * Counts the bytes handed to the parser
+     * The parser reads ahead, so the count runs a buffer ahead of the slides that have been reported.
+     */
+    private static class CountingInputStream extends FilterInputStream
+    {
+        private long count = 0;
+
+        CountingInputStream(InputStream in)
+        {
+            super(in);
+        }
+
+        long getCount()
+        {
+            return this.count;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = super.read();
+            if (b >= 0)
+            {
+                this.count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException
+        {
+            int read = super.read(bytes, offset, length);
+            if (read > 0)
+            {
+                this.count += read;
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Thrown from the handler to abandon a load that is no longer current
+     */
+    private static class LoadSupersededException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -8,39 +8,51 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.sax.SAXSource;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+
+import com.jabberpoint.metrics.Metrics;
+import com.jabberpoint.metrics.Phase;
 
 /**
  * SAX implementation of the XMLParsingStrategy interface
  * Uses SAX to parse XML files
  * <p>
- * Note: This implementation still uses DOM for document creation,
- * but demonstrates how different parsing strategies can be used
+ * The streaming {@link #parse(File, PresentationHandler)} method builds slides directly
+ * from SAX events through a {@link PresentationContentHandler}, without a DOM tree.
+ * {@link #parseFile(File)} still returns a Document for callers that need one.
  */
-public class SAXXMLParsingStrategy implements XMLParsingStrategy
+public class SAXXMLParsingStrategy implements StreamingXMLParsingStrategy
 {
 
+    private final SAXParserFactory saxFactory;
     private final DocumentBuilderFactory factory;
 
     /**
-     * Constructor initializes the DocumentBuilderFactory
+     * Constructor initializes the SAXParserFactory and the DocumentBuilderFactory
      */
     public SAXXMLParsingStrategy()
     {
+        this.saxFactory = SAXParserFactory.newInstance();
         this.factory = DocumentBuilderFactory.newInstance();
 
         // Set features to make DTD handling more robust
+        saxFactory.setValidating(false);
+        saxFactory.setNamespaceAware(false);
         factory.setValidating(false);
         try
         {
             // Disable external DTD loading and validation
+            saxFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            saxFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            saxFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
             factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
             factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
             factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-        } catch (ParserConfigurationException e)
+        } catch (ParserConfigurationException | SAXException e)
         {
             // If feature is not supported, log the error but continue
             System.err.println("Warning: Could not set parser feature: " + e.getMessage());
@@ -48,20 +60,45 @@ public class SAXXMLParsingStrategy implements XMLParsingStrategy
     }
 
     @Override
-    public Document parseFile(File file) throws ParserConfigurationException, SAXException, IOException
+    public void parse(File file, PresentationHandler handler) throws ParserConfigurationException, SAXException, IOException
     {
-        // Create an InputSource from the file
-        InputSource inputSource = new InputSource(new FileInputStream(file));
-
-        // Create a SAXSource
-        SAXSource source = new SAXSource(inputSource);
+        // Read straight from the page cache instead of through a heap buffer
+        MappedPresentationFile mapped = MappedPresentationFile.map(file);
+        try (InputStream in = mapped.openStream())
+        {
+            parse(in, file.toURI().toString(), handler);
+        }
+    }
 
-        // Create a DocumentBuilder and parse the source
-        DocumentBuilder builder = factory.newDocumentBuilder();
+    @Override
+    public void parse(InputStream in, String systemId, PresentationHandler handler) throws ParserConfigurationException, SAXException, IOException
+    {
+        long start = Metrics.start();
+        try
+        {
+            InputSource source = new InputSource(in);
+            source.setSystemId(systemId);
+            SAXParser parser = saxFactory.newSAXParser();
+            parser.parse(source, new PresentationContentHandler(handler));
+        } finally
+        {
+            Metrics.record(Phase.PARSE, start);
+        }
+    }
 
-        // In a real SAX implementation, we would use custom handlers
-        // For demonstration, we'll just parse the file using the DOM builder
-        return builder.parse(file);
+    @Override
+    public Document parseFile(File file) throws ParserConfigurationException, SAXException, IOException
+    {
+        // Only used by callers that explicitly ask for a Document
+        long start = Metrics.start();
+        try
+        {
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            return builder.parse(file);
+        } finally
+        {
+            Metrics.record(Phase.PARSE, start);
+        }
     }
 
     @Override
@@ -76,4 +113,4 @@ public class SAXXMLParsingStrategy implements XMLParsingStrategy
         DocumentBuilder builder = factory.newDocumentBuilder();
         return builder.newDocument();
     }
-} 
\ No newline at end of file
+}
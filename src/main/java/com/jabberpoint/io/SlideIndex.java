@@ -0,0 +1,340 @@
+package com.jabberpoint.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Byte-offset index of the top-level slide elements in a presentation file
+ * <p>
+ * Built by one scan over the raw bytes without running an XML parser. Comments, CDATA sections,
+ * processing instructions, the DOCTYPE and quoted attribute values are skipped, so markup inside
+ * them is never mistaken for a slide. Offsets are byte positions, which requires an ASCII-compatible
+ * encoding such as UTF-8 or ISO-8859-1. The file is memory mapped, and the mapping is kept
+ * so that slides can later be read from it without touching the heap.
+ */
+public class SlideIndex
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_NAME = 16;
+    private static final byte[] SLIDE = "slide".getBytes();
+    private static final byte[] END_SLIDE = "/slide".getBytes();
+
+    // Scanner states
+    private static final int TEXT = 0;
+    private static final int TAG_NAME = 1;
+    private static final int TAG = 2;
+    private static final int QUOTED = 3;
+    private static final int COMMENT = 4;
+    private static final int CDATA = 5;
+    private static final int PI = 6;
+    private static final int DOCTYPE = 7;
+
+    private final MappedPresentationFile source;
+    private long[] offsets = new long[64];
+    private int[] lengths = new int[64];
+    private int size = 0;
+    private byte[] declaration = new byte[0];
+
+    private SlideIndex(MappedPresentationFile source)
+    {
+        this.source = source;
+    }
+
+    /**
+     * Scan a file and index every slide element in it
+     *
+     * @param file The presentation file
+     * @return The index of the slides in document order
+     * @throws IOException If the file cannot be read or a slide is not closed
+     */
+    public static SlideIndex build(File file) throws IOException
+    {
+        SlideIndex index = new SlideIndex(MappedPresentationFile.map(file));
+        try (InputStream in = index.source.openStream())
+        {
+            index.scan(in);
+        }
+        return index;
+    }
+
+    /**
+     * @return The indexed file
+     */
+    public File getFile()
+    {
+        return this.source.getFile();
+    }
+
+    /**
+     * @return The memory mapping the offsets refer to
+     */
+    public MappedPresentationFile getSource()
+    {
+        return this.source;
+    }
+
+    /**
+     * @return The number of slides in the file
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * @param slideNumber The slide number
+     * @return The byte offset of the '&lt;' that starts the slide element
+     */
+    public long getOffset(int slideNumber)
+    {
+        checkIndex(slideNumber);
+        return this.offsets[slideNumber];
+    }
+
+    /**
+     * @param slideNumber The slide number
+     * @return The length in bytes of the slide element, end tag included
+     */
+    public int getLength(int slideNumber)
+    {
+        checkIndex(slideNumber);
+        return this.lengths[slideNumber];
+    }
+
+    /**
+     * The XML declaration of the file, or an empty array if there is none
+     * Prepending it to a slide fragment keeps the declared encoding when the fragment is parsed on its own.
+     *
+     * @return The raw bytes of the declaration
+     */
+    public byte[] getDeclaration()
+    {
+        return this.declaration.clone();
+    }
+
+    private void checkIndex(int slideNumber)
+    {
+        if (slideNumber < 0 || slideNumber >= this.size)
+        {
+            throw new IndexOutOfBoundsException("Slide " + slideNumber + " of " + this.size);
+        }
+    }
+
+    private void add(long offset, long end) throws IOException
+    {
+        if (end - offset > Integer.MAX_VALUE)
+        {
+            throw new IOException("Slide at offset " + offset + " is too large");
+        }
+        if (this.size == this.offsets.length)
+        {
+            this.offsets = Arrays.copyOf(this.offsets, this.size * 2);
+            this.lengths = Arrays.copyOf(this.lengths, this.size * 2);
+        }
+        this.offsets[this.size] = offset;
+        this.lengths[this.size] = (int) (end - offset);
+        this.size++;
+    }
+
+    private void scan(InputStream in) throws IOException
+    {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] name = new byte[MAX_NAME];
+        int nameLength = 0;
+        int state = TEXT;
+        byte quote = 0;
+        byte previous = 0;
+        byte beforePrevious = 0;
+        int doctypeDepth = 0;
+        long tagStart = 0;
+        long slideStart = -1;
+        boolean slideTag = false;
+        long position = 0;
+
+        int read;
+        while ((read = in.read(buffer)) > 0)
+        {
+            for (int i = 0; i < read; i++, position++)
+            {
+                byte b = buffer[i];
+                switch (state)
+                {
+                    case TEXT:
+                        if (b == '<')
+                        {
+                            state = TAG_NAME;
+                            tagStart = position;
+                            nameLength = 0;
+                        }
+                        break;
+                    case TAG_NAME:
+                        if (nameLength == 0 && b == '?')
+                        {
+                            state = PI;
+                        }
+                        else if (nameLength >= 1 && name[0] == '!' && startsWith(name, nameLength, b, "!--"))
+                        {
+                            state = COMMENT;
+                        }
+                        else if (nameLength >= 1 && name[0] == '!' && startsWith(name, nameLength, b, "![CDATA["))
+                        {
+                            state = CDATA;
+                        }
+                        else if (nameLength >= 1 && name[0] == '!' && startsWith(name, nameLength, b, "!DOCTYPE"))
+                        {
+                            state = DOCTYPE;
+                            doctypeDepth = 0;
+                        }
+                        else if (isNameEnd(b) && !(nameLength == 0 && b == '/'))
+                        {
+                            slideTag = matches(name, nameLength, SLIDE);
+                            if (slideTag && slideStart < 0)
+                            {
+                                slideStart = tagStart;
+                            }
+                            else if (matches(name, nameLength, END_SLIDE) && b == '>' && slideStart >= 0)
+                            {
+                                add(slideStart, position + 1);
+                                slideStart = -1;
+                            }
+                            state = b == '>' ? TEXT : TAG;
+                        }
+                        else if (nameLength < MAX_NAME)
+                        {
+                            name[nameLength++] = b;
+                        }
+                        break;
+                    case TAG:
+                        if (b == '"' || b == '\'')
+                        {
+                            quote = b;
+                            state = QUOTED;
+                        }
+                        else if (b == '>')
+                        {
+                            if (matches(name, nameLength, END_SLIDE) && slideStart >= 0)
+                            {
+                                add(slideStart, position + 1);
+                                slideStart = -1;
+                            }
+                            else if (slideTag && previous == '/' && slideStart == tagStart)
+                            {
+                                // an empty <slide/> element
+                                add(slideStart, position + 1);
+                                slideStart = -1;
+                            }
+                            state = TEXT;
+                        }
+                        break;
+                    case QUOTED:
+                        if (b == quote)
+                        {
+                            state = TAG;
+                        }
+                        break;
+                    case COMMENT:
+                        if (b == '>' && previous == '-' && beforePrevious == '-')
+                        {
+                            state = TEXT;
+                        }
+                        break;
+                    case CDATA:
+                        if (b == '>' && previous == ']' && beforePrevious == ']')
+                        {
+                            state = TEXT;
+                        }
+                        break;
+                    case PI:
+                        if (b == '>' && previous == '?')
+                        {
+                            if (tagStart == 0)
+                            {
+                                this.declaration = readDeclaration(position + 1);
+                            }
+                            state = TEXT;
+                        }
+                        break;
+                    case DOCTYPE:
+                        if (b == '[')
+                        {
+                            doctypeDepth++;
+                        }
+                        else if (b == ']')
+                        {
+                            doctypeDepth--;
+                        }
+                        else if (b == '>' && doctypeDepth <= 0)
+                        {
+                            state = TEXT;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                beforePrevious = previous;
+                previous = b;
+            }
+        }
+
+        if (slideStart >= 0)
+        {
+            throw new IOException("Unterminated slide element at offset " + slideStart);
+        }
+    }
+
+    // The declaration is always short, so it is simply read again from the start of the mapping
+    private byte[] readDeclaration(long length) throws IOException
+    {
+        byte[] bytes = new byte[(int) Math.min(length, 1024)];
+        try (InputStream in = this.source.openStream(0, bytes.length))
+        {
+            int total = 0;
+            int read;
+            while (total < bytes.length && (read = in.read(bytes, total, bytes.length - total)) > 0)
+            {
+                total += read;
+            }
+        }
+        return bytes;
+    }
+
+    private static boolean isNameEnd(byte b)
+    {
+        return b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private static boolean matches(byte[] name, int nameLength, byte[] expected)
+    {
+        if (nameLength != expected.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < nameLength; i++)
+        {
+            if (name[i] != expected[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // true when the collected name followed by b spells out the given prefix exactly
+    private static boolean startsWith(byte[] name, int nameLength, byte b, String prefix)
+    {
+        if (nameLength + 1 != prefix.length())
+        {
+            return false;
+        }
+        for (int i = 0; i < nameLength; i++)
+        {
+            if (name[i] != prefix.charAt(i))
+            {
+                return false;
+            }
+        }
+        return b == prefix.charAt(nameLength);
+    }
+}
@@ -0,0 +1,333 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.BitmapItem;
+import com.jabberpoint.Slide;
+import com.jabberpoint.TextItem;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.jabberpoint.metrics.Metrics;
+import com.jabberpoint.metrics.Phase;
+import com.jabberpoint.metrics.SlideParseEvent;
+
+/**
+ * StAX implementation of the XMLParsingStrategy interface
+ * Pulls events from an XMLStreamReader and builds slides straight from the cursor
+ * <p>
+ * Because the caller drives the cursor, slides can be skipped without being built
+ * and parsing can stop as soon as enough slides have been read.
+ */
+public class StAXXMLParsingStrategy implements StreamingXMLParsingStrategy
+{
+
+    private final XMLInputFactory inputFactory;
+    private final DocumentBuilderFactory factory;
+
+    /**
+     * Constructor initializes the XMLInputFactory and the DocumentBuilderFactory
+     */
+    public StAXXMLParsingStrategy()
+    {
+        this.inputFactory = XMLInputFactory.newInstance();
+        this.factory = DocumentBuilderFactory.newInstance();
+
+        // Never resolve the DTD or external entities
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setValidating(false);
+        try
+        {
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        } catch (ParserConfigurationException e)
+        {
+            // If feature is not supported, log the error but continue
+            System.err.println("Warning: Could not set parser feature: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void parse(File file, PresentationHandler handler) throws XMLStreamException, IOException
+    {
+        parse(file, handler, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parse a range of slides from an XML file
+     * Slides before firstSlide are skipped without being built, and parsing stops
+     * at the first slide after maxSlides slides have been reported. With maxSlides 0
+     * only the content in front of the first slide, such as the title, is read.
+     *
+     * @param file       The XML file to parse
+     * @param handler    The handler receiving the title and the slides
+     * @param firstSlide Index of the first slide to report
+     * @param maxSlides  Maximum number of slides to report
+     * @throws XMLStreamException If the XML is malformed
+     * @throws IOException        If the file cannot be read
+     */
+    public void parse(File file, PresentationHandler handler, int firstSlide, int maxSlides) throws XMLStreamException, IOException
+    {
+        // Read straight from the page cache instead of through a heap buffer
+        MappedPresentationFile mapped = MappedPresentationFile.map(file);
+        try (InputStream in = mapped.openStream())
+        {
+            parse(in, file.toURI().toString(), handler, firstSlide, maxSlides);
+        }
+    }
+
+    @Override
+    public void parse(InputStream in, String systemId, PresentationHandler handler) throws XMLStreamException
+    {
+        parse(in, systemId, handler, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parse a range of slides from an input stream
+     *
+     * @param in         The stream to read; it is not closed
+     * @param systemId   The system id used in error messages, may be null
+     * @param handler    The handler receiving the title and the slides
+     * @param firstSlide Index of the first slide to report
+     * @param maxSlides  Maximum number of slides to report
+     * @throws XMLStreamException If the XML is malformed
+     */
+    public void parse(InputStream in, String systemId, PresentationHandler handler, int firstSlide, int maxSlides) throws XMLStreamException
+    {
+        parse(in, systemId, handler, firstSlide, maxSlides, 0);
+    }
+
+    /**
+     * Parse a range of slides from a stream that holds part of a file
+     *
+     * @param in          The stream to read; it is not closed
+     * @param systemId    The system id used in error messages, may be null
+     * @param handler     The handler receiving the title and the slides
+     * @param firstSlide  Index of the first slide to report
+     * @param maxSlides   Maximum number of slides to report
+     * @param firstNumber The number in the file of the first slide in the stream, for the SlideParseEvents
+     * @throws XMLStreamException If the XML is malformed
+     */
+    void parse(InputStream in, String systemId, PresentationHandler handler, int firstSlide, int maxSlides, int firstNumber) throws XMLStreamException
+    {
+        long start = Metrics.start();
+        try
+        {
+            parseSlides(in, systemId, handler, firstSlide, maxSlides, firstNumber);
+        } finally
+        {
+            Metrics.record(Phase.PARSE, start);
+        }
+    }
+
+    private void parseSlides(InputStream in, String systemId, PresentationHandler handler, int firstSlide, int maxSlides, int firstNumber) throws XMLStreamException
+    {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(systemId, in);
+        try
+        {
+            int slideIndex = 0;
+            int reported = 0;
+            int depth = 0;
+            while (reader.hasNext())
+            {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT)
+                {
+                    depth--;
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT)
+                {
+                    continue;
+                }
+
+                // The helpers below consume the matching end element themselves
+                String name = reader.getLocalName();
+                if (PresentationContentHandler.SLIDE.equals(name))
+                {
+                    if (reported >= maxSlides)
+                    {
+                        break;
+                    }
+                    if (slideIndex++ < firstSlide)
+                    {
+                        skipElement(reader);
+                    }
+                    else
+                    {
+                        SlideParseEvent slideEvent = new SlideParseEvent();
+                        slideEvent.begin();
+                        // character offsets, which are the bytes for ASCII; the start tag is already read
+                        long slideStart = slideEvent.isEnabled() ? reader.getLocation().getCharacterOffset() : -1;
+                        Slide slide = readSlide(reader);
+                        long slideEnd = slideStart >= 0 ? reader.getLocation().getCharacterOffset() : -1;
+                        slideEvent.commit(firstNumber + slideIndex - 1, slide.getSize(), slideEnd >= slideStart ? slideEnd - slideStart : 0);
+                        handler.onSlide(slide);
+                        reported++;
+                    }
+                }
+                else if (PresentationContentHandler.SHOWTITLE.equals(name)
+                        || (PresentationContentHandler.TITLE.equals(name) && depth == 1))
+                {
+                    // a title is the presentation title only when it sits directly under the root
+                    handler.onTitle(readText(reader));
+                }
+                else
+                {
+                    depth++;
+                }
+            }
+        } finally
+        {
+            reader.close();
+        }
+    }
+
+    private Slide readSlide(XMLStreamReader reader) throws XMLStreamException
+    {
+        Slide slide = new Slide();
+        boolean titleSeen = false;
+        int depth = 1;
+        while (depth > 0)
+        {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT)
+            {
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT)
+            {
+                continue;
+            }
+
+            String name = reader.getLocalName();
+            if (PresentationContentHandler.TITLE.equals(name) && !titleSeen)
+            {
+                slide.setTitle(readText(reader));
+                titleSeen = true;
+            }
+            else if (PresentationContentHandler.ITEM.equals(name))
+            {
+                readItem(reader, slide);
+            }
+            else if (PresentationContentHandler.TEXT.equals(name))
+            {
+                int level = Integer.parseInt(reader.getAttributeValue(null, PresentationContentHandler.LEVEL));
+                slide.append(new TextItem(level, readText(reader)));
+            }
+            else if (PresentationContentHandler.IMAGE.equals(name))
+            {
+                int level = Integer.parseInt(reader.getAttributeValue(null, PresentationContentHandler.LEVEL));
+                slide.append(new BitmapItem(level, reader.getAttributeValue(null, PresentationContentHandler.NAME)));
+                skipElement(reader);
+            }
+            else
+            {
+                depth++;
+            }
+        }
+        return slide;
+    }
+
+    private void readItem(XMLStreamReader reader, Slide slide) throws XMLStreamException
+    {
+        String levelText = reader.getAttributeValue(null, PresentationContentHandler.LEVEL);
+        String kind = reader.getAttributeValue(null, PresentationContentHandler.KIND);
+        String content = readText(reader);
+        if (levelText == null || kind == null)
+        {
+            System.err.println(PresentationContentHandler.MISSING_ATTRIBUTES);
+            return;
+        }
+        PresentationContentHandler.appendItem(slide, kind, PresentationContentHandler.parseItemLevel(levelText), content);
+    }
+
+    // Collect all character data up to the end of the current element, like getTextContent
+    private String readText(XMLStreamReader reader) throws XMLStreamException
+    {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0)
+        {
+            int event = reader.next();
+            switch (event)
+            {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    text.append(reader.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return text.toString();
+    }
+
+    // Advance the cursor past the end of the current element without building anything
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException
+    {
+        int depth = 1;
+        while (depth > 0)
+        {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT)
+            {
+                depth++;
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT)
+            {
+                depth--;
+            }
+        }
+    }
+
+    @Override
+    public Document parseFile(File file) throws ParserConfigurationException, SAXException, IOException
+    {
+        // Only used by callers that explicitly ask for a Document
+        long start = Metrics.start();
+        try
+        {
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            return builder.parse(file);
+        } finally
+        {
+            Metrics.record(Phase.PARSE, start);
+        }
+    }
+
+    @Override
+    public Element getRootElement(Document document)
+    {
+        return document.getDocumentElement();
+    }
+
+    @Override
+    public Document createDocument() throws ParserConfigurationException
+    {
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        return builder.newDocument();
+    }
+}
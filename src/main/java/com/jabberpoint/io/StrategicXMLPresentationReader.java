@@ -1,140 +1,223 @@
-package com.jabberpoint.io;
-
-import com.jabberpoint.BitmapItem;
-import com.jabberpoint.Presentation;
-import com.jabberpoint.Slide;
-import com.jabberpoint.TextItem;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-
-import java.io.File;
-
-/**
- * XML implementation of PresentationReader that uses the XMLParsingStrategy
- * This reader can use different parsing strategies interchangeably
- */
-public class StrategicXMLPresentationReader implements PresentationReader
-{
-
-    private final XMLParsingStrategy parsingStrategy;
-
-    /**
-     * Constructor that uses the default parsing strategy
-     */
-    public StrategicXMLPresentationReader()
-    {
-        this.parsingStrategy = XMLParsingStrategyFactory.getDefaultStrategy();
-    }
-
-    /**
-     * Constructor that uses a specific parsing strategy
-     *
-     * @param parsingStrategy The parsing strategy to use
-     */
-    public StrategicXMLPresentationReader(XMLParsingStrategy parsingStrategy)
-    {
-        this.parsingStrategy = parsingStrategy;
-    }
-
-    /**
-     * Constructor that uses a specific strategy type
-     *
-     * @param strategyType The type of strategy to use
-     */
-    public StrategicXMLPresentationReader(XMLParsingStrategyFactory.StrategyType strategyType)
-    {
-        this.parsingStrategy = XMLParsingStrategyFactory.getStrategy(strategyType);
-    }
-
-    @Override
-    public void loadPresentation(Presentation presentation, String fileName) throws Exception
-    {
-        File file = new File(fileName);
-
-        if (!file.exists())
-        {
-            throw new java.io.FileNotFoundException(fileName);
-        }
-
-        // Parse the XML file using the strategy
-        Document document = parsingStrategy.parseFile(file);
-        Element rootElement = parsingStrategy.getRootElement(document);
-
-        // Process the presentation
-        presentation.setTitle(getTitle(rootElement));
-
-        // Process all slides
-        NodeList slideNodes = rootElement.getElementsByTagName("slide");
-        for (int slideIndex = 0; slideIndex < slideNodes.getLength(); slideIndex++)
-        {
-            Element slideElement = (Element) slideNodes.item(slideIndex);
-            Slide slide = processSlide(slideElement);
-            presentation.append(slide);
-        }
-    }
-
-    private String getTitle(Element rootElement)
-    {
-        NodeList titleNodeList = rootElement.getElementsByTagName("title");
-        if (titleNodeList.getLength() > 0)
-        {
-            // Get the first title element (directly under presentation)
-            // Check if this is the presentation title (not a slide title)
-            Element titleElement = (Element) titleNodeList.item(0);
-            if (titleElement.getParentNode() == rootElement)
-            {
-                return titleElement.getTextContent();
-            }
-        }
-        // Return default title if no presentation title found
-        return "Unnamed Presentation";
-    }
-
-    private Slide processSlide(Element slideElement)
-    {
-        Slide slide = new Slide();
-
-        // Set slide title
-        NodeList slideTitleNodes = slideElement.getElementsByTagName("title");
-        if (slideTitleNodes.getLength() > 0)
-        {
-            slide.setTitle(slideTitleNodes.item(0).getTextContent());
-        }
-
-        // Create a merged list of all slide items in the proper order
-        NodeList childNodes = slideElement.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++)
-        {
-            if (childNodes.item(i) instanceof Element)
-            {
-                Element childElement = (Element) childNodes.item(i);
-                String tagName = childElement.getTagName();
-
-                // Skip the title element, as it's not a slide item
-                if ("title".equals(tagName))
-                {
-                    continue;
-                }
-
-                // Process based on tag name
-                if ("text".equals(tagName))
-                {
-                    int level = Integer.parseInt(childElement.getAttribute("level"));
-                    String text = childElement.getTextContent();
-                    slide.append(new TextItem(level, text));
-                }
-                else if ("image".equals(tagName))
-                {
-                    int level = Integer.parseInt(childElement.getAttribute("level"));
-                    String imageName = childElement.getAttribute("name");
-                    slide.append(new BitmapItem(level, imageName));
-                }
-                // Ignore unknown elements
-            }
-        }
-
-        return slide;
-    }
-
+package com.jabberpoint.io;
+
+import com.jabberpoint.BitmapItem;
+import com.jabberpoint.Presentation;
+import com.jabberpoint.Slide;
+import com.jabberpoint.TextItem;
+import com.jabberpoint.metrics.DeckLoadEvent;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * XML implementation of PresentationReader that uses the XMLParsingStrategy
+ * This reader can use different parsing strategies interchangeably
+ */
+public class StrategicXMLPresentationReader implements PresentationReader
+{
+
+    private static final String DEFAULT_TITLE = "Unnamed Presentation";
+
+    private final XMLParsingStrategy parsingStrategy;
+
+    /**
+     * Constructor that uses the default parsing strategy
+     */
+    public StrategicXMLPresentationReader()
+    {
+        this.parsingStrategy = XMLParsingStrategyFactory.getDefaultStrategy();
+    }
+
+    /**
+     * Constructor that uses a specific parsing strategy
+     *
+     * @param parsingStrategy The parsing strategy to use
+     */
+    public StrategicXMLPresentationReader(XMLParsingStrategy parsingStrategy)
+    {
+        this.parsingStrategy = parsingStrategy;
+    }
+
+    /**
+     * Constructor that uses a specific strategy type
+     *
+     * @param strategyType The type of strategy to use
+     */
+    public StrategicXMLPresentationReader(XMLParsingStrategyFactory.StrategyType strategyType)
+    {
+        this.parsingStrategy = XMLParsingStrategyFactory.getStrategy(strategyType);
+    }
+
+    @Override
+    public void loadPresentation(Presentation presentation, String fileName) throws Exception
+    {
+        File file = new File(fileName);
+
+        if (!file.exists())
+        {
+            throw new java.io.FileNotFoundException(fileName);
+        }
+
+        DeckLoadEvent event = new DeckLoadEvent();
+        event.begin();
+        if (parsingStrategy instanceof StreamingXMLParsingStrategy)
+        {
+            long[] counts = loadStreaming((StreamingXMLParsingStrategy) parsingStrategy, presentation, file);
+            event.commit(fileName, getClass(), (int) counts[0], counts[1], file.length());
+            return;
+        }
+
+        // Parse the XML file using the strategy
+        Document document = parsingStrategy.parseFile(file);
+        Element rootElement = parsingStrategy.getRootElement(document);
+
+        // Process the presentation in a single pass over the document
+        List<Slide> slides = new ArrayList<>();
+        presentation.setTitle(walk(rootElement, slides));
+        long itemCount = 0;
+        for (Slide slide : slides)
+        {
+            presentation.append(slide);
+            itemCount += slide.getSize();
+        }
+        event.commit(fileName, getClass(), slides.size(), itemCount, file.length());
+    }
+
+    // give the number of slides and of items that were appended
+    private long[] loadStreaming(StreamingXMLParsingStrategy strategy, Presentation presentation, File file) throws Exception
+    {
+        // Slides are appended as soon as they are parsed, no Document is built
+        presentation.setTitle(DEFAULT_TITLE);
+        long[] counts = new long[2];
+        strategy.parse(file, new PresentationHandler()
+        {
+            @Override
+            public void onTitle(String title)
+            {
+                presentation.setTitle(title);
+            }
+
+            @Override
+            public void onSlide(Slide slide)
+            {
+                presentation.append(slide);
+                counts[0]++;
+                counts[1] += slide.getSize();
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Walk the document once, depth first, and build the slides on the way.
+     * The same elements are read as by the SAX and StAX strategies, through PresentationContentHandler:
+     * a showtitle, or a title directly under the root, is the presentation title; a slide takes the
+     * first title inside it, and its item, text and image elements as items, at any depth.
+     *
+     * @param rootElement The root element
+     * @param slides      Receives the slides in document order
+     * @return The presentation title
+     */
+    private String walk(Element rootElement, List<Slide> slides)
+    {
+        String title = DEFAULT_TITLE;
+        Slide slide = null;
+        Node slideNode = null;
+        boolean slideTitleSeen = false;
+
+        Node node = rootElement;
+        while (node != null)
+        {
+            boolean consumed = false; // the element was read with its content, so its children are not visited
+            if (node != rootElement && node.getNodeType() == Node.ELEMENT_NODE)
+            {
+                Element element = (Element) node;
+                String tagName = element.getTagName();
+                if (PresentationContentHandler.SLIDE.equals(tagName))
+                {
+                    slide = new Slide();
+                    slides.add(slide);
+                    slideNode = node;
+                    slideTitleSeen = false;
+                }
+                else if (slide == null)
+                {
+                    if (PresentationContentHandler.SHOWTITLE.equals(tagName)
+                            || (PresentationContentHandler.TITLE.equals(tagName) && element.getParentNode() == rootElement))
+                    {
+                        title = element.getTextContent();
+                        consumed = true;
+                    }
+                }
+                else if (PresentationContentHandler.TITLE.equals(tagName))
+                {
+                    if (!slideTitleSeen)
+                    {
+                        slide.setTitle(element.getTextContent());
+                        slideTitleSeen = true;
+                        consumed = true;
+                    }
+                }
+                else
+                {
+                    consumed = appendItem(slide, element);
+                }
+            }
+
+            // Advance in document order: first child, else the next sibling of the nearest ancestor
+            Node next = consumed ? null : node.getFirstChild();
+            while (next == null && node != rootElement)
+            {
+                if (node == slideNode)
+                {
+                    slide = null;
+                    slideNode = null;
+                }
+                next = node.getNextSibling();
+                if (next == null)
+                {
+                    node = node.getParentNode();
+                }
+            }
+            node = next;
+        }
+        return title;
+    }
+
+    // append the item an element stands for; false if the element is not an item
+    private boolean appendItem(Slide slide, Element element)
+    {
+        String tagName = element.getTagName();
+        if (PresentationContentHandler.ITEM.equals(tagName))
+        {
+            if (!element.hasAttribute(PresentationContentHandler.LEVEL) || !element.hasAttribute(PresentationContentHandler.KIND))
+            {
+                System.err.println(PresentationContentHandler.MISSING_ATTRIBUTES);
+                return true;
+            }
+            PresentationContentHandler.appendItem(slide, element.getAttribute(PresentationContentHandler.KIND),
+                    PresentationContentHandler.parseItemLevel(element.getAttribute(PresentationContentHandler.LEVEL)),
+                    element.getTextContent());
+            return true;
+        }
+        if (PresentationContentHandler.TEXT.equals(tagName))
+        {
+            int level = Integer.parseInt(element.getAttribute(PresentationContentHandler.LEVEL));
+            slide.append(new TextItem(level, element.getTextContent()));
+            return true;
+        }
+        if (PresentationContentHandler.IMAGE.equals(tagName))
+        {
+            int level = Integer.parseInt(element.getAttribute(PresentationContentHandler.LEVEL));
+            slide.append(new BitmapItem(level, element.getAttribute(PresentationContentHandler.NAME)));
+            return true;
+        }
+        // Other elements only wrap items
+        return false;
+    }
+
 } 
\ No newline at end of file
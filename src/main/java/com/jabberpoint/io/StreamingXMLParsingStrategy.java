@@ -0,0 +1,30 @@
+package com.jabberpoint.io;
+
+import java.io.File;
+import java.io.InputStream;
+
+/**
+ * Extension of XMLParsingStrategy for parsers that build the presentation model
+ * directly from parser events instead of going through a Document
+ */
+public interface StreamingXMLParsingStrategy extends XMLParsingStrategy
+{
+    /**
+     * Parse an XML file and report its content to the handler as it is read
+     *
+     * @param file    The XML file to parse
+     * @param handler The handler receiving the title and the slides in document order
+     * @throws Exception If parsing fails
+     */
+    void parse(File file, PresentationHandler handler) throws Exception;
+
+    /**
+     * Parse XML from a stream and report its content to the handler as it is read
+     *
+     * @param in       The stream to read; it is not closed
+     * @param systemId The system id used to resolve relative references and in error messages, may be null
+     * @param handler  The handler receiving the title and the slides in document order
+     * @throws Exception If parsing fails
+     */
+    void parse(InputStream in, String systemId, PresentationHandler handler) throws Exception;
+}
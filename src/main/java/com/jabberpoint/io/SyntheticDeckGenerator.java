@@ -0,0 +1,253 @@
+package com.jabberpoint.io;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Writes synthetic presentations in the XML format of XMLAccessor, for load and soak tests
+ * <p>
+ * The deck is written slide by slide, item by item, so a file of any size is written in
+ * constant memory. The same seed and settings always give the same file. Every setting
+ * has a default, so {@code new SyntheticDeckGenerator(seed).setSlides(10000)} is enough.
+ * <p>
+ * No DOCTYPE is written, so the files can be read without a jabberpoint.dtd next to them.
+ * <p>
+ * Usage: {@code java com.jabberpoint.io.SyntheticDeckGenerator output.xml slides [seed]}
+ */
+public class SyntheticDeckGenerator
+{
+    public static final long DEFAULT_SEED = 42;
+
+    private static final String[] WORDS = {
+            "slide", "design", "pattern", "observer", "strategy", "model", "view", "controller", "layer",
+            "presentation", "render", "cache", "thread", "event", "stream", "parser", "document", "element",
+            "quality", "scale", "memory", "latency", "throughput", "module", "interface", "class", "object",
+            "method", "field", "test", "build", "release", "review", "commit", "branch", "merge", "deploy",
+            "the", "a", "of", "and", "to", "in", "is", "for", "with", "on", "that", "by", "from", "as"
+    };
+    private static final String[] IMAGES = {"JabberPoint.gif", "serclogo_fc.jpg", "logo-woordmerk_ou.gif"};
+
+    private final long seed;
+    private int slides = 1000;
+    private int minItems = 3;
+    private int maxItems = 8;
+    private int meanWords = 12;
+    private int maxWords = 60;
+    private double[] levelWeights = {4, 3, 2, 1}; // levels 1 to 4
+    private double imageRatio = 0.05;
+    private String[] images = IMAGES; // escaped for XML
+
+    /**
+     * Create a generator
+     *
+     * @param seed The seed of the random numbers; the same seed gives the same deck
+     */
+    public SyntheticDeckGenerator(long seed)
+    {
+        this.seed = seed;
+    }
+
+    // the number of slides
+    public SyntheticDeckGenerator setSlides(int slides)
+    {
+        if (slides < 0)
+        {
+            throw new IllegalArgumentException("Negative number of slides: " + slides);
+        }
+        this.slides = slides;
+        return this;
+    }
+
+    // the number of items on a slide, drawn evenly from min to max
+    public SyntheticDeckGenerator setItemsPerSlide(int min, int max)
+    {
+        if (min < 0 || max < min)
+        {
+            throw new IllegalArgumentException("Invalid number of items: " + min + " to " + max);
+        }
+        this.minItems = min;
+        this.maxItems = max;
+        return this;
+    }
+
+    // the number of words in a text item, log-normally distributed around the mean and capped at max
+    public SyntheticDeckGenerator setTextLength(int meanWords, int maxWords)
+    {
+        if (meanWords < 1 || maxWords < meanWords)
+        {
+            throw new IllegalArgumentException("Invalid text length: " + meanWords + " up to " + maxWords);
+        }
+        this.meanWords = meanWords;
+        this.maxWords = maxWords;
+        return this;
+    }
+
+    // the relative frequency of the levels of items, starting at level 1
+    public SyntheticDeckGenerator setLevelWeights(double... weights)
+    {
+        double total = 0;
+        for (double weight : weights)
+        {
+            if (weight < 0)
+            {
+                throw new IllegalArgumentException("Negative level weight: " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0)
+        {
+            throw new IllegalArgumentException("At least one level needs a weight");
+        }
+        this.levelWeights = weights.clone();
+        return this;
+    }
+
+    // the fraction of items that refer to an image, and the image names to use
+    public SyntheticDeckGenerator setImages(double ratio, String... names)
+    {
+        if (ratio < 0 || ratio > 1 || (ratio > 0 && names.length == 0))
+        {
+            throw new IllegalArgumentException("Invalid image ratio " + ratio + " for " + names.length + " images");
+        }
+        String[] escaped = new String[names.length];
+        for (int index = 0; index < names.length; index++)
+        {
+            escaped[index] = escape(names[index]);
+        }
+        this.imageRatio = ratio;
+        this.images = escaped;
+        return this;
+    }
+
+    // the text with the characters that are markup in element content replaced by entities
+    private static String escape(String text)
+    {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int index = 0; index < text.length(); index++)
+        {
+            char c = text.charAt(index);
+            switch (c)
+            {
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Write the deck to a file
+     *
+     * @param file The file to write
+     * @throws IOException If the file cannot be written
+     */
+    public void write(File file) throws IOException
+    {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16))
+        {
+            write(out);
+        }
+    }
+
+    /**
+     * Write the deck; the writer is not closed
+     *
+     * @param out The writer to write to
+     * @throws IOException If writing fails
+     */
+    public void write(Writer out) throws IOException
+    {
+        Random random = new Random(this.seed);
+        StringBuilder line = new StringBuilder(1024);
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<presentation>\n");
+        out.write("<showtitle>Synthetic deck of " + this.slides + " slides, seed " + this.seed + "</showtitle>\n");
+        for (int slide = 0; slide < this.slides; slide++)
+        {
+            out.write("<slide>\n<title>Slide " + (slide + 1) + "</title>\n");
+            int items = this.minItems + random.nextInt(this.maxItems - this.minItems + 1);
+            for (int item = 0; item < items; item++)
+            {
+                line.setLength(0);
+                int level = level(random);
+                if (this.imageRatio > 0 && random.nextDouble() < this.imageRatio)
+                {
+                    line.append("<item kind=\"image\" level=\"").append(level).append("\">")
+                            .append(this.images[random.nextInt(this.images.length)]);
+                }
+                else
+                {
+                    line.append("<item kind=\"text\" level=\"").append(level).append("\">");
+                    text(random, line);
+                }
+                line.append("</item>\n");
+                out.append(line);
+            }
+            out.write("</slide>\n");
+        }
+        out.write("</presentation>\n");
+        out.flush();
+    }
+
+    // a level drawn by the level weights
+    private int level(Random random)
+    {
+        double total = 0;
+        for (double weight : this.levelWeights)
+        {
+            total += weight;
+        }
+        double pick = random.nextDouble() * total;
+        for (int level = 0; level < this.levelWeights.length; level++)
+        {
+            pick -= this.levelWeights[level];
+            if (pick < 0)
+            {
+                return level + 1;
+            }
+        }
+        return this.levelWeights.length;
+    }
+
+    // a sentence of a log-normally distributed number of words
+    private void text(Random random, StringBuilder line)
+    {
+        int words = (int) Math.round(this.meanWords * Math.exp(0.5 * random.nextGaussian() - 0.125));
+        words = Math.max(1, Math.min(this.maxWords, words));
+        for (int word = 0; word < words; word++)
+        {
+            if (word > 0)
+            {
+                line.append(' ');
+            }
+            line.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+    }
+
+    public static void main(String[] argv) throws IOException
+    {
+        if (argv.length < 2 || argv.length > 3)
+        {
+            System.err.println("Usage: SyntheticDeckGenerator output.xml slides [seed]");
+            return;
+        }
+        long seed = argv.length == 3 ? Long.parseLong(argv[2]) : DEFAULT_SEED;
+        new SyntheticDeckGenerator(seed).setSlides(Integer.parseInt(argv[1])).write(new File(argv[0]));
+        System.out.println("Wrote " + argv[1] + " slides to " + argv[0]);
+    }
+}
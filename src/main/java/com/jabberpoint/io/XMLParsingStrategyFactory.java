@@ -13,7 +13,8 @@ public class XMLParsingStrategyFactory
     public enum StrategyType
     {
         DOM,
-        SAX
+        SAX,
+        STAX
     }
 
     /**
@@ -38,6 +39,8 @@ public class XMLParsingStrategyFactory
         {
             case SAX:
                 return new SAXXMLParsingStrategy();
+            case STAX:
+                return new StAXXMLParsingStrategy();
             case DOM:
             default:
                 return new DOMXMLParsingStrategy();
@@ -0,0 +1,54 @@
+package com.jabberpoint.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for a lookup in an image or slide cache, a hit or a miss
+ */
+@Name("com.jabberpoint.CacheLookup")
+@Label("Cache Lookup")
+@Category({"JabberPoint", "Caches"})
+@Description("A lookup of a decoded image, scaled image or drawn slide")
+@StackTrace(false)
+public final class CacheLookupEvent extends Event
+{
+    @Label("Cache")
+    Class<?> cache;
+
+    @Label("Key")
+    String key;
+
+    @Label("Hit")
+    boolean hit;
+
+    @Label("Bytes")
+    @Description("The bytes of the cached image on a hit, 0 on a miss or while it is decoded")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Fill in the event and commit it, if it is recorded
+     *
+     * @param cache The class of the cache
+     * @param key   The key that was looked up
+     * @param hit   Whether the cache held the key
+     * @param bytes The bytes of the cached image
+     */
+    public void commit(Class<?> cache, String key, boolean hit, long bytes)
+    {
+        if (shouldCommit())
+        {
+            this.cache = cache;
+            this.key = key;
+            this.hit = hit;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.jabberpoint.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * <p>A Flight Recorder event for loading a presentation with a PresentationReader.</p>
+ * <p>Begin it before the file is read and commit it once the slides are in the
+ * presentation; for a reader that loads in the background that is on another thread.</p>
+ */
+@Name("com.jabberpoint.DeckLoad")
+@Label("Deck Load")
+@Category({"JabberPoint", "Loading"})
+@Description("Loading a presentation file")
+public final class DeckLoadEvent extends Event
+{
+    @Label("Source")
+    String source;
+
+    @Label("Reader")
+    Class<?> reader;
+
+    @Label("Slide Count")
+    int slideCount;
+
+    @Label("Item Count")
+    @Description("The items on the slides, -1 if the slides are parsed lazily")
+    long itemCount;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Fill in the event and commit it, if it is recorded
+     *
+     * @param source     The file that was read
+     * @param reader     The class of the PresentationReader
+     * @param slideCount The number of slides loaded
+     * @param itemCount  The number of items on those slides, -1 if it is not known
+     * @param bytes      The size of the file
+     */
+    public void commit(String source, Class<?> reader, int slideCount, long itemCount, long bytes)
+    {
+        if (shouldCommit())
+        {
+            this.source = source;
+            this.reader = reader;
+            this.slideCount = slideCount;
+            this.itemCount = itemCount;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
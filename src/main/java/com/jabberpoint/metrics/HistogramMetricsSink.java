@@ -0,0 +1,40 @@
+package com.jabberpoint.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A sink that keeps a Histogram per phase
+ */
+public class HistogramMetricsSink implements MetricsSink
+{
+    private final Map<Phase, Histogram> histograms = new EnumMap<>(Phase.class);
+
+    public HistogramMetricsSink()
+    {
+        for (Phase phase : Phase.values())
+        {
+            this.histograms.put(phase, new Histogram());
+        }
+    }
+
+    @Override
+    public void record(Phase phase, long nanos)
+    {
+        this.histograms.get(phase).record(nanos);
+    }
+
+    public Histogram getHistogram(Phase phase)
+    {
+        return this.histograms.get(phase);
+    }
+
+    // forget the values of all phases
+    public void reset()
+    {
+        for (Histogram histogram : this.histograms.values())
+        {
+            histogram.reset();
+        }
+    }
+}
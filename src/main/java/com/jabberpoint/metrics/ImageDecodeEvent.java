@@ -0,0 +1,52 @@
+package com.jabberpoint.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event for decoding the image of a BitmapItem
+ */
+@Name("com.jabberpoint.ImageDecode")
+@Label("Image Decode")
+@Category({"JabberPoint", "Images"})
+@Description("Reading and decoding an image file")
+public final class ImageDecodeEvent extends Event
+{
+    @Label("Source")
+    String source;
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Bytes")
+    @Description("The bytes of the decoded pixels, 0 if the image could not be read")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Fill in the event and commit it, if it is recorded
+     *
+     * @param source The image source
+     * @param width  The width of the image, 0 if there is none
+     * @param height The height of the image, 0 if there is none
+     * @param bytes  The bytes of the decoded pixels
+     */
+    public void commit(String source, int width, int height, long bytes)
+    {
+        if (shouldCommit())
+        {
+            this.source = source;
+            this.width = width;
+            this.height = height;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.jabberpoint.metrics;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <p>The entry point of the instrumentation.</p>
+ * <p>Timed code calls start() before a phase and record() after it. While no sink is set,
+ * start() only reads a volatile field and returns 0, and record() returns at once, so the
+ * instrumentation costs next to nothing when it is off. enable() installs a
+ * HistogramMetricsSink and publishes it as platform MBeans named
+ * com.jabberpoint:type=Metrics,phase=... . Setting the system property
+ * jabberpoint.metrics to true enables it when JabberPoint starts.</p>
+ */
+public final class Metrics
+{
+    public static final String ENABLED_PROPERTY = "jabberpoint.metrics";
+    public static final String DOMAIN = "com.jabberpoint";
+
+    private static volatile MetricsSink sink; // null while metrics are off
+
+    private Metrics()
+    {
+    }
+
+    /**
+     * @return The start time of a phase, or 0 if metrics are off
+     */
+    public static long start()
+    {
+        return sink != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record a phase that began at a time returned by start()
+     *
+     * @param phase The phase
+     * @param start The value start() returned
+     */
+    public static void record(Phase phase, long start)
+    {
+        MetricsSink current = sink;
+        if (current != null && start != 0)
+        {
+            current.record(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Send the timings to a sink, replacing the current one
+     *
+     * @param newSink The sink, or null to turn metrics off
+     */
+    public static void setSink(MetricsSink newSink)
+    {
+        sink = newSink;
+    }
+
+    public static MetricsSink getSink()
+    {
+        return sink;
+    }
+
+    /**
+     * Collect the timings in histograms and publish them as platform MBeans
+     *
+     * @return The sink that collects the timings
+     */
+    public static synchronized HistogramMetricsSink enable()
+    {
+        if (sink instanceof HistogramMetricsSink)
+        {
+            return (HistogramMetricsSink) sink;
+        }
+        HistogramMetricsSink histograms = new HistogramMetricsSink();
+        register(histograms);
+        sink = histograms;
+        return histograms;
+    }
+
+    // publish one MBean per phase, replacing the ones of an earlier sink
+    private static void register(HistogramMetricsSink histograms)
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (Phase phase : Phase.values())
+        {
+            try
+            {
+                ObjectName name = objectName(phase);
+                if (server.isRegistered(name))
+                {
+                    server.unregisterMBean(name);
+                }
+                server.registerMBean(new PhaseMetrics(histograms.getHistogram(phase)), name);
+            } catch (JMException e)
+            {
+                System.err.println("Cannot publish the " + phase.getMetricName() + " metrics: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param phase The phase
+     * @return The name of the MBean of the phase
+     * @throws JMException If the name is not valid
+     */
+    public static ObjectName objectName(Phase phase) throws JMException
+    {
+        return new ObjectName(DOMAIN + ":type=Metrics,phase=" + phase.getMetricName());
+    }
+
+    /**
+     * Turn metrics off; the MBeans stay registered with their last values
+     */
+    public static synchronized void disable()
+    {
+        sink = null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.jabberpoint.metrics;
+
+/**
+ * Receives the timings of the phases while metrics are enabled
+ * A sink is called on the thread that ran the phase, often the event thread, so it must be quick and thread-safe.
+ */
+public interface MetricsSink
+{
+    /**
+     * Record one run of a phase
+     *
+     * @param phase The phase
+     * @param nanos How long it took, in nanoseconds
+     */
+    void record(Phase phase, long nanos);
+}
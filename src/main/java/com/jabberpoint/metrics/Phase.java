@@ -0,0 +1,33 @@
+package com.jabberpoint.metrics;
+
+/**
+ * The phases of loading and showing a presentation that are timed
+ */
+public enum Phase
+{
+    // reading and parsing a file in an XMLParsingStrategy
+    PARSE("parse"),
+    // turning an item element into a SlideItem in XMLAccessor
+    MODEL_BUILD("modelBuild"),
+    // decoding the image of a BitmapItem
+    IMAGE_DECODE("imageDecode"),
+    // laying out a slide for a slide area
+    LAYOUT("layout"),
+    // drawing a laid out slide
+    SLIDE_PAINT("slidePaint"),
+    // a whole paint of the SlideViewerComponent
+    COMPONENT_PAINT("componentPaint");
+
+    private final String metricName;
+
+    Phase(String metricName)
+    {
+        this.metricName = metricName;
+    }
+
+    // the name used in the MBean and by sinks
+    public String getMetricName()
+    {
+        return this.metricName;
+    }
+}
@@ -0,0 +1,64 @@
+package com.jabberpoint.metrics;
+
+/**
+ * Publishes the Histogram of one phase as an MXBean
+ */
+public class PhaseMetrics implements PhaseMetricsMXBean
+{
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Histogram histogram;
+
+    public PhaseMetrics(Histogram histogram)
+    {
+        this.histogram = histogram;
+    }
+
+    @Override
+    public long getCount()
+    {
+        return this.histogram.getCount();
+    }
+
+    @Override
+    public double getTotalMillis()
+    {
+        return this.histogram.getSum() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMeanMillis()
+    {
+        return this.histogram.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis()
+    {
+        return this.histogram.getPercentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP90Millis()
+    {
+        return this.histogram.getPercentile(90) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis()
+    {
+        return this.histogram.getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis()
+    {
+        return this.histogram.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void reset()
+    {
+        this.histogram.reset();
+    }
+}
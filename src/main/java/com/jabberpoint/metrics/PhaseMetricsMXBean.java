@@ -0,0 +1,23 @@
+package com.jabberpoint.metrics;
+
+/**
+ * The timings of one phase, as published over JMX; durations are in milliseconds
+ */
+public interface PhaseMetricsMXBean
+{
+    long getCount();
+
+    double getTotalMillis();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -0,0 +1,57 @@
+package com.jabberpoint.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for a paint of the slide viewer
+ */
+@Name("com.jabberpoint.SlidePaint")
+@Label("Slide Paint")
+@Category({"JabberPoint", "Painting"})
+@Description("Painting the current slide in the slide viewer")
+@StackTrace(false)
+public final class SlidePaintEvent extends Event
+{
+    @Label("Slide Number")
+    int slideNumber;
+
+    @Label("Item Count")
+    int itemCount;
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Background")
+    @Description("Whether a frame of the render thread was copied")
+    boolean background;
+
+    /**
+     * Fill in the event and commit it, if it is recorded
+     *
+     * @param slideNumber The number of the slide, -1 if none is shown
+     * @param itemCount   The number of items on the slide
+     * @param width       The width of the slide area
+     * @param height      The height of the slide area
+     * @param background  Whether the slide was drawn on the render thread
+     */
+    public void commit(int slideNumber, int itemCount, int width, int height, boolean background)
+    {
+        if (shouldCommit())
+        {
+            this.slideNumber = slideNumber;
+            this.itemCount = itemCount;
+            this.width = width;
+            this.height = height;
+            this.background = background;
+            commit();
+        }
+    }
+}
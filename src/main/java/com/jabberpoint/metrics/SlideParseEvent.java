@@ -0,0 +1,50 @@
+package com.jabberpoint.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for reading one slide and building its items
+ */
+@Name("com.jabberpoint.SlideParse")
+@Label("Slide Parse")
+@Category({"JabberPoint", "Loading"})
+@Description("Reading one slide and building its items")
+@StackTrace(false)
+public final class SlideParseEvent extends Event
+{
+    @Label("Slide Number")
+    @Description("The number of the slide in the file, starting at 0")
+    int slideNumber;
+
+    @Label("Item Count")
+    int itemCount;
+
+    @Label("Bytes")
+    @Description("The bytes the slide takes up in the file, 0 if the parser does not tell")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Fill in the event and commit it, if it is recorded
+     *
+     * @param slideNumber The number of the slide in the file
+     * @param itemCount   The number of items on the slide
+     * @param bytes       The bytes of the slide in the file, 0 if not known
+     */
+    public void commit(int slideNumber, int itemCount, long bytes)
+    {
+        if (shouldCommit())
+        {
+            this.slideNumber = slideNumber;
+            this.itemCount = itemCount;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
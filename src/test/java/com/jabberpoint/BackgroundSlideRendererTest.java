@@ -0,0 +1,159 @@
+package com.jabberpoint;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class BackgroundSlideRendererTest
+{
+
+    private static final int WIDTH = 120;
+    private static final int HEIGHT = 80;
+
+    private Semaphore frames;
+    private BackgroundSlideRenderer renderer;
+
+    /**
+     * An item that fills the slide area in one colour, and can hold up the render thread
+     */
+    private static class ColourItem extends SlideItem
+    {
+        final Color colour;
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release;
+        volatile Thread drawnOn;
+
+        ColourItem(Color colour, CountDownLatch release)
+        {
+            this.colour = colour;
+            this.release = release;
+        }
+
+        @Override
+        public Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style style)
+        {
+            return new Rectangle(0, 0, WIDTH, HEIGHT);
+        }
+
+        @Override
+        public void draw(int x, int y, float scale, Graphics g, Style style, ImageObserver observer)
+        {
+            this.drawnOn = Thread.currentThread();
+            this.started.countDown();
+            try
+            {
+                this.release.await();
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            g.setColor(this.colour);
+            g.fillRect(0, 0, WIDTH, HEIGHT);
+        }
+    }
+
+    @BeforeClass
+    public static void setUpClass()
+    {
+        Style.createStyles();
+    }
+
+    @Before
+    public void setUp()
+    {
+        frames = new Semaphore(0);
+        renderer = new BackgroundSlideRenderer(new RenderedSlideCache(1024 * 1024), frames::release);
+    }
+
+    private Slide slide(ColourItem item)
+    {
+        Slide slide = new Slide();
+        slide.append(item);
+        return slide;
+    }
+
+    // the colour in the middle of the frame that is in the front buffer
+    private int frameColour()
+    {
+        BufferedImage screen = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics g = screen.getGraphics();
+        assertTrue(renderer.drawFrame(g, 0, 0));
+        g.dispose();
+        return screen.getRGB(WIDTH / 2, HEIGHT / 2);
+    }
+
+    @Test
+    public void testNoFrameBeforeTheFirstRequest()
+    {
+        BufferedImage screen = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+        assertFalse(renderer.drawFrame(screen.getGraphics(), 0, 0));
+        assertFalse(renderer.isCurrent(0, null, WIDTH, HEIGHT, 0));
+    }
+
+    @Test
+    public void testSlideIsDrawnOnTheRenderThread() throws Exception
+    {
+        Slide slide = slide(new ColourItem(Color.RED, new CountDownLatch(0)));
+
+        renderer.request(0, slide, WIDTH, HEIGHT, 0, null, null);
+
+        assertTrue(frames.tryAcquire(10, TimeUnit.SECONDS));
+        assertTrue(renderer.isCurrent(0, slide, WIDTH, HEIGHT, 0));
+        assertFalse("A new generation needs a new frame", renderer.isCurrent(0, slide, WIDTH, HEIGHT, 1));
+        assertEquals(Color.RED.getRGB(), frameColour());
+    }
+
+    @Test
+    public void testStaleRequestsAreDropped() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        ColourItem first = new ColourItem(Color.RED, release);
+        ColourItem second = new ColourItem(Color.GREEN, new CountDownLatch(0));
+        ColourItem third = new ColourItem(Color.BLUE, new CountDownLatch(0));
+        Slide last = slide(third);
+
+        renderer.request(0, slide(first), WIDTH, HEIGHT, 0, null, null);
+        assertTrue(first.started.await(10, TimeUnit.SECONDS));
+        // Paging on while the first slide is being drawn
+        renderer.request(1, slide(second), WIDTH, HEIGHT, 0, null, null);
+        renderer.request(2, last, WIDTH, HEIGHT, 0, null, null);
+        renderer.request(2, last, WIDTH, HEIGHT, 0, null, null);
+        release.countDown();
+
+        assertTrue(frames.tryAcquire(10, TimeUnit.SECONDS));
+        assertEquals("Only the newest slide reaches the screen", Color.BLUE.getRGB(), frameColour());
+        assertTrue(renderer.isCurrent(2, last, WIDTH, HEIGHT, 0));
+        assertEquals(1, renderer.getFrameCount());
+        assertEquals(1, second.started.getCount());
+        assertEquals("The replaced and the superseded request", 2, renderer.getDroppedCount());
+    }
+
+    @Test
+    public void testInterruptedRenderThreadIsStartedAgain() throws Exception
+    {
+        ColourItem first = new ColourItem(Color.RED, new CountDownLatch(0));
+        Slide second = slide(new ColourItem(Color.GREEN, new CountDownLatch(0)));
+        renderer.request(0, slide(first), WIDTH, HEIGHT, 0, null, null);
+        assertTrue(frames.tryAcquire(10, TimeUnit.SECONDS));
+
+        first.drawnOn.interrupt();
+        first.drawnOn.join(10_000);
+        assertFalse(first.drawnOn.isAlive());
+        renderer.request(1, second, WIDTH, HEIGHT, 0, null, null);
+
+        assertTrue("The next request should start a new render thread", frames.tryAcquire(10, TimeUnit.SECONDS));
+        assertEquals(Color.GREEN.getRGB(), frameColour());
+    }
+}
@@ -1,11 +1,13 @@
 package com.jabberpoint;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
 
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.image.ImageObserver;
 import java.awt.Color;
@@ -13,6 +15,8 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 import javax.imageio.ImageIO;
 
 public class BitmapItemTest
@@ -34,6 +38,14 @@ public class BitmapItemTest
 
         // Create simple mock observer that always returns true
         mockObserver = (img, infoflags, x, y, width, height) -> true;
+
+        ImageCache.getShared().clear();
+    }
+
+    @After
+    public void tearDown()
+    {
+        ImageCache.getShared().clear();
     }
 
     @Test
@@ -83,13 +95,11 @@ public class BitmapItemTest
         // Create a BitmapItem with a test image that we can control
         bitmapItem = new BitmapItem(1, "test-image.jpg");
 
-        // Set a controlled bufferedImage using reflection
+        // Put a controlled image in the cache, under the source of the item
         try
         {
             BufferedImage testImage = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
-            Field imageField = BitmapItem.class.getDeclaredField("bufferedImage");
-            imageField.setAccessible(true);
-            imageField.set(bitmapItem, testImage);
+            ImageCache.getShared().put(bitmapItem.getImageKey(), testImage);
 
             float scale = 2.0f; // Use scale > 1 to test scaling
             Style style = new Style(10, Color.BLACK, 5, 0); // indent 10, leading 5
@@ -126,13 +136,11 @@ public class BitmapItemTest
         // Create a BitmapItem with a test image that we can control
         bitmapItem = new BitmapItem(1, "test-image.jpg");
 
-        // Set a controlled bufferedImage using reflection
+        // Put a controlled image in the cache, under the source of the item
         try
         {
             BufferedImage testImage = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
-            Field imageField = BitmapItem.class.getDeclaredField("bufferedImage");
-            imageField.setAccessible(true);
-            imageField.set(bitmapItem, testImage);
+            ImageCache.getShared().put(bitmapItem.getImageKey(), testImage);
 
             // Draw should not throw exception
             bitmapItem.draw(10, 10, 1.0f, mockGraphics, defaultStyle, mockObserver);
@@ -236,10 +244,10 @@ public class BitmapItemTest
             // First create a bitmap item with a valid name but null image
             bitmapItem = new BitmapItem(1, "test.jpg");
 
-            // Now set the bufferedImage to null explicitly to test the error paths
-            Field imageField = BitmapItem.class.getDeclaredField("bufferedImage");
-            imageField.setAccessible(true);
-            imageField.set(bitmapItem, null);
+            // Now set the source of the image to null explicitly to test the error paths
+            Field sourceField = BitmapItem.class.getDeclaredField("source");
+            sourceField.setAccessible(true);
+            sourceField.set(bitmapItem, null);
 
             // Test getBoundingBox with null image
             Rectangle boundingBox = bitmapItem.getBoundingBox(mockGraphics, mockObserver, 1.0f, defaultStyle);
@@ -276,10 +284,8 @@ public class BitmapItemTest
             g.fillRect(0, 0, 50, 50);
             g.dispose();
 
-            // Set the bufferedImage using reflection
-            Field imageField = BitmapItem.class.getDeclaredField("bufferedImage");
-            imageField.setAccessible(true);
-            imageField.set(bitmapItem, testImage);
+            // Put the image in the cache, under the source of the item
+            ImageCache.getShared().put(bitmapItem.getImageKey(), testImage);
 
             // Create a scaled output image to draw on
             BufferedImage outputImage = new BufferedImage(200, 200, BufferedImage.TYPE_INT_ARGB);
@@ -305,4 +311,110 @@ public class BitmapItemTest
             fail("Exception should not be thrown during scaled drawing test: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testImageIsNotDecodedOnConstruction() throws Exception
+    {
+        bitmapItem = new BitmapItem(1, "JabberPoint.gif");
+
+        assertEquals("The image should only be decoded when it is first used", 0, ImageCache.getShared().size());
+    }
+
+    @Test
+    public void testPlaceholderHasTheSizeOfTheImageOnceTheHeaderIsRead() throws IOException
+    {
+        File imageFile = File.createTempFile("placeholder-test", ".png");
+        imageFile.deleteOnExit();
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "png", imageFile);
+        List<Runnable> tasks = new ArrayList<>();
+        bitmapItem = new BitmapItem(1, imageFile.getAbsolutePath(), tasks::add);
+        int generation = BitmapItem.getSizeGeneration();
+
+        Rectangle fixed = bitmapItem.getBoundingBox(mockGraphics, mockObserver, 1.0f, defaultStyle);
+        assertFalse("The header should be read on the decoder", tasks.isEmpty());
+        runAll(tasks);
+        Rectangle placeholder = bitmapItem.getBoundingBox(mockGraphics, mockObserver, 1.0f, defaultStyle);
+
+        assertEquals(BitmapItem.PLACEHOLDER_SIZE.width, fixed.width);
+        assertEquals((int) defaultStyle.leading + BitmapItem.PLACEHOLDER_SIZE.height, fixed.height);
+        assertEquals(40, placeholder.width);
+        assertEquals((int) defaultStyle.leading + 30, placeholder.height);
+        assertNotEquals("Layouts made with the fixed placeholder should be made again", generation, BitmapItem.getSizeGeneration());
+    }
+
+    @Test
+    public void testUnreadableImageUsesTheFallbackSize()
+    {
+        // The JabberPoint.gif on the test classpath is not a valid image
+        bitmapItem = new BitmapItem(1, "JabberPoint.gif");
+
+        bitmapItem.getBoundingBox(mockGraphics, mockObserver, 1.0f, defaultStyle);
+        BufferedImage image = bitmapItem.getImage();
+        ImageCache.getShared().clear();
+        Rectangle placeholder = bitmapItem.getBoundingBox(mockGraphics, mockObserver, 1.0f, defaultStyle);
+
+        assertNotNull("The fallback image should be decoded instead", image);
+        assertEquals(image.getWidth(), placeholder.width);
+    }
+
+    @Test
+    public void testSlideIsLaidOutAgainWhenTheImageSizeIsKnown() throws IOException
+    {
+        Style.createStyles();
+        File imageFile = File.createTempFile("layout-test", ".png");
+        imageFile.deleteOnExit();
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "png", imageFile);
+        List<Runnable> tasks = new ArrayList<>();
+        Slide slide = new Slide();
+        slide.append(new BitmapItem(1, imageFile.getAbsolutePath(), tasks::add));
+        Graphics2D graphics = new BufferedImage(Slide.WIDTH, Slide.HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+        Rectangle area = new Rectangle(0, 0, Slide.WIDTH, Slide.HEIGHT);
+
+        SlideLayout before = slide.getLayout(graphics, area, mockObserver);
+        runAll(tasks);
+        SlideLayout after = slide.getLayout(graphics, area, mockObserver);
+
+        assertNotSame(before, after);
+        assertEquals(BitmapItem.PLACEHOLDER_SIZE.width, before.getBounds(1).width);
+        assertEquals(40, after.getBounds(1).width);
+        graphics.dispose();
+    }
+
+    private static void runAll(List<Runnable> tasks)
+    {
+        while (!tasks.isEmpty())
+        {
+            tasks.remove(0).run();
+        }
+    }
+
+    @Test
+    public void testObserverIsToldWhenTheImageIsReady() throws Exception
+    {
+        java.util.concurrent.CountDownLatch ready = new java.util.concurrent.CountDownLatch(1);
+        ImageObserver observer = (img, infoflags, x, y, width, height) ->
+        {
+            if ((infoflags & ImageObserver.ALLBITS) != 0)
+            {
+                ready.countDown();
+            }
+            return false;
+        };
+        bitmapItem = new BitmapItem(1, "JabberPoint.gif");
+
+        bitmapItem.draw(0, 0, 1.0f, mockGraphics, defaultStyle, observer);
+
+        assertTrue("The observer should be told to repaint",
+                ready.await(10, java.util.concurrent.TimeUnit.SECONDS));
+        assertNotNull(bitmapItem.getImage());
+    }
+
+    @Test
+    public void testEmptyItemHasNoImage()
+    {
+        bitmapItem = new BitmapItem();
+
+        assertNull(bitmapItem.getImage());
+        assertEquals(0, bitmapItem.getBoundingBox(mockGraphics, mockObserver, 1.0f, defaultStyle).width);
+    }
+}
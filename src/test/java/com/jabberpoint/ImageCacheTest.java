@@ -0,0 +1,225 @@
+package com.jabberpoint;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+
+public class ImageCacheTest
+{
+
+    // 10 x 10 pixels of 4 bytes
+    private static final long IMAGE_BYTES = 400;
+
+    private ImageCache cache;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp()
+    {
+        cache = new ImageCache(3 * IMAGE_BYTES);
+        executor = Executors.newFixedThreadPool(2);
+        ImageCache.getShared().clear();
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        ImageCache.getShared().clear();
+    }
+
+    private BufferedImage image()
+    {
+        return new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    @Test
+    public void testSizeOf()
+    {
+        assertEquals(IMAGE_BYTES, ImageCache.sizeOf(image()));
+        assertEquals(300, ImageCache.sizeOf(new BufferedImage(10, 10, BufferedImage.TYPE_3BYTE_BGR)));
+    }
+
+    @Test
+    public void testConcurrentRequestsShareOneDecode() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger decodes = new AtomicInteger();
+        CompletableFuture<BufferedImage> first = cache.get("logo", () ->
+        {
+            decodes.incrementAndGet();
+            try
+            {
+                release.await();
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return image();
+        }, executor);
+        CompletableFuture<BufferedImage> second = cache.get("logo", () ->
+        {
+            decodes.incrementAndGet();
+            return image();
+        }, executor);
+        assertNull("Nothing is present while it is decoded", cache.getIfPresent("logo"));
+
+        release.countDown();
+
+        assertSame(first.get(), second.get());
+        assertEquals(1, decodes.get());
+        assertEquals("The decode and the lookup while it ran", 2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertSame(first.get(), cache.getIfPresent("logo"));
+        assertEquals(IMAGE_BYTES, cache.getByteSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted()
+    {
+        cache.put("a", image());
+        cache.put("b", image());
+        cache.put("c", image());
+        cache.getIfPresent("a");
+
+        cache.put("d", image());
+
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull("b was used least recently", cache.getIfPresent("b"));
+        assertNotNull(cache.getIfPresent("a"));
+        assertNotNull(cache.getIfPresent("d"));
+        assertEquals(3 * IMAGE_BYTES, cache.getByteSize());
+    }
+
+    @Test
+    public void testImageLargerThanTheBudgetIsKept()
+    {
+        cache.put("a", image());
+
+        cache.put("big", new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB));
+
+        assertNotNull("The newest image is never evicted", cache.getIfPresent("big"));
+        assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void testLookupOfAMissingImageIsAMiss()
+    {
+        assertNull(cache.getIfPresent("a"));
+        cache.put("a", image());
+        assertNotNull(cache.getIfPresent("a"));
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testPinnedImagesAreKeptOverTheBudget()
+    {
+        Object slide = new Object();
+        AtomicInteger decodes = new AtomicInteger();
+        List<String> keys = Arrays.asList("a", "b", "c", "d");
+        cache.pin(slide, keys);
+
+        // Repaints of a slide with more images than fit in the budget
+        for (int paint = 0; paint < 3; paint++)
+        {
+            for (String key : keys)
+            {
+                if (cache.getIfPresent(key) == null)
+                {
+                    cache.get(key, () ->
+                    {
+                        decodes.incrementAndGet();
+                        return image();
+                    }, Runnable::run);
+                }
+            }
+        }
+
+        assertEquals("Every image is decoded once", 4, decodes.get());
+        assertEquals(4 * IMAGE_BYTES, cache.getByteSize());
+
+        cache.pin(slide, Collections.emptyList());
+
+        assertEquals("Released images make room", 3, cache.size());
+        assertFalse(cache.isPinned("a"));
+    }
+
+    @Test
+    public void testShrinkingTheBudgetEvicts()
+    {
+        cache.put("a", image());
+        cache.put("b", image());
+
+        cache.setMaxBytes(IMAGE_BYTES);
+
+        assertEquals(1, cache.size());
+        assertNotNull(cache.getIfPresent("b"));
+        assertEquals(IMAGE_BYTES, cache.getByteSize());
+    }
+
+    @Test
+    public void testMissingImageIsNotCached() throws Exception
+    {
+        assertNull(cache.get("missing", () -> null, executor).get());
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getByteSize());
+    }
+
+    @Test
+    public void testClear()
+    {
+        cache.put("a", image());
+        cache.getIfPresent("a");
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getByteSize());
+        assertEquals(0, cache.getHitCount());
+        assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void testItemsWithTheSameImageShareOneCopy() throws IOException
+    {
+        File imageFile = File.createTempFile("shared-image", ".png");
+        imageFile.deleteOnExit();
+        ImageIO.write(new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB), "png", imageFile);
+
+        BufferedImage first = null;
+        for (int i = 0; i < 300; i++)
+        {
+            BitmapItem item = new BitmapItem(1, imageFile.getAbsolutePath());
+            BufferedImage image = item.getImage();
+            if (first == null)
+            {
+                first = image;
+            }
+            assertSame(first, image);
+        }
+
+        assertEquals(1, ImageCache.getShared().size());
+        // The first item looks the image up and then asks for the decode; the others find it
+        assertEquals(2, ImageCache.getShared().getMissCount());
+        assertEquals(299, ImageCache.getShared().getHitCount());
+    }
+}
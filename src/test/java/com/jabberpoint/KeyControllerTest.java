@@ -231,4 +231,31 @@ public class KeyControllerTest
         assertFalse("prevSlide should not be called for unhandled key", presentation.wasPrevSlideCalled());
         assertFalse("exit should not be called for unhandled key", exitCalled);
     }
+
+    /**
+     * Test that held keys are collapsed into one slide change when a coalescer is given
+     */
+    @Test
+    public void testCoalescedKeyRepeats()
+    {
+        Presentation p = new Presentation();
+        for (int i = 0; i < 10; i++)
+        {
+            p.append(new Slide());
+        }
+        p.setSlideNumber(0);
+        java.util.List<Runnable> posted = new java.util.ArrayList<>();
+        KeyController kc = new KeyController(p, new NavigationCoalescer(p, posted::add));
+
+        for (int i = 0; i < 4; i++)
+        {
+            kc.keyPressed(new MockKeyEvent(KeyEvent.VK_PAGE_DOWN, KeyEvent.CHAR_UNDEFINED));
+        }
+        kc.keyPressed(new MockKeyEvent(KeyEvent.VK_PAGE_UP, KeyEvent.CHAR_UNDEFINED));
+
+        assertEquals("The slide changes once the posted change runs", 0, p.getSlideNumber());
+        assertEquals(1, posted.size());
+        posted.get(0).run();
+        assertEquals(3, p.getSlideNumber());
+    }
 } 
\ No newline at end of file
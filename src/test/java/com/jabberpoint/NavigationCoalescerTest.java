@@ -0,0 +1,95 @@
+package com.jabberpoint;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NavigationCoalescerTest
+{
+
+    private Presentation presentation;
+    private List<Runnable> queue;
+    private List<Integer> changes;
+    private NavigationCoalescer navigator;
+
+    @Before
+    public void setUp()
+    {
+        presentation = new Presentation();
+        for (int i = 0; i < 2000; i++)
+        {
+            presentation.append(new Slide());
+        }
+        presentation.setSettleDelay(0);
+        presentation.setSlideNumber(0);
+        changes = new ArrayList<>();
+        presentation.addObserver(new PresentationObserver()
+        {
+            @Override
+            public void onSlideChanged(int slideNumber)
+            {
+                changes.add(slideNumber);
+            }
+
+            @Override
+            public void onPresentationChanged()
+            {
+            }
+        });
+        queue = new ArrayList<>();
+        navigator = new NavigationCoalescer(presentation, queue::add);
+    }
+
+    // run what was posted, as the event thread would after the queued key events
+    private void runQueue()
+    {
+        List<Runnable> posted = new ArrayList<>(queue);
+        queue.clear();
+        posted.forEach(Runnable::run);
+    }
+
+    @Test
+    public void testKeyRepeatsBecomeOneSlideChange()
+    {
+        for (int i = 0; i < 1999; i++)
+        {
+            navigator.step(1);
+        }
+        assertEquals("One slide change is posted", 1, queue.size());
+
+        runQueue();
+
+        assertEquals(1999, presentation.getSlideNumber());
+        assertEquals(List.of(1999), changes);
+        assertEquals(1998, navigator.getCoalescedCount());
+    }
+
+    @Test
+    public void testStepsAreClampedToThePresentation()
+    {
+        navigator.step(-5);
+        runQueue();
+        assertEquals(0, presentation.getSlideNumber());
+        assertTrue("Staying on the first slide is not a change", changes.isEmpty());
+
+        navigator.step(5000);
+        runQueue();
+        assertEquals(1999, presentation.getSlideNumber());
+    }
+
+    @Test
+    public void testStepsAfterAChangeArePostedAgain()
+    {
+        navigator.step(1);
+        navigator.step(1);
+        runQueue();
+        navigator.step(-1);
+        runQueue();
+
+        assertEquals(List.of(2, 1), changes);
+    }
+}
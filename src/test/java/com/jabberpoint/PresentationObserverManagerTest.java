@@ -1,159 +1,467 @@
-package com.jabberpoint;
-
-import org.junit.Before;
-import org.junit.Test;
-
-import static org.junit.Assert.*;
-
-/**
- * Tests for the PresentationObserverManager class
- */
-public class PresentationObserverManagerTest
-{
-
-    private PresentationObserverManager manager;
-    private TestPresentationObserver observer;
-
-    private static class TestPresentationObserver implements PresentationObserver
-    {
-        private boolean slideChangedCalled = false;
-        private boolean presentationChangedCalled = false;
-        private int lastSlideNumber = -1;
-
-        @Override
-        public void onSlideChanged(int slideNumber)
-        {
-            slideChangedCalled = true;
-            lastSlideNumber = slideNumber;
-        }
-
-        @Override
-        public void onPresentationChanged()
-        {
-            presentationChangedCalled = true;
-        }
-
-        public void reset()
-        {
-            slideChangedCalled = false;
-            presentationChangedCalled = false;
-            lastSlideNumber = -1;
-        }
-
-        public boolean wasSlideChangedCalled()
-        {
-            return slideChangedCalled;
-        }
-
-        public boolean wasPresentationChangedCalled()
-        {
-            return presentationChangedCalled;
-        }
-
-        public int getLastSlideNumber()
-        {
-            return lastSlideNumber;
-        }
-    }
-
-    @Before
-    public void setUp()
-    {
-        manager = new PresentationObserverManager();
-        observer = new TestPresentationObserver();
-    }
-
-    @Test
-    public void testAddObserver()
-    {
-        // Add observer
-        manager.addObserver(observer);
-
-        // Notify slide changed
-        manager.notifySlideChanged(5);
-
-        // Verify observer was notified
-        assertTrue("Observer should be notified of slide change", observer.wasSlideChangedCalled());
-        assertEquals("Slide number should be passed correctly", 5, observer.getLastSlideNumber());
-    }
-
-    @Test
-    public void testRemoveObserver()
-    {
-        // Add observer
-        manager.addObserver(observer);
-
-        // Remove observer
-        manager.removeObserver(observer);
-
-        // Notify slide changed
-        manager.notifySlideChanged(5);
-
-        // Verify observer was NOT notified
-        assertFalse("Observer should not be notified after removal", observer.wasSlideChangedCalled());
-    }
-
-    @Test
-    public void testNotifySlideChanged()
-    {
-        // Add observer
-        manager.addObserver(observer);
-
-        // Notify slide changed
-        manager.notifySlideChanged(10);
-
-        // Verify observer was notified
-        assertTrue("Observer should be notified of slide change", observer.wasSlideChangedCalled());
-        assertEquals("Slide number should be passed correctly", 10, observer.getLastSlideNumber());
-
-        // Reset and test with different slide number
-        observer.reset();
-        manager.notifySlideChanged(20);
-        assertEquals("Slide number should be updated", 20, observer.getLastSlideNumber());
-    }
-
-    @Test
-    public void testNotifyPresentationChanged()
-    {
-        // Add observer
-        manager.addObserver(observer);
-
-        // Notify presentation changed
-        manager.notifyPresentationChanged();
-
-        // Verify observer was notified
-        assertTrue("Observer should be notified of presentation change", observer.wasPresentationChangedCalled());
-        assertFalse("Slide changed should not be called", observer.wasSlideChangedCalled());
-    }
-
-    @Test
-    public void testAddNullObserver()
-    {
-        // Add null observer - should not throw exception
-        manager.addObserver(null);
-
-        // Notify changes - should not throw exception
-        manager.notifySlideChanged(1);
-        manager.notifyPresentationChanged();
-    }
-
-    @Test
-    public void testMultipleObservers()
-    {
-        // Create second observer
-        TestPresentationObserver observer2 = new TestPresentationObserver();
-
-        // Add both observers
-        manager.addObserver(observer);
-        manager.addObserver(observer2);
-
-        // Notify slide changed
-        manager.notifySlideChanged(5);
-
-        // Verify both observers were notified
-        assertTrue("First observer should be notified", observer.wasSlideChangedCalled());
-        assertTrue("Second observer should be notified", observer2.wasSlideChangedCalled());
-        assertEquals("First observer should receive correct slide number", 5, observer.getLastSlideNumber());
-        assertEquals("Second observer should receive correct slide number", 5, observer2.getLastSlideNumber());
-    }
+package com.jabberpoint;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+
+/**
+ * Tests for the PresentationObserverManager class
+ */
+public class PresentationObserverManagerTest
+{
+
+    private PresentationObserverManager manager;
+    private TestPresentationObserver observer;
+
+    private static class TestPresentationObserver implements PresentationObserver
+    {
+        private boolean slideChangedCalled = false;
+        private boolean presentationChangedCalled = false;
+        private int lastSlideNumber = -1;
+
+        @Override
+        public void onSlideChanged(int slideNumber)
+        {
+            slideChangedCalled = true;
+            lastSlideNumber = slideNumber;
+        }
+
+        @Override
+        public void onPresentationChanged()
+        {
+            presentationChangedCalled = true;
+        }
+
+        public void reset()
+        {
+            slideChangedCalled = false;
+            presentationChangedCalled = false;
+            lastSlideNumber = -1;
+        }
+
+        public boolean wasSlideChangedCalled()
+        {
+            return slideChangedCalled;
+        }
+
+        public boolean wasPresentationChangedCalled()
+        {
+            return presentationChangedCalled;
+        }
+
+        public int getLastSlideNumber()
+        {
+            return lastSlideNumber;
+        }
+    }
+
+    @Before
+    public void setUp()
+    {
+        manager = new PresentationObserverManager();
+        observer = new TestPresentationObserver();
+    }
+
+    @Test
+    public void testAddObserver()
+    {
+        // Add observer
+        manager.addObserver(observer);
+
+        // Notify slide changed
+        manager.notifySlideChanged(5);
+
+        // Verify observer was notified
+        assertTrue("Observer should be notified of slide change", observer.wasSlideChangedCalled());
+        assertEquals("Slide number should be passed correctly", 5, observer.getLastSlideNumber());
+    }
+
+    @Test
+    public void testRemoveObserver()
+    {
+        // Add observer
+        manager.addObserver(observer);
+
+        // Remove observer
+        manager.removeObserver(observer);
+
+        // Notify slide changed
+        manager.notifySlideChanged(5);
+
+        // Verify observer was NOT notified
+        assertFalse("Observer should not be notified after removal", observer.wasSlideChangedCalled());
+    }
+
+    @Test
+    public void testNotifySlideChanged()
+    {
+        // Add observer
+        manager.addObserver(observer);
+
+        // Notify slide changed
+        manager.notifySlideChanged(10);
+
+        // Verify observer was notified
+        assertTrue("Observer should be notified of slide change", observer.wasSlideChangedCalled());
+        assertEquals("Slide number should be passed correctly", 10, observer.getLastSlideNumber());
+
+        // Reset and test with different slide number
+        observer.reset();
+        manager.notifySlideChanged(20);
+        assertEquals("Slide number should be updated", 20, observer.getLastSlideNumber());
+    }
+
+    @Test
+    public void testNotifyPresentationChanged()
+    {
+        // Add observer
+        manager.addObserver(observer);
+
+        // Notify presentation changed
+        manager.notifyPresentationChanged();
+
+        // Verify observer was notified
+        assertTrue("Observer should be notified of presentation change", observer.wasPresentationChangedCalled());
+        assertFalse("Slide changed should not be called", observer.wasSlideChangedCalled());
+    }
+
+    @Test
+    public void testAddNullObserver()
+    {
+        // Add null observer - should not throw exception
+        manager.addObserver(null);
+
+        // Notify changes - should not throw exception
+        manager.notifySlideChanged(1);
+        manager.notifyPresentationChanged();
+    }
+
+    @Test
+    public void testMultipleObservers()
+    {
+        // Create second observer
+        TestPresentationObserver observer2 = new TestPresentationObserver();
+
+        // Add both observers
+        manager.addObserver(observer);
+        manager.addObserver(observer2);
+
+        // Notify slide changed
+        manager.notifySlideChanged(5);
+
+        // Verify both observers were notified
+        assertTrue("First observer should be notified", observer.wasSlideChangedCalled());
+        assertTrue("Second observer should be notified", observer2.wasSlideChangedCalled());
+        assertEquals("First observer should receive correct slide number", 5, observer.getLastSlideNumber());
+        assertEquals("Second observer should receive correct slide number", 5, observer2.getLastSlideNumber());
+    }
+
+    @Test
+    public void testSettledOnlyObserverIsToldOnceAfterABurst() throws Exception
+    {
+        List<Integer> settled = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        manager.addObserver(observer);
+        manager.addObserver(new PresentationObserver()
+        {
+            @Override
+            public void onPresentationChanged()
+            {
+            }
+
+            @Override
+            public void onSlideSettled(int slideNumber)
+            {
+                settled.add(slideNumber);
+                done.countDown();
+            }
+        });
+        manager.setSettleDelay(50);
+
+        SwingUtilities.invokeAndWait(() ->
+        {
+            for (int slideNumber = 1; slideNumber <= 100; slideNumber++)
+            {
+                manager.notifySlideChanged(slideNumber);
+            }
+        });
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        // Anything still pending on the event thread has run after this
+        SwingUtilities.invokeAndWait(() -> { });
+        assertEquals("Every change is reported to ordinary observers", 100, observer.getLastSlideNumber());
+        assertEquals(Collections.singletonList(100), settled);
+    }
+
+    @Test
+    public void testNoSettleDelay()
+    {
+        List<Integer> settled = new ArrayList<>();
+        manager.addObserver(new PresentationObserver()
+        {
+            @Override
+            public void onPresentationChanged()
+            {
+            }
+
+            @Override
+            public void onSlideSettled(int slideNumber)
+            {
+                settled.add(slideNumber);
+            }
+        });
+        manager.setSettleDelay(0);
+
+        manager.notifySlideChanged(1);
+        manager.notifySlideChanged(2);
+
+        assertEquals(Arrays.asList(1, 2), settled);
+    }
+
+    /**
+     * An observer that records its slide changes and load completions
+     */
+    private static class RecordingObserver implements PresentationObserver
+    {
+        final List<Integer> slides = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> loads = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onSlideChanged(int slideNumber)
+        {
+            slides.add(slideNumber);
+        }
+
+        @Override
+        public void onPresentationChanged()
+        {
+        }
+
+        @Override
+        public void onLoadComplete(int slideCount)
+        {
+            loads.add(slideCount);
+        }
+    }
+
+    // runs the tasks only when asked to
+    private static void runAll(List<Runnable> tasks)
+    {
+        while (!tasks.isEmpty())
+        {
+            tasks.remove(0).run();
+        }
+    }
+
+    @Test
+    public void testObserversMayChangeTheListWhileNotified()
+    {
+        manager.addObserver(new PresentationObserver()
+        {
+            @Override
+            public void onSlideChanged(int slideNumber)
+            {
+                manager.removeObserver(this);
+                manager.addObserver(observer);
+            }
+
+            @Override
+            public void onPresentationChanged()
+            {
+            }
+        });
+        manager.setSettleDelay(0);
+
+        manager.notifySlideChanged(1);
+        assertFalse("An observer added during a notification is told from the next one", observer.wasSlideChangedCalled());
+
+        manager.notifySlideChanged(2);
+        assertEquals(2, observer.getLastSlideNumber());
+    }
+
+    @Test
+    public void testQueuedSlideChangesAreCoalesced()
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        RecordingObserver queued = new RecordingObserver();
+        manager.addObserver(queued, tasks::add);
+        manager.addObserver(observer);
+        manager.setSettleDelay(0);
+
+        for (int slideNumber = 1; slideNumber <= 10; slideNumber++)
+        {
+            manager.notifySlideChanged(slideNumber);
+        }
+        assertEquals("Direct observers are told at once", 10, observer.getLastSlideNumber());
+        assertEquals("One drain is scheduled for the burst", 1, tasks.size());
+        runAll(tasks);
+
+        assertEquals(Collections.singletonList(10), queued.slides);
+        // nine slide changes and nine settles were replaced
+        assertEquals(18, manager.getCoalescedCount());
+    }
+
+    @Test
+    public void testFullQueueDropsTheOldestSlideChange()
+    {
+        PresentationObserverManager small = new PresentationObserverManager(3);
+        List<Runnable> tasks = new ArrayList<>();
+        RecordingObserver queued = new RecordingObserver();
+        small.addObserver(queued, tasks::add);
+        small.setSettleDelay(0);
+
+        small.notifySlideChanged(1);
+        small.notifyLoadComplete(1);
+        small.notifyLoadComplete(2);
+        small.notifyLoadComplete(3);
+        runAll(tasks);
+
+        assertEquals(Collections.emptyList(), queued.slides);
+        assertEquals(Arrays.asList(1, 2, 3), queued.loads);
+        assertEquals(2, small.getDroppedCount());
+    }
+
+    @Test
+    public void testFullQueueKeepsEveryLoadCompletion()
+    {
+        PresentationObserverManager small = new PresentationObserverManager(3);
+        List<Runnable> tasks = new ArrayList<>();
+        RecordingObserver queued = new RecordingObserver();
+        small.addObserver(queued, tasks::add);
+
+        for (int count = 1; count <= 5; count++)
+        {
+            small.notifyLoadComplete(count);
+        }
+        runAll(tasks);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), queued.loads);
+        assertEquals(0, small.getDroppedCount());
+    }
+
+    @Test
+    public void testRemovedObserverGetsNoQueuedNotifications()
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        RecordingObserver queued = new RecordingObserver();
+        manager.addObserver(queued, tasks::add);
+
+        manager.notifyLoadComplete(1);
+        manager.removeObserver(queued);
+        runAll(tasks);
+
+        assertTrue(queued.loads.isEmpty());
+    }
+
+    @Test
+    public void testSlowObserverDoesNotHoldUpTheOthers() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        manager.addObserver(new PresentationObserver()
+        {
+            @Override
+            public void onPresentationChanged()
+            {
+                try
+                {
+                    release.await();
+                } catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        }, PresentationObserverManager.BACKGROUND);
+        manager.addObserver(observer);
+
+        manager.notifyPresentationChanged();
+        assertTrue("The direct observer is told while the slow one is still busy", observer.wasPresentationChangedCalled());
+
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testQueuedObserverFailureIsContained()
+    {
+        Executor direct = Runnable::run;
+        RecordingObserver after = new RecordingObserver();
+        manager.addObserver(new PresentationObserver()
+        {
+            @Override
+            public void onPresentationChanged()
+            {
+                throw new IllegalStateException("broken observer");
+            }
+        }, direct);
+        manager.addObserver(after, direct);
+
+        manager.notifyPresentationChanged();
+        manager.notifyLoadComplete(3);
+
+        assertEquals(Collections.singletonList(3), after.loads);
+    }
+
+    // collect garbage until the referent is gone
+    static void collect(WeakReference<?> probe) throws InterruptedException
+    {
+        for (int attempt = 0; attempt < 50 && probe.get() != null; attempt++)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("The observer should have been collected", probe.get());
+    }
+
+    @Test
+    public void testWeakObserverIsToldWhileReachable()
+    {
+        manager.addWeakObserver(observer);
+        manager.setSettleDelay(0);
+
+        manager.notifySlideChanged(4);
+
+        assertEquals(4, observer.getLastSlideNumber());
+        assertEquals(Collections.singletonList(observer), manager.getObservers());
+    }
+
+    @Test
+    public void testCollectedWeakObserversArePurged() throws Exception
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        RecordingObserver direct = new RecordingObserver();
+        RecordingObserver queued = new RecordingObserver();
+        manager.addWeakObserver(direct);
+        manager.addWeakObserver(queued, tasks::add);
+        manager.addObserver(observer);
+        manager.notifyLoadComplete(1);
+        WeakReference<RecordingObserver> directProbe = new WeakReference<>(direct);
+        WeakReference<RecordingObserver> queuedProbe = new WeakReference<>(queued);
+        direct = null;
+        queued = null;
+
+        // The pending drain does not keep the queued observer alive
+        collect(directProbe);
+        collect(queuedProbe);
+        assertEquals(3, manager.getRegistrationCount());
+        runAll(tasks);
+        manager.notifyPresentationChanged();
+
+        assertEquals(1, manager.getRegistrationCount());
+        assertEquals(2, manager.getPurgedCount());
+        assertEquals(Collections.singletonList(observer), manager.getObservers());
+        assertTrue(observer.wasPresentationChangedCalled());
+    }
 } 
\ No newline at end of file
@@ -134,16 +134,12 @@ public class PresentationTest
             observerManagerField.setAccessible(true);
             PresentationObserverManager manager = (PresentationObserverManager) observerManagerField.get(presentation);
 
-            // Get the observers list from the manager
-            Field observersField = PresentationObserverManager.class.getDeclaredField("observers");
-            observersField.setAccessible(true);
-            List<?> observers = (List<?>) observersField.get(manager);
-
-            assertTrue("Observer should be in the list", observers.contains(mockObserver));
+            // Get the registered observers from the manager
+            assertTrue("Observer should be in the list", manager.getObservers().contains(mockObserver));
 
             // Remove observer
             presentation.removeObserver(mockObserver);
-            assertFalse("Observer should not be in the list after removal", observers.contains(mockObserver));
+            assertFalse("Observer should not be in the list after removal", manager.getObservers().contains(mockObserver));
         } catch (Exception e)
         {
             fail("Failed to access observers field: " + e.getMessage());
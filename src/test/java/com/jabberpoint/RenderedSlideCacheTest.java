@@ -0,0 +1,161 @@
+package com.jabberpoint;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RenderedSlideCacheTest
+{
+
+    private static final int WIDTH = 120;
+    private static final int HEIGHT = 80;
+    // one slide of WIDTH x HEIGHT pixels of 4 bytes
+    private static final long SLIDE_BYTES = WIDTH * HEIGHT * 4;
+
+    private List<Runnable> renders;
+    private RenderedSlideCache cache;
+
+    /**
+     * An item that fills its bounds in red and keeps the observer it was drawn with
+     */
+    private static class ImageLikeItem extends SlideItem
+    {
+        ImageObserver observer;
+        int draws = 0;
+
+        @Override
+        public Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style style)
+        {
+            return new Rectangle(0, 0, 10, 10);
+        }
+
+        @Override
+        public void draw(int x, int y, float scale, Graphics g, Style style, ImageObserver observer)
+        {
+            this.observer = observer;
+            this.draws++;
+            g.setColor(Color.RED);
+            g.fillRect(x, y, 10, 10);
+        }
+    }
+
+    @BeforeClass
+    public static void setUpClass()
+    {
+        Style.createStyles();
+    }
+
+    @Before
+    public void setUp()
+    {
+        renders = new ArrayList<>();
+        cache = new RenderedSlideCache(2 * SLIDE_BYTES, renders::add);
+    }
+
+    private Slide slide(SlideItem item)
+    {
+        Slide slide = new Slide();
+        slide.append(item);
+        return slide;
+    }
+
+    @Test
+    public void testSlideIsDrawnOnce()
+    {
+        ImageLikeItem item = new ImageLikeItem();
+        Slide slide = slide(item);
+
+        BufferedImage rendered = cache.getRendered(0, slide, WIDTH, HEIGHT, null, null);
+
+        assertEquals(WIDTH, rendered.getWidth());
+        assertEquals(HEIGHT, rendered.getHeight());
+        assertEquals(Color.white.getRGB(), rendered.getRGB(WIDTH - 1, HEIGHT - 1));
+        assertSame(rendered, cache.getRendered(0, slide, WIDTH, HEIGHT, null, null));
+        assertEquals(1, item.draws);
+    }
+
+    @Test
+    public void testPrerenderedSlideIsACopy()
+    {
+        ImageLikeItem item = new ImageLikeItem();
+        Slide slide = slide(item);
+
+        cache.prerender(1, slide, WIDTH, HEIGHT, null, null);
+        cache.prerender(1, slide, WIDTH, HEIGHT, null, null);
+        assertEquals("A slide that is being drawn is not drawn twice", 1, renders.size());
+        renders.get(0).run();
+
+        BufferedImage rendered = cache.getRendered(1, slide, WIDTH, HEIGHT, null, null);
+
+        assertNotNull(rendered);
+        assertEquals(1, item.draws);
+    }
+
+    @Test
+    public void testSlideIsDrawnAgainWhenAnImageIsReady()
+    {
+        ImageLikeItem item = new ImageLikeItem();
+        Slide slide = slide(item);
+        AtomicInteger updates = new AtomicInteger();
+        ImageObserver component = (img, infoflags, x, y, width, height) ->
+        {
+            updates.incrementAndGet();
+            return false;
+        };
+        BufferedImage first = cache.getRendered(0, slide, WIDTH, HEIGHT, null, component);
+
+        item.observer.imageUpdate(null, ImageObserver.ALLBITS, 0, 0, 10, 10);
+
+        assertEquals("The component is told to repaint", 1, updates.get());
+        assertNotSame(first, cache.getRendered(0, slide, WIDTH, HEIGHT, null, component));
+        assertEquals(2, item.draws);
+    }
+
+    @Test
+    public void testLeastRecentlyShownSlideIsEvicted()
+    {
+        Slide slide = slide(new ImageLikeItem());
+
+        cache.getRendered(0, slide, WIDTH, HEIGHT, null, null);
+        cache.getRendered(1, slide, WIDTH, HEIGHT, null, null);
+        cache.getRendered(0, slide, WIDTH, HEIGHT, null, null);
+        cache.getRendered(2, slide, WIDTH, HEIGHT, null, null);
+
+        assertEquals(2, cache.size());
+        assertNull(cache.getIfPresent(RenderedSlideCache.key(1, WIDTH, HEIGHT)));
+        assertNotNull(cache.getIfPresent(RenderedSlideCache.key(0, WIDTH, HEIGHT)));
+    }
+
+    @Test
+    public void testSlideInvalidatedWhileDrawnIsNotKept()
+    {
+        ImageLikeItem item = new ImageLikeItem()
+        {
+            @Override
+            public void draw(int x, int y, float scale, Graphics g, Style style, ImageObserver observer)
+            {
+                super.draw(x, y, scale, g, style, observer);
+                // the image becomes ready before the slide is stored
+                observer.imageUpdate(null, ImageObserver.ALLBITS, 0, 0, 10, 10);
+            }
+        };
+        Slide slide = slide(item);
+
+        assertNotNull(cache.getRendered(0, slide, WIDTH, HEIGHT, null, null));
+
+        assertNull(cache.getIfPresent(RenderedSlideCache.key(0, WIDTH, HEIGHT)));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getByteSize());
+    }
+}
@@ -0,0 +1,105 @@
+package com.jabberpoint;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ScaledImageCacheTest
+{
+
+    private ScaledImageCache cache;
+    private BufferedImage image;
+
+    @Before
+    public void setUp()
+    {
+        cache = new ScaledImageCache(1024 * 1024);
+        image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.getGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 200, 100);
+        g.dispose();
+    }
+
+    // Ask for a scaled image and wait until the observer is told it is ready
+    private BufferedImage awaitScaled(int width, int height) throws InterruptedException
+    {
+        CountDownLatch ready = new CountDownLatch(1);
+        ImageObserver observer = (img, infoflags, x, y, w, h) ->
+        {
+            ready.countDown();
+            return false;
+        };
+        assertNull("The first request is built in the background",
+                cache.getScaledImage("image", image, width, height, null, observer));
+        assertTrue(ready.await(10, TimeUnit.SECONDS));
+        return cache.getScaledImage("image", image, width, height, null, observer);
+    }
+
+    @Test
+    public void testScaledImageIsBuiltOnce() throws Exception
+    {
+        BufferedImage scaled = awaitScaled(50, 25);
+
+        assertEquals(50, scaled.getWidth());
+        assertEquals(25, scaled.getHeight());
+        assertEquals(Color.RED.getRGB(), scaled.getRGB(25, 12));
+        assertSame(scaled, cache.getScaledImage("image", image, 50, 25, null, null));
+        // The first request looks the copy up and then asks for it to be built
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testEnlargedImage() throws Exception
+    {
+        BufferedImage scaled = awaitScaled(300, 150);
+
+        assertEquals(300, scaled.getWidth());
+        assertEquals(150, scaled.getHeight());
+    }
+
+    @Test
+    public void testFullSizeIsNotCopied()
+    {
+        assertSame(image, cache.getScaledImage("image", image, 200, 100, null, null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testOnlyTheLatestSizeIsBuilt()
+    {
+        List<Runnable> builds = new ArrayList<>();
+        ScaledImageCache queued = new ScaledImageCache(1024 * 1024, builds::add);
+
+        // Two sizes in quick succession, as during a resize
+        queued.getScaledImage("image", image, 40, 20, null, null);
+        queued.getScaledImage("image", image, 60, 30, null, null);
+        for (Runnable build : builds)
+        {
+            build.run();
+        }
+
+        assertNull("The earlier size was superseded", queued.getIfPresent("image@40x20"));
+        assertNotNull(queued.getIfPresent("image@60x30"));
+    }
+
+    @Test
+    public void testScaleInSteps()
+    {
+        BufferedImage scaled = ScaledImageCache.scale(image, 13, 7, null);
+
+        assertEquals(13, scaled.getWidth());
+        assertEquals(7, scaled.getHeight());
+        assertEquals(Color.RED.getRGB(), scaled.getRGB(6, 3));
+    }
+}
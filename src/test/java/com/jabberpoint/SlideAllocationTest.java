@@ -0,0 +1,173 @@
+package com.jabberpoint;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.font.TextLayout;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the render path of Slide.draw free of allocations once a slide has been drawn.
+ * Java2D itself allocates a little for every line of text it renders, so text slides are
+ * held to what drawing their lines straight through Java2D allocates.
+ * The bytes allocated by the test thread are measured with ThreadMXBean.getThreadAllocatedBytes.
+ */
+public class SlideAllocationTest
+{
+
+    private static final int WARMUP_DRAWS = 2000;
+    private static final int DRAWS = 1000;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    private Graphics2D graphics;
+    private Rectangle area;
+    private ImageObserver observer;
+
+    /**
+     * An item that measures and draws without allocating, so only Slide.draw is measured
+     */
+    private static class FixedItem extends SlideItem
+    {
+        FixedItem(int level)
+        {
+            super(level);
+        }
+
+        @Override
+        public Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style style)
+        {
+            return getBoundingBox(g, observer, scale, style, new Rectangle());
+        }
+
+        @Override
+        public Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style style, Rectangle bounds)
+        {
+            bounds.setBounds(0, 0, 10, 1);
+            return bounds;
+        }
+
+        @Override
+        public void draw(int x, int y, float scale, Graphics g, Style style, ImageObserver observer)
+        {
+        }
+    }
+
+    @BeforeClass
+    public static void setUpClass()
+    {
+        Style.createStyles();
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            threads = (com.sun.management.ThreadMXBean) bean;
+        }
+    }
+
+    @Before
+    public void setUp()
+    {
+        Assume.assumeTrue("The JVM cannot measure allocations",
+                threads != null && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        graphics = new BufferedImage(Slide.WIDTH, Slide.HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+        area = new Rectangle(0, 20, Slide.WIDTH, Slide.HEIGHT);
+        observer = (img, infoflags, x, y, width, height) -> false;
+    }
+
+    // The bytes allocated per draw, after the slide was drawn often enough to be compiled
+    private long bytesPerDraw(Slide slide)
+    {
+        return bytesPerRun(() -> slide.draw(graphics, area, observer));
+    }
+
+    // The bytes allocated per run, after a warm-up
+    private long bytesPerRun(Runnable run)
+    {
+        for (int i = 0; i < WARMUP_DRAWS; i++)
+        {
+            run.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < DRAWS; i++)
+        {
+            run.run();
+        }
+        long after = threads.getThreadAllocatedBytes(thread);
+        return (after - before) / DRAWS;
+    }
+
+    private Slide slideWithItems(int count)
+    {
+        Slide slide = new Slide();
+        for (int i = 0; i < count; i++)
+        {
+            slide.append(new FixedItem(i % 5));
+        }
+        return slide;
+    }
+
+    @Test
+    public void testSlideDrawDoesNotAllocate()
+    {
+        long bytes = bytesPerDraw(slideWithItems(200));
+
+        assertTrue("Slide.draw should not allocate, but allocated " + bytes + " bytes per draw", bytes < 64);
+    }
+
+    @Test
+    public void testAllocationDoesNotGrowWithItems()
+    {
+        long few = bytesPerDraw(slideWithItems(10));
+        long many = bytesPerDraw(slideWithItems(1000));
+
+        // Copying the items for every item would allocate megabytes for 1000 items
+        assertTrue("Drawing 1000 items allocated " + many + " bytes per draw, 10 items " + few,
+                many < few + 64);
+    }
+
+    @Test
+    public void testTextSlideAllocatesOnlyForTheGlyphs()
+    {
+        Slide slide = new Slide();
+        slide.setTitle("A title that is laid out once");
+        List<TextItem> items = new ArrayList<>();
+        items.add(new TextItem(0, slide.getTitle()));
+        for (int i = 0; i < 10; i++)
+        {
+            TextItem item = new TextItem(1 + i % 4, "Item " + i + " with some text that is long enough to wrap over more than one line on the slide");
+            slide.append(item);
+            items.add(item);
+        }
+        // The same lines drawn straight through Java2D, which allocates a little for every glyph run it renders
+        float scale = Slide.getScale(area);
+        List<TextLayout> lines = new ArrayList<>();
+        for (TextItem item : items)
+        {
+            lines.addAll(item.getLayouts(graphics, Style.getStyle(item.getLevel()), scale));
+        }
+        long glyphs = bytesPerRun(() ->
+        {
+            for (int i = 0; i < lines.size(); i++)
+            {
+                lines.get(i).draw(graphics, 0, 40);
+            }
+        });
+
+        long bytes = bytesPerDraw(slide);
+
+        assertTrue("A text slide allocated " + bytes + " bytes per draw, its glyphs " + glyphs,
+                bytes < glyphs + 64);
+    }
+}
@@ -0,0 +1,167 @@
+package com.jabberpoint;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+public class SlideExporterTest
+{
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Presentation presentation;
+
+    @BeforeClass
+    public static void setUpClass()
+    {
+        Style.createStyles();
+    }
+
+    @Before
+    public void setUp()
+    {
+        presentation = new Presentation();
+        for (int i = 0; i < 20; i++)
+        {
+            Slide slide = new Slide();
+            slide.setTitle("Slide " + (i + 1));
+            slide.append(1, "Item on slide " + (i + 1));
+            presentation.append(slide);
+        }
+    }
+
+    @Test
+    public void testEverySlideIsWrittenInOrder() throws IOException
+    {
+        File directory = new File(folder.getRoot(), "out");
+
+        List<File> files = new SlideExporter(300, 200, 4).export(presentation, directory);
+
+        assertEquals(20, files.size());
+        assertEquals("slide-0001.png", files.get(0).getName());
+        assertEquals("slide-0020.png", files.get(19).getName());
+        for (File file : files)
+        {
+            BufferedImage image = ImageIO.read(file);
+            assertEquals(300, image.getWidth());
+            assertEquals(200, image.getHeight());
+            assertEquals(Color.white.getRGB(), image.getRGB(299, 199));
+            assertTrue("The title is drawn", hasInk(image));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize()
+    {
+        new SlideExporter(0, 200, 1);
+    }
+
+    @Test
+    public void testCommandLine() throws IOException
+    {
+        File xml = folder.newFile("deck.xml");
+        try (Writer out = new FileWriter(xml))
+        {
+            out.write("<?xml version=\"1.0\"?><presentation><showtitle>Deck</showtitle>"
+                    + "<slide><title>One</title><item kind=\"text\" level=\"1\">Text</item></slide>"
+                    + "<slide><title>Two</title></slide></presentation>");
+        }
+        File directory = folder.newFolder("export");
+
+        int status = JabberPoint.export(new String[]{"--export", xml.getPath(), directory.getPath(), "240x160", "2"});
+
+        assertEquals(0, status);
+        assertEquals(2, directory.list().length);
+        assertEquals(240, ImageIO.read(new File(directory, "slide-0001.png")).getWidth());
+        assertEquals(2, JabberPoint.export(new String[]{"--export", xml.getPath(), directory.getPath(), "big"}));
+        assertEquals("No threads is a usage error", 2,
+                JabberPoint.export(new String[]{"--export", xml.getPath(), directory.getPath(), "240x160", "0"}));
+        assertEquals(2, JabberPoint.export(new String[]{"--export", xml.getPath(), directory.getPath(), "0x160"}));
+    }
+
+    @Test
+    public void testImagesAreDrawnWhenTheyDoNotFitInTheCacheTogether() throws IOException
+    {
+        File red = image(Color.red);
+        File blue = image(Color.blue);
+        Slide slide = new Slide();
+        slide.append(new BitmapItem(1, red.getAbsolutePath()));
+        slide.append(new BitmapItem(1, blue.getAbsolutePath()));
+        Presentation images = new Presentation();
+        images.append(slide);
+        ImageCache cache = ImageCache.getShared();
+        long maxBytes = cache.getMaxBytes();
+        cache.clear();
+        // Each decode would evict the other image, unless the slide keeps its images while it is drawn
+        cache.setMaxBytes(1);
+        try
+        {
+            File file = new SlideExporter(Slide.WIDTH, Slide.HEIGHT, 1).export(images, folder.newFolder("images")).get(0);
+
+            BufferedImage exported = ImageIO.read(file);
+            assertTrue("The first image is drawn", hasColor(exported, Color.red));
+            assertTrue("The second image is drawn", hasColor(exported, Color.blue));
+            assertFalse("The images are released after the export", cache.isPinned(((BitmapItem) slide.getSlideItem(0)).getImageKey()));
+        } finally
+        {
+            cache.setMaxBytes(maxBytes);
+            cache.clear();
+        }
+    }
+
+    private File image(Color color) throws IOException
+    {
+        BufferedImage image = new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB);
+        java.awt.Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, 40, 40);
+        g.dispose();
+        File file = folder.newFile(color.getRGB() + ".png");
+        ImageIO.write(image, "png", file);
+        return file;
+    }
+
+    private static boolean hasColor(BufferedImage image, Color color)
+    {
+        for (int y = 0; y < image.getHeight(); y++)
+        {
+            for (int x = 0; x < image.getWidth(); x++)
+            {
+                if (image.getRGB(x, y) == color.getRGB())
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasInk(BufferedImage image)
+    {
+        for (int y = 0; y < image.getHeight(); y++)
+        {
+            for (int x = 0; x < image.getWidth(); x++)
+            {
+                if (image.getRGB(x, y) != Color.white.getRGB())
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
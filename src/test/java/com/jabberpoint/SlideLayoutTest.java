@@ -0,0 +1,145 @@
+package com.jabberpoint;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+
+public class SlideLayoutTest
+{
+
+    private Slide slide;
+    private Graphics2D graphics;
+    private Rectangle area;
+    private ImageObserver observer;
+
+    /**
+     * An item of a fixed height that counts how often it is drawn
+     */
+    private static class CountingItem extends SlideItem
+    {
+        final int height;
+        int draws = 0;
+
+        CountingItem(int height)
+        {
+            super(1);
+            this.height = height;
+        }
+
+        @Override
+        public Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style style)
+        {
+            return new Rectangle(0, 0, 100, this.height);
+        }
+
+        @Override
+        public void draw(int x, int y, float scale, Graphics g, Style style, ImageObserver observer)
+        {
+            this.draws++;
+        }
+    }
+
+    @BeforeClass
+    public static void setUpClass()
+    {
+        Style.createStyles();
+    }
+
+    @Before
+    public void setUp()
+    {
+        slide = new Slide();
+        slide.setTitle("Layout");
+        graphics = new BufferedImage(Slide.WIDTH, Slide.HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+        area = new Rectangle(0, 20, Slide.WIDTH, Slide.HEIGHT);
+        observer = (img, infoflags, x, y, width, height) -> false;
+    }
+
+    @Test
+    public void testItemsAreLaidOutBelowEachOther()
+    {
+        slide.append(new CountingItem(100));
+        slide.append(new CountingItem(50));
+
+        SlideLayout layout = slide.getLayout(graphics, area, observer);
+
+        assertEquals(3, layout.getItemCount());
+        assertEquals("Layout", ((TextItem) layout.getItem(0)).getText());
+        Rectangle title = layout.getBounds(0);
+        assertEquals(20, title.y);
+        assertEquals(new Rectangle(0, title.y + title.height, 100, 100), layout.getBounds(1));
+        assertEquals(new Rectangle(0, title.y + title.height + 100, 100, 50), layout.getBounds(2));
+        assertEquals(1.0f, layout.getScale(), 0.0f);
+        assertSame(layout.getStyle(1).getFont(1.0f), layout.getFont(1));
+    }
+
+    @Test
+    public void testLayoutIsReusedAcrossPaints()
+    {
+        slide.append(new CountingItem(100));
+
+        SlideLayout layout = slide.getLayout(graphics, area, observer);
+        slide.draw(graphics, area, observer);
+        slide.draw(graphics, new Rectangle(area), observer);
+
+        assertSame(layout, slide.getLayout(graphics, area, observer));
+    }
+
+    @Test
+    public void testChangedContentIsLaidOutAgain()
+    {
+        SlideLayout layout = slide.getLayout(graphics, area, observer);
+        slide.append(new CountingItem(100));
+        SlideLayout appended = slide.getLayout(graphics, area, observer);
+        slide.setTitle("Another title");
+        SlideLayout retitled = slide.getLayout(graphics, area, observer);
+
+        assertNotSame(layout, appended);
+        assertEquals(2, appended.getItemCount());
+        assertNotSame(appended, retitled);
+        assertEquals("Another title", ((TextItem) retitled.getItem(0)).getText());
+    }
+
+    @Test
+    public void testResizeIsLaidOutAgain()
+    {
+        SlideLayout layout = slide.getLayout(graphics, area, observer);
+        SlideLayout smaller = slide.getLayout(graphics, new Rectangle(0, 20, Slide.WIDTH / 2, Slide.HEIGHT / 2), observer);
+        TextItem.invalidateLayouts();
+        SlideLayout invalidated = slide.getLayout(graphics, new Rectangle(0, 20, Slide.WIDTH / 2, Slide.HEIGHT / 2), observer);
+
+        assertNotSame(layout, smaller);
+        assertEquals(0.5f, smaller.getScale(), 0.0f);
+        assertNotSame(smaller, invalidated);
+    }
+
+    @Test
+    public void testItemsOutsideTheClipAreNotDrawn()
+    {
+        CountingItem first = new CountingItem(100);
+        CountingItem second = new CountingItem(100);
+        slide.append(first);
+        slide.append(second);
+        Rectangle secondBounds = slide.getLayout(graphics, area, observer).getBounds(2);
+
+        graphics.setClip(secondBounds.x, secondBounds.y + 10, 50, 50);
+        slide.draw(graphics, area, observer);
+
+        assertEquals(0, first.draws);
+        assertEquals(1, second.draws);
+
+        graphics.setClip(null);
+        slide.draw(graphics, area, observer);
+
+        assertEquals(1, first.draws);
+        assertEquals(2, second.draws);
+    }
+}
@@ -0,0 +1,105 @@
+package com.jabberpoint;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import javax.swing.SwingUtilities;
+
+/**
+ * Recreates slide viewers on one presentation, as a kiosk does, and checks that the old
+ * viewers and their drawn slides do not pile up
+ */
+public class SlideViewerComponentSoakTest
+{
+    private static final int VIEWS = 3000;
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 300;
+
+    @BeforeClass
+    public static void setUpClass()
+    {
+        Style.createStyles();
+    }
+
+    // a viewer that has drawn the current slide, so it holds a drawn slide of WIDTH x HEIGHT
+    private static SlideViewerComponent showView(Presentation presentation, BufferedImage screen)
+    {
+        SlideViewerComponent component = new SlideViewerComponent(presentation);
+        component.setSize(WIDTH, HEIGHT);
+        component.onPresentationChanged();
+        Graphics2D g = screen.createGraphics();
+        try
+        {
+            component.paintComponent(g);
+        } finally
+        {
+            g.dispose();
+        }
+        return component;
+    }
+
+    private static long usedHeapAfterGc() throws Exception
+    {
+        // Let the event thread deliver what is queued for the viewers first
+        SwingUtilities.invokeAndWait(() -> { });
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @Test
+    public void testHeapStaysFlatWhileViewsAreRecreated() throws Exception
+    {
+        // The settle delay stays, so old viewers do not queue slides to draw in advance
+        Presentation presentation = new Presentation();
+        for (int number = 0; number < 5; number++)
+        {
+            Slide slide = new Slide();
+            slide.setTitle("Slide " + number);
+            slide.append(1, "A line of text on slide " + number);
+            slide.append(2, "And another one");
+            presentation.append(slide);
+        }
+        presentation.setSlideNumber(0);
+        BufferedImage screen = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Field managerField = Presentation.class.getDeclaredField("observerManager");
+        managerField.setAccessible(true);
+        PresentationObserverManager manager = (PresentationObserverManager) managerField.get(presentation);
+
+        WeakReference<SlideViewerComponent> first = new WeakReference<>(showView(presentation, screen));
+        for (int view = 1; view < VIEWS / 10; view++)
+        {
+            showView(presentation, screen);
+            presentation.setSlideNumber(view % presentation.getSize());
+        }
+        long baseline = usedHeapAfterGc();
+
+        for (int view = VIEWS / 10; view < VIEWS; view++)
+        {
+            showView(presentation, screen);
+            presentation.setSlideNumber(view % presentation.getSize());
+        }
+        long after = usedHeapAfterGc();
+        presentation.setSlideNumber(0);
+
+        assertNull("The first viewer is collected", first.get());
+        // Every viewer held a drawn slide of WIDTH * HEIGHT * 4 bytes, so a leak would grow by gigabytes
+        long growth = after - baseline;
+        assertTrue("Heap grew by " + growth + " bytes", growth < 32L * 1024 * 1024);
+        assertTrue("Registrations of old viewers are purged: " + manager.getRegistrationCount(),
+                manager.getRegistrationCount() < VIEWS / 10);
+        assertTrue(manager.getPurgedCount() > VIEWS / 2);
+    }
+}
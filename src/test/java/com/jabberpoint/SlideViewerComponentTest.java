@@ -105,11 +105,8 @@ public class SlideViewerComponentTest
         PresentationObserverManager manager =
                 (PresentationObserverManager) observerManagerField.get(presentation);
 
-        // Access the observers list using reflection
-        Field observersField = PresentationObserverManager.class.getDeclaredField("observers");
-        observersField.setAccessible(true);
-        java.util.List<PresentationObserver> observers =
-                (java.util.List<PresentationObserver>) observersField.get(manager);
+        // The observers that are registered and still alive
+        java.util.List<PresentationObserver> observers = manager.getObservers();
 
         // Verify the component registered itself as an observer
         boolean found = false;
@@ -226,4 +223,65 @@ public class SlideViewerComponentTest
             return false;
         }
     }
-} 
\ No newline at end of file
+
+    // paint a viewer of 600 x 400 pixels
+    private static int[] paint(SlideViewerComponent viewer)
+    {
+        BufferedImage image = new BufferedImage(600, 400, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        viewer.paintComponent(g);
+        g.dispose();
+        return image.getRGB(0, 0, 600, 400, null, 0, 600);
+    }
+
+    @Test
+    public void testPaintBeforeTheQueuedSlideChangeCachesNoWrongSlide() throws Exception
+    {
+        Style.createStyles();
+        for (int number = 1; number <= 2; number++)
+        {
+            Slide slide = new Slide();
+            slide.setTitle("Slide " + number);
+            slide.append(1, number == 1 ? "First" : "Second, with a longer line of text");
+            presentation.append(slide);
+        }
+        presentation.setSettleDelay(0);
+        presentation.setSlideNumber(0);
+        component.setSize(600, 400);
+        int[][] painted = new int[1][];
+
+        javax.swing.SwingUtilities.invokeAndWait(() ->
+        {
+            presentation.setSlideNumber(1);
+            // A repaint that was already queued runs before the viewer is told about the change
+            paint(component);
+        });
+        javax.swing.SwingUtilities.invokeAndWait(() -> painted[0] = paint(component));
+
+        SlideViewerComponent fresh = new SlideViewerComponent(presentation);
+        fresh.setSize(600, 400);
+        fresh.onPresentationChanged();
+        assertArrayEquals("The viewer shows the second slide", paint(fresh), painted[0]);
+    }
+
+    @Test
+    public void testShownSlidePinsItsImages() throws Exception
+    {
+        java.io.File imageFile = java.io.File.createTempFile("pinned-image", ".png");
+        imageFile.deleteOnExit();
+        javax.imageio.ImageIO.write(new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB), "png", imageFile);
+        BitmapItem image = new BitmapItem(1, imageFile.getAbsolutePath());
+        Slide withImage = new Slide();
+        withImage.append(image);
+        presentation.append(withImage);
+        presentation.append(new Slide());
+
+        component.onSlideChanged(0);
+
+        assertTrue(ImageCache.getShared().isPinned(image.getImageKey()));
+
+        component.onSlideChanged(1);
+
+        assertFalse("The images of the previous slide are released", ImageCache.getShared().isPinned(image.getImageKey()));
+    }
+}
@@ -87,4 +87,62 @@ public class StyleTest
         assertEquals("Leading should match", leading, style.leading);
         assertEquals("Font size should match", points, style.fontSize);
     }
+
+    @Test
+    public void testGetFontIsCachedPerScale()
+    {
+        Style style = new Style(0, Color.black, 40, 10);
+
+        Font font = style.getFont(0.5f);
+
+        assertEquals(20.0f, font.getSize2D(), 0.0f);
+        assertSame("The same scale should give the same font", font, style.getFont(0.5f));
+        assertSame("Scales within a quarter point share a font", font, style.getFont(0.5001f));
+        assertNotSame(font, style.getFont(0.75f));
+        assertEquals(30.0f, style.getFont(0.75f).getSize2D(), 0.0f);
+    }
+
+    @Test
+    public void testResizeCreatesFewFonts()
+    {
+        Style style = new Style(0, Color.black, 40, 10);
+        java.util.Set<Font> fonts = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+
+        // Every pixel of a resize from 600 to 700 pixels wide
+        for (int width = 600; width <= 700; width++)
+        {
+            fonts.add(style.getFont(width / (float) Slide.WIDTH));
+        }
+
+        // 40 points times a scale range of 1/12 is 3.3 points, or 14 quarter points
+        assertTrue("Only one font per quarter point, got " + fonts.size(), fonts.size() <= 15);
+    }
+
+    @Test
+    public void testDerivedFontsAreBounded()
+    {
+        Style style = new Style(0, Color.black, 40, 10);
+
+        // Every pixel of a resize from 200 to 1600 pixels wide
+        for (int width = 200; width <= 1600; width++)
+        {
+            style.getFont(width / (float) Slide.WIDTH);
+            assertTrue(style.getDerivedFontCount() <= Style.MAX_DERIVED_FONTS);
+        }
+
+        Font last = style.getFont(1600 / (float) Slide.WIDTH);
+        assertSame("The size in use is still cached", last, style.getFont(1600 / (float) Slide.WIDTH));
+    }
+
+    @Test
+    public void testWarmFonts()
+    {
+        Style.createStyles();
+
+        Style.warmFonts(0.8f);
+
+        Font warmed = Style.getStyle(1).getFont(0.8f);
+        assertEquals(32.0f, warmed.getSize2D(), 0.0f);
+        assertSame(warmed, Style.getStyle(1).getFont(0.8f));
+    }
 } 
\ No newline at end of file
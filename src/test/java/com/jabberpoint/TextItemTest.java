@@ -405,4 +405,54 @@ public class TextItemTest
             fail("Could not access EMPTYTEXT constant: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testLayoutsAreReused()
+    {
+        List<TextLayout> first = textItem.getLayouts(mockGraphics, style, 1.0f);
+
+        assertSame("The same style, scale and context should not lay out the text again",
+                first, textItem.getLayouts(mockGraphics, style, 1.0f));
+        textItem.getBoundingBox(mockGraphics, mockObserver, 1.0f, style);
+        assertSame("The bounding box should reuse the layouts", first, textItem.getLayouts(mockGraphics, style, 1.0f));
+    }
+
+    @Test
+    public void testLayoutsFollowScaleStyleAndContext()
+    {
+        List<TextLayout> first = textItem.getLayouts(mockGraphics, style, 1.0f);
+
+        assertNotSame(first, textItem.getLayouts(mockGraphics, style, 0.5f));
+        assertNotSame(first, textItem.getLayouts(mockGraphics, Style.getStyle(2), 0.5f));
+
+        Graphics2D antialiased = (Graphics2D) new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB).getGraphics();
+        antialiased.setRenderingHint(java.awt.RenderingHints.KEY_TEXT_ANTIALIASING,
+                java.awt.RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        List<TextLayout> other = textItem.getLayouts(antialiased, Style.getStyle(2), 0.5f);
+        assertNotSame("A different FontRenderContext needs new layouts",
+                textItem.getLayouts(mockGraphics, Style.getStyle(2), 0.5f), other);
+    }
+
+    @Test
+    public void testInvalidateLayouts()
+    {
+        List<TextLayout> first = textItem.getLayouts(mockGraphics, style, 1.0f);
+        Rectangle box = textItem.getBoundingBox(mockGraphics, mockObserver, 1.0f, style);
+
+        TextItem.invalidateLayouts();
+
+        assertNotSame(first, textItem.getLayouts(mockGraphics, style, 1.0f));
+        assertEquals("Laying out again gives the same box", box, textItem.getBoundingBox(mockGraphics, mockObserver, 1.0f, style));
+    }
+
+    @Test
+    public void testBoundingBoxCannotChangeTheCache()
+    {
+        Rectangle box = textItem.getBoundingBox(mockGraphics, mockObserver, 1.0f, style);
+        int height = box.height;
+
+        box.height = -1;
+
+        assertEquals(height, textItem.getBoundingBox(mockGraphics, mockObserver, 1.0f, style).height);
+    }
+}
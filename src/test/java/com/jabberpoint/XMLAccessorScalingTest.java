@@ -0,0 +1,135 @@
+package com.jabberpoint;
+
+import com.jabberpoint.io.DOMXMLParsingStrategy;
+import com.jabberpoint.io.StrategicXMLPresentationReader;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the single DOM walk in XMLAccessor and StrategicXMLPresentationReader
+ * on deep documents, with items nested under wrapper elements. How the load time grows
+ * with the size of the document is measured by ScalingBenchmark.
+ */
+public class XMLAccessorScalingTest
+{
+
+    private static final int LARGE = 4000;
+    private static final int DEPTH = 40;
+
+    private File writeAccessorDeck(int slides, int depth) throws IOException
+    {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<presentation>\n");
+        for (int i = 0; i < slides; i++)
+        {
+            xml.append("<slide>");
+            appendOpen(xml, depth);
+            xml.append("<title>Slide ").append(i).append("</title>");
+            xml.append("<item kind=\"text\" level=\"1\">Text ").append(i).append("</item>");
+            appendClose(xml, depth);
+            xml.append("</slide>\n");
+        }
+        // Placed at the end, so a lookup that starts at the top has to search the whole document
+        xml.append("<showtitle>Scaling</showtitle>\n</presentation>");
+        return writeTempFile(xml.toString());
+    }
+
+    private File writeStrategicDeck(int slides, int depth) throws IOException
+    {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<presentation>\n<title>Scaling</title>\n");
+        for (int i = 0; i < slides; i++)
+        {
+            xml.append("<slide>");
+            xml.append("<text level=\"1\">Text ").append(i).append("</text>");
+            appendOpen(xml, depth);
+            xml.append("<title>Slide ").append(i).append("</title>");
+            appendClose(xml, depth);
+            xml.append("</slide>\n");
+        }
+        xml.append("</presentation>");
+        return writeTempFile(xml.toString());
+    }
+
+    private void appendOpen(StringBuilder xml, int depth)
+    {
+        for (int d = 0; d < depth; d++)
+        {
+            xml.append("<group>");
+        }
+    }
+
+    private void appendClose(StringBuilder xml, int depth)
+    {
+        for (int d = 0; d < depth; d++)
+        {
+            xml.append("</group>");
+        }
+    }
+
+    private File writeTempFile(String content) throws IOException
+    {
+        File file = File.createTempFile("scaling-presentation", ".xml");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file))
+        {
+            writer.write(content);
+        }
+        return file;
+    }
+
+    private Presentation loadWithAccessor(File file) throws IOException
+    {
+        Presentation presentation = new Presentation();
+        new XMLAccessor(new DOMXMLParsingStrategy()).loadFile(presentation, file.getAbsolutePath());
+        return presentation;
+    }
+
+    private Presentation loadWithStrategicReader(File file) throws Exception
+    {
+        Presentation presentation = new Presentation();
+        new StrategicXMLPresentationReader(new DOMXMLParsingStrategy()).loadPresentation(presentation, file.getAbsolutePath());
+        return presentation;
+    }
+
+    @Test
+    public void testAccessorFindsNestedElements() throws Exception
+    {
+        Presentation presentation = loadWithAccessor(writeAccessorDeck(3, DEPTH));
+
+        assertEquals("Scaling", presentation.getTitle());
+        assertEquals("Slide 2", presentation.getSlide(2).getTitle());
+        assertEquals("Text 2", ((TextItem) presentation.getSlide(2).getSlideItem(0)).getText());
+    }
+
+    @Test
+    public void testStrategicReaderFindsNestedTitles() throws Exception
+    {
+        Presentation presentation = loadWithStrategicReader(writeStrategicDeck(3, DEPTH));
+
+        assertEquals("Scaling", presentation.getTitle());
+        assertEquals("Slide 2", presentation.getSlide(2).getTitle());
+        assertEquals(1, presentation.getSlide(2).getSize());
+    }
+
+    @Test
+    public void testAccessorLoadsLargeDeepDocuments() throws Exception
+    {
+        Presentation presentation = loadWithAccessor(writeAccessorDeck(LARGE, DEPTH));
+
+        assertEquals(LARGE, presentation.getSize());
+        assertEquals("Slide " + (LARGE - 1), presentation.getSlide(LARGE - 1).getTitle());
+    }
+
+    @Test
+    public void testStrategicReaderLoadsLargeDeepDocuments() throws Exception
+    {
+        Presentation presentation = loadWithStrategicReader(writeStrategicDeck(LARGE, DEPTH));
+
+        assertEquals(LARGE, presentation.getSize());
+        assertEquals("Slide " + (LARGE - 1), presentation.getSlide(LARGE - 1).getTitle());
+    }
+}
@@ -14,6 +14,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 
 import com.jabberpoint.io.DOMXMLParsingStrategy;
+import com.jabberpoint.io.StAXXMLParsingStrategy;
 import com.jabberpoint.io.XMLParsingStrategy;
 import com.jabberpoint.io.XMLParsingStrategyFactory;
 
@@ -219,6 +220,38 @@ public class XMLAccessorTest
         }
     }
 
+    @Test
+    public void testMalformedXmlFileLeavesThePresentationWhenStreaming() throws IOException
+    {
+        presentation.setTitle("Kept");
+        Slide kept = new Slide();
+        presentation.append(kept);
+        // A complete slide before the broken one, so the streaming parser has reported a slide when it fails
+        try (PrintWriter out = new PrintWriter(new FileWriter(MALFORMED_XML_PATH)))
+        {
+            out.println("<?xml version=\"1.0\"?>");
+            out.println("<presentation>");
+            out.println("<showtitle>Malformed XML Test</showtitle>");
+            out.println("<slide><title>Complete Slide</title></slide>");
+            out.println("<slide>");
+            out.println("<title>Incomplete Slide</title>");
+            out.println("<item kind=\"text\" level=\"1\">Test Item");
+        }
+
+        try
+        {
+            new XMLAccessor(new StAXXMLParsingStrategy()).loadFile(presentation, MALFORMED_XML_PATH);
+            fail("Should throw IOException for malformed XML");
+        } catch (IOException e)
+        {
+            // Expected behavior
+        }
+
+        assertEquals("Kept", presentation.getTitle());
+        assertEquals(1, presentation.getSize());
+        assertSame(kept, presentation.getSlide(0));
+    }
+
     @Test
     public void testMissingAttributesInXmlItems() throws IOException
     {
@@ -0,0 +1,253 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.BitmapItem;
+import com.jabberpoint.Presentation;
+import com.jabberpoint.Slide;
+import com.jabberpoint.SlideItem;
+import com.jabberpoint.Style;
+import com.jabberpoint.TextItem;
+import com.jabberpoint.XMLAccessor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.ImageObserver;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the binary presentation format (BinaryPresentationReader, BinaryPresentationWriter
+ * and BinaryPresentationConverter)
+ */
+public class BinaryPresentationReaderTest
+{
+
+    private File binaryFile;
+    private Presentation presentation;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        binaryFile = File.createTempFile("binary-presentation", ".jpb");
+        binaryFile.deleteOnExit();
+
+        presentation = new Presentation();
+        presentation.setTitle("Binary Presentation");
+        Slide slide = new Slide();
+        slide.setTitle("First Slide");
+        slide.append(1, "Unicode text: ä ö ü €");
+        slide.append(-2, "Negative level");
+        slide.append(new BitmapItem(3, "JabberPoint.gif"));
+        presentation.append(slide);
+
+        slide = new Slide();
+        slide.setTitle(null);
+        slide.append(new TextItem(200, null));
+        presentation.append(slide);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        new BinaryPresentationWriter().savePresentation(presentation, binaryFile.getAbsolutePath());
+
+        Presentation loaded = new Presentation();
+        new BinaryPresentationReader().loadPresentation(loaded, binaryFile.getAbsolutePath());
+
+        assertEquals("Binary Presentation", loaded.getTitle());
+        assertEquals(2, loaded.getSize());
+
+        Slide first = loaded.getSlide(0);
+        assertEquals("First Slide", first.getTitle());
+        assertEquals(3, first.getSize());
+        assertEquals("Unicode text: ä ö ü €", ((TextItem) first.getSlideItem(0)).getText());
+        assertEquals(-2, first.getSlideItem(1).getLevel());
+        assertTrue(first.getSlideItem(2) instanceof BitmapItem);
+        assertEquals("JabberPoint.gif", ((BitmapItem) first.getSlideItem(2)).getName());
+        assertEquals(3, first.getSlideItem(2).getLevel());
+
+        Slide second = loaded.getSlide(1);
+        assertNull("A null title should stay null", second.getTitle());
+        assertEquals(200, second.getSlideItem(0).getLevel());
+        assertEquals("", ((TextItem) second.getSlideItem(0)).getText());
+    }
+
+    @Test
+    public void testStringsAreStoredOnce() throws Exception
+    {
+        Presentation repeated = new Presentation();
+        for (int i = 0; i < 1000; i++)
+        {
+            Slide slide = new Slide();
+            slide.setTitle("The same title on every slide");
+            slide.append(1, "The same text on every slide, which is quite a bit longer than the title");
+            repeated.append(slide);
+        }
+        new BinaryPresentationWriter().savePresentation(repeated, binaryFile.getAbsolutePath());
+
+        // Per slide: one length byte in the table, two title/count bytes and three item bytes
+        assertTrue("Repeated strings should not be stored per slide, size was " + binaryFile.length(),
+                binaryFile.length() < 1000 * 8 + 200);
+    }
+
+    @Test
+    public void testUnsupportedItemsAreIgnored() throws Exception
+    {
+        Slide slide = new Slide();
+        slide.append(new SlideItem(1)
+        {
+            @Override
+            public Rectangle getBoundingBox(Graphics g, ImageObserver observer, float scale, Style style)
+            {
+                return new Rectangle();
+            }
+
+            @Override
+            public void draw(int x, int y, float scale, Graphics g, Style style, ImageObserver observer)
+            {
+            }
+        });
+        slide.append(1, "Kept");
+        Presentation custom = new Presentation();
+        custom.append(slide);
+
+        new BinaryPresentationWriter().savePresentation(custom, binaryFile.getAbsolutePath());
+        Presentation loaded = new Presentation();
+        new BinaryPresentationReader().loadPresentation(loaded, binaryFile.getAbsolutePath());
+
+        assertEquals(1, loaded.getSlide(0).getSize());
+    }
+
+    @Test(expected = IOException.class)
+    public void testWrongMagic() throws Exception
+    {
+        try (FileWriter writer = new FileWriter(binaryFile))
+        {
+            writer.write("<?xml version=\"1.0\"?><presentation/>");
+        }
+        new BinaryPresentationReader().loadPresentation(new Presentation(), binaryFile.getAbsolutePath());
+    }
+
+    @Test
+    public void testUnsupportedVersion() throws Exception
+    {
+        try (FileOutputStream out = new FileOutputStream(binaryFile))
+        {
+            out.write(new byte[]{'J', 'P', 'B', 0x1A, 99});
+        }
+        try
+        {
+            new BinaryPresentationReader().loadPresentation(new Presentation(), binaryFile.getAbsolutePath());
+            fail("Version 99 should not be accepted");
+        } catch (IOException e)
+        {
+            assertTrue(e.getMessage().contains("version"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedFile() throws Exception
+    {
+        new BinaryPresentationWriter().savePresentation(presentation, binaryFile.getAbsolutePath());
+        byte[] bytes = java.nio.file.Files.readAllBytes(binaryFile.toPath());
+        try (FileOutputStream out = new FileOutputStream(binaryFile))
+        {
+            out.write(bytes, 0, bytes.length - 3);
+        }
+        new BinaryPresentationReader().loadPresentation(new Presentation(), binaryFile.getAbsolutePath());
+    }
+
+    @Test
+    public void testCorruptCountsAreIOExceptions() throws Exception
+    {
+        byte[] header = new byte[BinaryPresentationFormat.MAGIC.length + 1];
+        System.arraycopy(BinaryPresentationFormat.MAGIC, 0, header, 0, BinaryPresentationFormat.MAGIC.length);
+        header[header.length - 1] = (byte) BinaryPresentationFormat.VERSION;
+        // a five byte varint that reads as a negative count, a count far larger than the file,
+        // and one string followed by a negative reference to it as the title
+        byte[][] corruptions = {
+                {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F},
+                {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F},
+                {1, 1, 'a', (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}};
+        for (byte[] corruption : corruptions)
+        {
+            try (FileOutputStream out = new FileOutputStream(binaryFile))
+            {
+                out.write(header);
+                out.write(corruption);
+            }
+            try
+            {
+                new BinaryPresentationReader().loadPresentation(new Presentation(), binaryFile.getAbsolutePath());
+                fail("A corrupt file should not load");
+            } catch (IOException expected)
+            {
+                assertTrue(expected.getMessage(), expected.getMessage().contains("binary presentation"));
+            }
+        }
+    }
+
+    @Test
+    public void testSavingOverAFileLeavesNoTemporaryFile() throws Exception
+    {
+        new BinaryPresentationWriter().savePresentation(new Presentation(), binaryFile.getAbsolutePath());
+
+        new BinaryPresentationWriter().savePresentation(presentation, binaryFile.getAbsolutePath());
+
+        Presentation loaded = new Presentation();
+        new BinaryPresentationReader().loadPresentation(loaded, binaryFile.getAbsolutePath());
+        assertEquals(2, loaded.getSize());
+        assertEquals(1, binaryFile.getParentFile().list((dir, name) -> name.startsWith(binaryFile.getName())).length);
+    }
+
+    @Test(expected = java.io.FileNotFoundException.class)
+    public void testNonExistentFile() throws Exception
+    {
+        new BinaryPresentationReader().loadPresentation(new Presentation(), "non-existent-file.jpb");
+    }
+
+    @Test
+    public void testConvertFromXml() throws Exception
+    {
+        File xmlFile = File.createTempFile("convert-presentation", ".xml");
+        xmlFile.deleteOnExit();
+        try (FileWriter writer = new FileWriter(xmlFile))
+        {
+            writer.write("<?xml version=\"1.0\"?>\n<presentation>\n<showtitle>Converted</showtitle>\n" +
+                    "<slide><title>One</title><item kind=\"text\" level=\"1\">Text &amp; more</item>" +
+                    "<item kind=\"image\" level=\"2\">JabberPoint.gif</item></slide>\n</presentation>");
+        }
+
+        BinaryPresentationConverter.convert(xmlFile.getAbsolutePath(), binaryFile.getAbsolutePath());
+
+        Presentation fromXml = new Presentation();
+        new XMLAccessor().loadFile(fromXml, xmlFile.getAbsolutePath());
+        Presentation fromBinary = new Presentation();
+        new BinaryPresentationReader().loadPresentation(fromBinary, binaryFile.getAbsolutePath());
+
+        assertEquals(fromXml.getTitle(), fromBinary.getTitle());
+        assertEquals(fromXml.getSize(), fromBinary.getSize());
+        List<String> xmlItems = new ArrayList<>();
+        List<String> binaryItems = new ArrayList<>();
+        for (int i = 0; i < fromXml.getSlide(0).getSize(); i++)
+        {
+            xmlItems.add(fromXml.getSlide(0).getSlideItem(i).toString());
+            binaryItems.add(fromBinary.getSlide(0).getSlideItem(i).toString());
+        }
+        assertEquals(xmlItems, binaryItems);
+    }
+
+    @Test
+    public void testBinaryFileName()
+    {
+        assertEquals("deck.jpb", BinaryPresentationConverter.binaryFileName("deck.xml"));
+        assertEquals("dir.v2/deck.jpb", BinaryPresentationConverter.binaryFileName("dir.v2/deck"));
+    }
+}
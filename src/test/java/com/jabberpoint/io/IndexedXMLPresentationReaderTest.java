@@ -0,0 +1,168 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.Presentation;
+import com.jabberpoint.Slide;
+import com.jabberpoint.TextItem;
+import com.jabberpoint.XMLAccessor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the IndexedXMLPresentationReader and LazySlideList classes
+ */
+public class IndexedXMLPresentationReaderTest
+{
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File testFile;
+    private Presentation presentation;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        testFile = File.createTempFile("indexed-presentation", ".xml");
+        testFile.deleteOnExit();
+
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<presentation>\n<showtitle>Lazy Deck</showtitle>\n");
+        for (int i = 0; i < 50; i++)
+        {
+            xml.append("<slide><title>Slide ").append(i).append("</title>")
+                    .append("<item kind=\"text\" level=\"1\">Text ").append(i).append("</item></slide>\n");
+        }
+        xml.append("<slide><title>Broken</title><item kind=\"text\" level=\"1\">x</slide>\n");
+        xml.append("</presentation>");
+        try (FileWriter writer = new FileWriter(testFile))
+        {
+            writer.write(xml.toString());
+        }
+
+        presentation = new Presentation();
+    }
+
+    @Test
+    public void testSizeComesFromIndexWithoutParsing() throws Exception
+    {
+        new IndexedXMLPresentationReader().loadPresentation(presentation, testFile.getAbsolutePath());
+
+        assertEquals("Lazy Deck", presentation.getTitle());
+        assertEquals(51, presentation.getSize());
+        LazySlideList slides = (LazySlideList) presentation.getSlides();
+        assertTrue("At most the current slide should have been parsed", slides.getMaterializedCount() <= 1);
+    }
+
+    @Test
+    public void testSlidesAreParsedOnDemand() throws Exception
+    {
+        new IndexedXMLPresentationReader().loadPresentation(presentation, testFile.getAbsolutePath());
+        LazySlideList slides = (LazySlideList) presentation.getSlides();
+        int before = slides.getMaterializedCount();
+
+        Slide slide = presentation.getSlide(42);
+        assertEquals("Slide 42", slide.getTitle());
+        assertEquals("Text 42", ((TextItem) slide.getSlideItem(0)).getText());
+        assertEquals(before + 1, slides.getMaterializedCount());
+
+        assertSame("A parsed slide should be kept", slide, presentation.getSlide(42));
+        assertEquals(before + 1, slides.getMaterializedCount());
+    }
+
+    @Test
+    public void testNavigationMaterializesCurrentSlide() throws Exception
+    {
+        new IndexedXMLPresentationReader().loadPresentation(presentation, testFile.getAbsolutePath());
+
+        presentation.setSlideNumber(10);
+        assertEquals("Slide 10", presentation.getCurrentSlide().getTitle());
+    }
+
+    @Test
+    public void testBrokenSlideIsEmpty() throws Exception
+    {
+        new IndexedXMLPresentationReader().loadPresentation(presentation, testFile.getAbsolutePath());
+
+        Slide broken = presentation.getSlide(50);
+        assertNotNull("A malformed slide should still give a slide", broken);
+        assertEquals(0, broken.getSize());
+    }
+
+    @Test
+    public void testAppendAfterIndexedSlides() throws Exception
+    {
+        new IndexedXMLPresentationReader().loadPresentation(presentation, testFile.getAbsolutePath());
+
+        Slide extra = new Slide();
+        extra.setTitle("Extra");
+        presentation.append(extra);
+
+        assertEquals(52, presentation.getSize());
+        assertSame(extra, presentation.getSlide(51));
+    }
+
+    @Test(expected = java.io.FileNotFoundException.class)
+    public void testNonExistentFile() throws Exception
+    {
+        new IndexedXMLPresentationReader().loadPresentation(presentation, "non-existent-file.xml");
+    }
+
+    @Test
+    public void testSavingOverTheLazilyLoadedFileKeepsTheDeck() throws Exception
+    {
+        File deck = folder.newFile("dump.xml");
+        new SyntheticDeckGenerator(3).setSlides(2000).setImages(0).write(deck);
+        Presentation original = new Presentation();
+        new StAXXMLParsingStrategy().parse(deck, new PresentationHandler()
+        {
+            @Override
+            public void onTitle(String title)
+            {
+                original.setTitle(title);
+            }
+
+            @Override
+            public void onSlide(Slide slide)
+            {
+                original.append(slide);
+            }
+        });
+        new IndexedXMLPresentationReader().loadPresentation(presentation, deck.getAbsolutePath());
+
+        new XMLAccessor().saveFile(presentation, deck.getAbsolutePath());
+
+        Presentation saved = new Presentation();
+        new IndexedXMLPresentationReader().loadPresentation(saved, deck.getAbsolutePath());
+        assertEquals(2000, saved.getSize());
+        for (int number = 0; number < 2000; number += 97)
+        {
+            Slide expected = original.getSlide(number);
+            Slide actual = saved.getSlide(number);
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getSize(), actual.getSize());
+            assertEquals(((TextItem) expected.getSlideItem(0)).getText(), ((TextItem) actual.getSlideItem(0)).getText());
+        }
+        assertEquals("Only the saved file is left", 2, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testReplacingTheSlidesReleasesTheMapping() throws Exception
+    {
+        SlideIndex index = SlideIndex.build(testFile);
+        LazySlideList slides = new LazySlideList(index);
+        presentation.setSlides(slides);
+        assertFalse(index.getSource().isClosed());
+
+        presentation.setSlides(new ArrayList<>());
+
+        assertTrue(index.getSource().isClosed());
+    }
+}
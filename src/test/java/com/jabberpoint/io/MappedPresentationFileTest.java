@@ -0,0 +1,134 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.Presentation;
+import com.jabberpoint.XMLAccessor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the MappedPresentationFile class
+ */
+public class MappedPresentationFileTest
+{
+
+    private static final String TEST_XML_CONTENT =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                    "<presentation>\n" +
+                    "  <showtitle>Mapped ü</showtitle>\n" +
+                    "  <slide>\n" +
+                    "    <title>Only Slide</title>\n" +
+                    "    <item kind=\"text\" level=\"1\">Straight from the page cache</item>\n" +
+                    "  </slide>\n" +
+                    "</presentation>";
+
+    private File testFile;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        testFile = File.createTempFile("mapped-presentation", ".xml");
+        testFile.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(testFile))
+        {
+            out.write(TEST_XML_CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String readAll(InputStream in) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7]; // small on purpose, to read in several steps
+        int read;
+        while ((read = in.read(buffer)) > 0)
+        {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testWholeFileStream() throws IOException
+    {
+        MappedPresentationFile mapped = MappedPresentationFile.map(testFile);
+
+        assertEquals(testFile.length(), mapped.size());
+        assertEquals(TEST_XML_CONTENT, readAll(mapped.openStream()));
+    }
+
+    @Test
+    public void testRangeStream() throws IOException
+    {
+        MappedPresentationFile mapped = MappedPresentationFile.map(testFile);
+        byte[] bytes = TEST_XML_CONTENT.getBytes(StandardCharsets.UTF_8);
+        int offset = TEST_XML_CONTENT.substring(0, TEST_XML_CONTENT.indexOf("<slide>")).getBytes(StandardCharsets.UTF_8).length;
+
+        InputStream in = mapped.openStream(offset, 7);
+        assertEquals(7, in.available());
+        assertEquals('<', in.read());
+        assertEquals(2, in.skip(2));
+        assertEquals("ide>", readAll(in));
+        assertEquals(-1, in.read());
+        assertEquals(bytes.length, mapped.openStream().available());
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException
+    {
+        File empty = File.createTempFile("mapped-empty", ".xml");
+        empty.deleteOnExit();
+
+        MappedPresentationFile mapped = MappedPresentationFile.map(empty);
+        assertEquals(0, mapped.size());
+        assertEquals(-1, mapped.openStream().read());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRangeOutsideFile() throws IOException
+    {
+        MappedPresentationFile.map(testFile).openStream(10, testFile.length());
+    }
+
+    @Test
+    public void testStreamingStrategiesReadMappedFile() throws Exception
+    {
+        Presentation sax = new Presentation();
+        Presentation stax = new Presentation();
+
+        new XMLAccessor(new SAXXMLParsingStrategy()).loadFile(sax, testFile.getAbsolutePath());
+        new XMLAccessor(new StAXXMLParsingStrategy()).loadFile(stax, testFile.getAbsolutePath());
+
+        assertEquals("Mapped ü", sax.getTitle());
+        assertEquals("Mapped ü", stax.getTitle());
+        assertEquals(1, sax.getSize());
+        assertEquals(1, stax.getSize());
+    }
+
+    @Test
+    public void testCloseKeepsOpenStreamsReadable() throws IOException
+    {
+        MappedPresentationFile mapped = MappedPresentationFile.map(testFile);
+        InputStream open = mapped.openStream();
+
+        mapped.close();
+
+        assertTrue(mapped.isClosed());
+        assertEquals('<', open.read());
+        try
+        {
+            mapped.openStream();
+            fail("A closed mapping opens no streams");
+        } catch (IllegalStateException expected)
+        {
+            // expected
+        }
+    }
+}
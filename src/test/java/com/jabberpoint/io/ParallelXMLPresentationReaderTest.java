@@ -0,0 +1,137 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.Presentation;
+import com.jabberpoint.TextItem;
+import com.jabberpoint.XMLAccessor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the ParallelXMLPresentationReader class
+ */
+public class ParallelXMLPresentationReaderTest
+{
+
+    private static final int SLIDES = 3000;
+
+    private ForkJoinPool pool;
+    private Presentation presentation;
+
+    @Before
+    public void setUp()
+    {
+        pool = new ForkJoinPool(4);
+        presentation = new Presentation();
+    }
+
+    @After
+    public void tearDown()
+    {
+        pool.shutdownNow();
+    }
+
+    private File writeTempFile(String content) throws IOException
+    {
+        File file = File.createTempFile("parallel-presentation", ".xml");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file))
+        {
+            writer.write(content);
+        }
+        return file;
+    }
+
+    private File writeLargeDeck() throws IOException
+    {
+        // Large enough to be split over several chunks
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<presentation>\n<showtitle>Parallel</showtitle>\n");
+        for (int i = 0; i < SLIDES; i++)
+        {
+            xml.append("<slide>\n<title>Slide ").append(i).append("</title>\n");
+            for (int j = 0; j < 3; j++)
+            {
+                xml.append("<item kind=\"text\" level=\"").append(j + 1).append("\">Item ").append(j)
+                        .append(" of slide ").append(i).append(" with some padding text</item>\n");
+            }
+            xml.append("</slide>\n");
+        }
+        xml.append("</presentation>");
+        return writeTempFile(xml.toString());
+    }
+
+    @Test
+    public void testSlidesKeepDocumentOrder() throws Exception
+    {
+        File file = writeLargeDeck();
+        assertTrue("Test deck should need several chunks", file.length() > 2 * ParallelXMLPresentationReader.CHUNK_BYTES);
+
+        new ParallelXMLPresentationReader(pool).loadPresentation(presentation, file.getAbsolutePath());
+
+        assertEquals("Parallel", presentation.getTitle());
+        assertEquals(SLIDES, presentation.getSize());
+        for (int i = 0; i < SLIDES; i++)
+        {
+            assertEquals("Slide " + i, presentation.getSlide(i).getTitle());
+            assertEquals(3, presentation.getSlide(i).getSize());
+        }
+        assertEquals("Item 2 of slide 1234 with some padding text",
+                ((TextItem) presentation.getSlide(1234).getSlideItem(2)).getText());
+    }
+
+    @Test
+    public void testMatchesSequentialLoader() throws Exception
+    {
+        File file = writeLargeDeck();
+        Presentation sequential = new Presentation();
+        new XMLAccessor().loadFile(sequential, file.getAbsolutePath());
+
+        new ParallelXMLPresentationReader(pool).loadPresentation(presentation, file.getAbsolutePath());
+
+        assertEquals(sequential.getSize(), presentation.getSize());
+        for (int i = 0; i < sequential.getSize(); i += 97)
+        {
+            assertEquals(sequential.getSlide(i).getTitle(), presentation.getSlide(i).getTitle());
+            assertEquals(sequential.getSlide(i).getSlideItem(1).toString(), presentation.getSlide(i).getSlideItem(1).toString());
+        }
+    }
+
+    @Test
+    public void testEmptyPresentation() throws Exception
+    {
+        File file = writeTempFile("<presentation><showtitle>Empty</showtitle></presentation>");
+
+        new ParallelXMLPresentationReader().loadPresentation(presentation, file.getAbsolutePath());
+
+        assertEquals("Empty", presentation.getTitle());
+        assertEquals(0, presentation.getSize());
+    }
+
+    @Test
+    public void testMalformedSlideFailsTheLoad() throws Exception
+    {
+        File file = writeTempFile("<presentation><slide><title>ok</title></slide>" +
+                "<slide><item kind=\"text\" level=\"1\">unclosed</slide></presentation>");
+        try
+        {
+            new ParallelXMLPresentationReader(pool).loadPresentation(presentation, file.getAbsolutePath());
+            fail("A malformed slide should fail the load");
+        } catch (IOException e)
+        {
+            assertEquals("The presentation should not be changed", 0, presentation.getSize());
+        }
+    }
+
+    @Test(expected = java.io.FileNotFoundException.class)
+    public void testNonExistentFile() throws Exception
+    {
+        new ParallelXMLPresentationReader(pool).loadPresentation(presentation, "non-existent-file.xml");
+    }
+}
@@ -0,0 +1,173 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.BitmapItem;
+import com.jabberpoint.Presentation;
+import com.jabberpoint.Slide;
+import com.jabberpoint.TextItem;
+import com.jabberpoint.XMLAccessor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the streaming SAX path (PresentationContentHandler and SAXXMLParsingStrategy.parse)
+ */
+public class PresentationContentHandlerTest
+{
+
+    private static final String ACCESSOR_XML_CONTENT =
+            "<?xml version=\"1.0\"?>\n" +
+                    "<!DOCTYPE presentation SYSTEM \"jabberpoint.dtd\">\n" +
+                    "<presentation>\n" +
+                    "  <showtitle>Accessor Presentation</showtitle>\n" +
+                    "  <slide>\n" +
+                    "    <title>First Slide</title>\n" +
+                    "    <item kind=\"text\" level=\"1\">Hello &amp; welcome</item>\n" +
+                    "    <item kind=\"image\" level=\"2\">JabberPoint.gif</item>\n" +
+                    "  </slide>\n" +
+                    "  <slide>\n" +
+                    "    <title>Second Slide</title>\n" +
+                    "    <item kind=\"text\" level=\"abc\">Bad level</item>\n" +
+                    "    <item kind=\"unknown\" level=\"1\">Unknown kind</item>\n" +
+                    "    <item level=\"1\">Missing kind</item>\n" +
+                    "  </slide>\n" +
+                    "</presentation>";
+
+    private static final String STRATEGIC_XML_CONTENT =
+            "<?xml version=\"1.0\"?>\n" +
+                    "<presentation>\n" +
+                    "  <title>Strategic Presentation</title>\n" +
+                    "  <slide>\n" +
+                    "    <title>Only Slide</title>\n" +
+                    "    <image level=\"1\" name=\"test-image.jpg\"/>\n" +
+                    "    <text level=\"3\">Some text</text>\n" +
+                    "  </slide>\n" +
+                    "</presentation>";
+
+    private SAXXMLParsingStrategy strategy;
+    private List<Slide> slides;
+    private List<String> titles;
+    private PresentationHandler handler;
+
+    @Before
+    public void setUp()
+    {
+        strategy = new SAXXMLParsingStrategy();
+        slides = new ArrayList<>();
+        titles = new ArrayList<>();
+        handler = new PresentationHandler()
+        {
+            @Override
+            public void onTitle(String title)
+            {
+                titles.add(title);
+            }
+
+            @Override
+            public void onSlide(Slide slide)
+            {
+                slides.add(slide);
+            }
+        };
+    }
+
+    private File writeTempFile(String content) throws IOException
+    {
+        File file = File.createTempFile("sax-presentation", ".xml");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file))
+        {
+            writer.write(content);
+        }
+        return file;
+    }
+
+    @Test
+    public void testStreamsAccessorVocabulary() throws Exception
+    {
+        strategy.parse(writeTempFile(ACCESSOR_XML_CONTENT), handler);
+
+        assertEquals("Presentation title should be reported once", 1, titles.size());
+        assertEquals("Accessor Presentation", titles.get(0));
+        assertEquals("Should report 2 slides", 2, slides.size());
+
+        Slide first = slides.get(0);
+        assertEquals("First Slide", first.getTitle());
+        assertEquals("First slide should have 2 items", 2, first.getSize());
+        assertEquals("Entities should be decoded", "Hello & welcome", ((TextItem) first.getSlideItem(0)).getText());
+        assertTrue("Second item should be a BitmapItem", first.getSlideItem(1) instanceof BitmapItem);
+        assertEquals(2, first.getSlideItem(1).getLevel());
+
+        Slide second = slides.get(1);
+        assertEquals("Second Slide", second.getTitle());
+        assertEquals("Only the item with a bad level should survive", 1, second.getSize());
+        assertEquals("Bad level should fall back to 1", 1, second.getSlideItem(0).getLevel());
+    }
+
+    @Test
+    public void testStreamsStrategicVocabulary() throws Exception
+    {
+        strategy.parse(writeTempFile(STRATEGIC_XML_CONTENT), handler);
+
+        assertEquals("Strategic Presentation", titles.get(0));
+        assertEquals(1, slides.size());
+        Slide slide = slides.get(0);
+        assertEquals("Only Slide", slide.getTitle());
+        assertEquals(2, slide.getSize());
+        assertEquals("test-image.jpg", ((BitmapItem) slide.getSlideItem(0)).getName());
+        assertEquals("Some text", ((TextItem) slide.getSlideItem(1)).getText());
+        assertEquals(3, slide.getSlideItem(1).getLevel());
+    }
+
+    @Test
+    public void testXMLAccessorUsesStreamingPath() throws Exception
+    {
+        Presentation presentation = new Presentation();
+        XMLAccessor accessor = new XMLAccessor(new SAXXMLParsingStrategy());
+
+        accessor.loadFile(presentation, writeTempFile(ACCESSOR_XML_CONTENT).getAbsolutePath());
+
+        assertEquals("Accessor Presentation", presentation.getTitle());
+        assertEquals(2, presentation.getSize());
+        assertEquals("First Slide", presentation.getSlide(0).getTitle());
+        assertEquals(2, presentation.getSlide(0).getSize());
+    }
+
+    @Test
+    public void testStreamingMatchesDOMForAccessor() throws Exception
+    {
+        File file = writeTempFile(ACCESSOR_XML_CONTENT);
+        Presentation domPresentation = new Presentation();
+        Presentation saxPresentation = new Presentation();
+
+        new XMLAccessor(new DOMXMLParsingStrategy()).loadFile(domPresentation, file.getAbsolutePath());
+        new XMLAccessor(new SAXXMLParsingStrategy()).loadFile(saxPresentation, file.getAbsolutePath());
+
+        assertEquals(domPresentation.getTitle(), saxPresentation.getTitle());
+        assertEquals(domPresentation.getSize(), saxPresentation.getSize());
+        for (int i = 0; i < domPresentation.getSize(); i++)
+        {
+            Slide domSlide = domPresentation.getSlide(i);
+            Slide saxSlide = saxPresentation.getSlide(i);
+            assertEquals(domSlide.getTitle(), saxSlide.getTitle());
+            assertEquals(domSlide.getSize(), saxSlide.getSize());
+            for (int j = 0; j < domSlide.getSize(); j++)
+            {
+                assertEquals(domSlide.getSlideItem(j).toString(), saxSlide.getSlideItem(j).toString());
+            }
+        }
+    }
+
+    @Test(expected = org.xml.sax.SAXException.class)
+    public void testMalformedXml() throws Exception
+    {
+        strategy.parse(writeTempFile("<presentation><slide></presentation>"), handler);
+    }
+}
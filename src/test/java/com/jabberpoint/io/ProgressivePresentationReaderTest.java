@@ -0,0 +1,271 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.Presentation;
+import com.jabberpoint.PresentationObserver;
+import com.jabberpoint.Slide;
+import com.jabberpoint.error.ErrorHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the ProgressivePresentationReader class
+ * The changes to the presentation are queued and run on the test thread, like the Swing
+ * event thread would run them.
+ */
+public class ProgressivePresentationReaderTest
+{
+
+    private static final int SLIDES = 500;
+
+    private BlockingQueue<Runnable> deliveries;
+    private Presentation presentation;
+    private RecordingObserver observer;
+    private List<Throwable> errors;
+    private ProgressivePresentationReader reader;
+
+    private class RecordingObserver implements PresentationObserver
+    {
+        List<Integer> progress = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        int completedWith = -1;
+        int slideNumberAtFirstProgress = -2;
+
+        @Override
+        public void onSlideChanged(int slideNumber)
+        {
+        }
+
+        @Override
+        public void onPresentationChanged()
+        {
+        }
+
+        @Override
+        public void onLoadProgress(int loadedSlides, int expectedSlides)
+        {
+            if (this.progress.isEmpty())
+            {
+                this.slideNumberAtFirstProgress = presentation.getSlideNumber();
+            }
+            this.progress.add(loadedSlides);
+            this.expected.add(expectedSlides);
+        }
+
+        @Override
+        public void onLoadComplete(int slideCount)
+        {
+            this.completedWith = slideCount;
+        }
+    }
+
+    @Before
+    public void setUp()
+    {
+        deliveries = new LinkedBlockingQueue<>();
+        presentation = new Presentation();
+        observer = new RecordingObserver();
+        presentation.addObserver(observer);
+        errors = new ArrayList<>();
+        reader = new ProgressivePresentationReader(new StAXXMLParsingStrategy(), deliveries::add, new ErrorHandler()
+        {
+            @Override
+            public void logError(String message)
+            {
+            }
+
+            @Override
+            public void logError(String message, Throwable e)
+            {
+            }
+
+            @Override
+            public void handleError(String message, Throwable e)
+            {
+                errors.add(e);
+            }
+        });
+    }
+
+    private File writeTempFile(String content) throws IOException
+    {
+        File file = File.createTempFile("progressive-presentation", ".xml");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file))
+        {
+            writer.write(content);
+        }
+        return file;
+    }
+
+    private File writeDeck(int slides) throws IOException
+    {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<presentation>\n<showtitle>Progressive</showtitle>\n");
+        for (int i = 0; i < slides; i++)
+        {
+            xml.append("<slide><title>Slide ").append(i).append("</title>")
+                    .append("<item kind=\"text\" level=\"1\">Some text on slide ").append(i).append("</item></slide>\n");
+        }
+        xml.append("</presentation>");
+        return writeTempFile(xml.toString());
+    }
+
+    // Start a load and run the change that starts it
+    private void load(String fileName) throws Exception
+    {
+        reader.loadPresentation(presentation, fileName);
+        Runnable start = deliveries.poll(10, TimeUnit.SECONDS);
+        assertNotNull("The load is started through the delivery executor", start);
+        start.run();
+    }
+
+    // Run the queued changes until the load is no longer running
+    private void runDeliveries() throws InterruptedException
+    {
+        while (presentation.isLoading())
+        {
+            Runnable delivery = deliveries.poll(10, TimeUnit.SECONDS);
+            assertNotNull("The load should keep making progress", delivery);
+            delivery.run();
+        }
+    }
+
+    @Test
+    public void testLoadsAllSlidesInOrder() throws Exception
+    {
+        load(writeDeck(SLIDES).getAbsolutePath());
+        assertTrue(presentation.isLoading());
+
+        runDeliveries();
+
+        assertEquals("Progressive", presentation.getTitle());
+        assertEquals(SLIDES, presentation.getSize());
+        for (int i = 0; i < SLIDES; i++)
+        {
+            assertEquals("Slide " + i, presentation.getSlide(i).getTitle());
+        }
+        assertEquals(SLIDES, observer.completedWith);
+        assertEquals(SLIDES, presentation.getExpectedSize());
+    }
+
+    @Test
+    public void testFirstSlideIsShownOnItsOwn() throws Exception
+    {
+        load(writeDeck(SLIDES).getAbsolutePath());
+        assertEquals(-1, presentation.getSlideNumber());
+
+        runDeliveries();
+
+        assertEquals("The first slide should be delivered on its own", Integer.valueOf(1), observer.progress.get(0));
+        assertEquals("The first slide should be shown when it arrives", 0, observer.slideNumberAtFirstProgress);
+        assertTrue("The rest should arrive in batches", observer.progress.size() < SLIDES / 2);
+        for (int i = 0; i < observer.progress.size(); i++)
+        {
+            assertTrue("The estimate never drops below the loaded slides",
+                    observer.expected.get(i) >= observer.progress.get(i));
+        }
+    }
+
+    @Test
+    public void testNavigationKeepsPositionWhileLoading() throws Exception
+    {
+        load(writeDeck(SLIDES).getAbsolutePath());
+        while (presentation.getSize() < 2)
+        {
+            deliveries.poll(10, TimeUnit.SECONDS).run();
+        }
+        presentation.nextSlide();
+        int position = presentation.getSlideNumber();
+
+        runDeliveries();
+
+        assertEquals("Later batches should not move the current slide", position, presentation.getSlideNumber());
+    }
+
+    @Test
+    public void testSupersededLoadIsIgnored() throws Exception
+    {
+        load(writeDeck(SLIDES).getAbsolutePath());
+        deliveries.poll(10, TimeUnit.SECONDS).run();
+
+        List<Slide> replacement = new ArrayList<>();
+        replacement.add(new Slide());
+        presentation.setSlides(replacement);
+        assertFalse(presentation.isLoading());
+
+        // Whatever the loader queued before it noticed must not change the presentation
+        Runnable delivery;
+        while ((delivery = deliveries.poll(500, TimeUnit.MILLISECONDS)) != null)
+        {
+            delivery.run();
+        }
+        assertEquals(1, presentation.getSize());
+        assertEquals(-1, observer.completedWith);
+    }
+
+    @Test
+    public void testParseErrorIsReported() throws Exception
+    {
+        load(writeTempFile("<presentation><slide><title>ok</title></slide><slide>").getAbsolutePath());
+
+        runDeliveries();
+
+        assertEquals(1, errors.size());
+        assertEquals("Slides before the error are kept", 1, presentation.getSize());
+    }
+
+    @Test
+    public void testEmptyPresentation() throws Exception
+    {
+        load(writeTempFile("<presentation><showtitle>Empty</showtitle></presentation>").getAbsolutePath());
+
+        runDeliveries();
+
+        assertEquals("Empty", presentation.getTitle());
+        assertEquals(0, presentation.getSize());
+        assertEquals(0, observer.completedWith);
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void testLoadIsStartedOnTheDeliveryThread() throws Exception
+    {
+        presentation.setTitle("Shown");
+        presentation.append(new Slide());
+
+        reader.loadPresentation(presentation, writeDeck(SLIDES).getAbsolutePath());
+
+        assertFalse("Nothing changes before the delivery executor runs", presentation.isLoading());
+        assertEquals("Shown", presentation.getTitle());
+        assertEquals(1, presentation.getSize());
+
+        deliveries.poll(10, TimeUnit.SECONDS).run();
+        runDeliveries();
+
+        assertEquals(SLIDES, presentation.getSize());
+    }
+
+    @Test(expected = java.io.FileNotFoundException.class)
+    public void testNonExistentFile() throws Exception
+    {
+        reader.loadPresentation(presentation, "non-existent-file.xml");
+    }
+
+    @Test
+    public void testEstimate()
+    {
+        assertEquals(100, ProgressivePresentationReader.estimate(10, 1000, 10000));
+        assertEquals("Never below the loaded slides", 10, ProgressivePresentationReader.estimate(10, 10000, 10000));
+        assertEquals(3, ProgressivePresentationReader.estimate(3, 0, 10000));
+    }
+}
@@ -0,0 +1,95 @@
+package com.jabberpoint.io;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the SlideIndex class
+ */
+public class SlideIndexTest
+{
+
+    private static final String TEST_XML_CONTENT =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                    "<!DOCTYPE presentation SYSTEM \"jabberpoint.dtd\" [ <!ENTITY x \"<slide>\"> ]>\n" +
+                    "<presentation>\n" +
+                    "  <showtitle>Indexed</showtitle>\n" +
+                    "  <!-- <slide>commented out</slide> -->\n" +
+                    "  <slide>\n" +
+                    "    <title>First é</title>\n" +
+                    "    <item kind=\"text\" level=\"1\"><![CDATA[</slide> is not an end tag]]></item>\n" +
+                    "  </slide>\n" +
+                    "  <slides-note attr=\"<slide>\"/>\n" +
+                    "  <slide number=\"2\" note='a > b'>\n" +
+                    "    <title>Second</title>\n" +
+                    "  </slide >\n" +
+                    "  <slide/>\n" +
+                    "</presentation>";
+
+    private File writeTempFile(String content) throws IOException
+    {
+        File file = File.createTempFile("slide-index", ".xml");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file))
+        {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private String slideText(File file, SlideIndex index, int number) throws IOException
+    {
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        return new String(bytes, (int) index.getOffset(number), index.getLength(number), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testIndexesTopLevelSlidesOnly() throws IOException
+    {
+        File file = writeTempFile(TEST_XML_CONTENT);
+        SlideIndex index = SlideIndex.build(file);
+
+        assertEquals("Comments, CDATA, DOCTYPE and attributes should not produce slides", 3, index.size());
+        assertTrue(slideText(file, index, 0).startsWith("<slide>"));
+        assertTrue(slideText(file, index, 0).endsWith("</slide>"));
+        assertTrue(slideText(file, index, 0).contains("First é"));
+        assertTrue(slideText(file, index, 1).startsWith("<slide number=\"2\""));
+        assertTrue(slideText(file, index, 1).endsWith("</slide >"));
+        assertEquals("<slide/>", slideText(file, index, 2));
+    }
+
+    @Test
+    public void testDeclarationIsKept() throws IOException
+    {
+        SlideIndex index = SlideIndex.build(writeTempFile(TEST_XML_CONTENT));
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                new String(index.getDeclaration(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testNoSlides() throws IOException
+    {
+        SlideIndex index = SlideIndex.build(writeTempFile("<presentation><showtitle>x</showtitle></presentation>"));
+        assertEquals(0, index.size());
+        assertEquals("No declaration should give an empty array", 0, index.getDeclaration().length);
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnterminatedSlide() throws IOException
+    {
+        SlideIndex.build(writeTempFile("<presentation><slide><title>x</title></presentation>"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOffsetOutOfRange() throws IOException
+    {
+        SlideIndex.build(writeTempFile(TEST_XML_CONTENT)).getOffset(3);
+    }
+}
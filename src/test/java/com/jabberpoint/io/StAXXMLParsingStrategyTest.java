@@ -0,0 +1,165 @@
+package com.jabberpoint.io;
+
+import com.jabberpoint.BitmapItem;
+import com.jabberpoint.Presentation;
+import com.jabberpoint.Slide;
+import com.jabberpoint.TextItem;
+import com.jabberpoint.XMLAccessor;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the StAXXMLParsingStrategy class
+ */
+public class StAXXMLParsingStrategyTest
+{
+
+    private static final String TEST_XML_CONTENT =
+            "<?xml version=\"1.0\"?>\n" +
+                    "<!DOCTYPE presentation SYSTEM \"jabberpoint.dtd\">\n" +
+                    "<presentation>\n" +
+                    "  <showtitle>StAX Presentation</showtitle>\n" +
+                    "  <slide>\n" +
+                    "    <title>Slide 1</title>\n" +
+                    "    <item kind=\"text\" level=\"1\">One &lt;1&gt;</item>\n" +
+                    "  </slide>\n" +
+                    "  <slide>\n" +
+                    "    <title>Slide 2</title>\n" +
+                    "    <item kind=\"text\" level=\"2\">Two</item>\n" +
+                    "    <item kind=\"image\" level=\"1\">JabberPoint.gif</item>\n" +
+                    "  </slide>\n" +
+                    "  <slide>\n" +
+                    "    <title>Slide 3</title>\n" +
+                    "    <text level=\"3\">Three</text>\n" +
+                    "    <image level=\"1\" name=\"test-image.jpg\"/>\n" +
+                    "  </slide>\n" +
+                    "</presentation>";
+
+    private File testFile;
+    private StAXXMLParsingStrategy strategy;
+    private List<Slide> slides;
+    private List<String> titles;
+    private PresentationHandler handler;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        testFile = File.createTempFile("stax-presentation", ".xml");
+        testFile.deleteOnExit();
+        try (FileWriter writer = new FileWriter(testFile))
+        {
+            writer.write(TEST_XML_CONTENT);
+        }
+
+        strategy = new StAXXMLParsingStrategy();
+        slides = new ArrayList<>();
+        titles = new ArrayList<>();
+        handler = new PresentationHandler()
+        {
+            @Override
+            public void onTitle(String title)
+            {
+                titles.add(title);
+            }
+
+            @Override
+            public void onSlide(Slide slide)
+            {
+                slides.add(slide);
+            }
+        };
+    }
+
+    @Test
+    public void testParseAllSlides() throws Exception
+    {
+        strategy.parse(testFile, handler);
+
+        assertEquals("StAX Presentation", titles.get(0));
+        assertEquals(3, slides.size());
+        assertEquals("Slide 1", slides.get(0).getTitle());
+        assertEquals("One <1>", ((TextItem) slides.get(0).getSlideItem(0)).getText());
+        assertEquals(2, slides.get(1).getSize());
+        assertTrue(slides.get(1).getSlideItem(1) instanceof BitmapItem);
+        assertEquals("Three", ((TextItem) slides.get(2).getSlideItem(0)).getText());
+        assertEquals("test-image.jpg", ((BitmapItem) slides.get(2).getSlideItem(1)).getName());
+    }
+
+    @Test
+    public void testSkipAndStopEarly() throws Exception
+    {
+        strategy.parse(testFile, handler, 1, 1);
+
+        assertEquals("Only one slide should be reported", 1, slides.size());
+        assertEquals("The first slide should be skipped", "Slide 2", slides.get(0).getTitle());
+    }
+
+    @Test
+    public void testSkipPastEnd() throws Exception
+    {
+        strategy.parse(testFile, handler, 10, Integer.MAX_VALUE);
+
+        assertTrue("No slides should be reported", slides.isEmpty());
+        assertEquals("Title should still be reported", 1, titles.size());
+    }
+
+    @Test
+    public void testStrategicReaderWithStAX() throws Exception
+    {
+        Presentation presentation = new Presentation();
+        StrategicXMLPresentationReader reader = new StrategicXMLPresentationReader(
+                XMLParsingStrategyFactory.StrategyType.STAX);
+
+        reader.loadPresentation(presentation, testFile.getAbsolutePath());
+
+        assertEquals("StAX Presentation", presentation.getTitle());
+        assertEquals(3, presentation.getSize());
+    }
+
+    @Test
+    public void testXMLAccessorWithStAX() throws Exception
+    {
+        Presentation presentation = new Presentation();
+        new XMLAccessor(new StAXXMLParsingStrategy()).loadFile(presentation, testFile.getAbsolutePath());
+
+        assertEquals("StAX Presentation", presentation.getTitle());
+        assertEquals(3, presentation.getSize());
+        assertEquals("Slide 2", presentation.getSlide(1).getTitle());
+    }
+
+    @Test
+    public void testParseFileStillReturnsDocument() throws Exception
+    {
+        Document document = strategy.parseFile(testFile);
+        assertEquals("presentation", strategy.getRootElement(document).getTagName());
+        assertNotNull(strategy.createDocument());
+    }
+
+    @Test
+    public void testFactoryReturnsStAXStrategy()
+    {
+        XMLParsingStrategy stax = XMLParsingStrategyFactory.getStrategy(XMLParsingStrategyFactory.StrategyType.STAX);
+        assertTrue("Should be StAX strategy", stax instanceof StAXXMLParsingStrategy);
+    }
+
+    @Test(expected = javax.xml.stream.XMLStreamException.class)
+    public void testMalformedXml() throws Exception
+    {
+        File malformed = File.createTempFile("stax-malformed", ".xml");
+        malformed.deleteOnExit();
+        try (FileWriter writer = new FileWriter(malformed))
+        {
+            writer.write("<presentation><slide><title>x</slide></presentation>");
+        }
+        strategy.parse(malformed, handler);
+    }
+}
@@ -194,4 +194,66 @@ public class StrategicXMLPresentationReaderTest
         // Title should be the default
         assertEquals("Title should be default", "Unnamed Presentation", presentation.getTitle());
     }
+
+    @Test
+    public void testAllStrategiesBuildTheSameSlidesFromBothVocabularies() throws Exception
+    {
+        try (FileWriter writer = new FileWriter(testFile))
+        {
+            writer.write("<?xml version=\"1.0\"?>\n"
+                    + "<presentation>\n"
+                    + "  <showtitle>Mixed</showtitle>\n"
+                    + "  <slide>\n"
+                    + "    <title>Accessor items</title>\n"
+                    + "    <item kind=\"text\" level=\"1\">One</item>\n"
+                    + "    <item kind=\"image\" level=\"2\">logo.gif</item>\n"
+                    + "    <item kind=\"text\" level=\"x\">Default level</item>\n"
+                    + "  </slide>\n"
+                    + "  <slide>\n"
+                    + "    <title>Strategic items</title>\n"
+                    + "    <text level=\"3\">Two</text>\n"
+                    + "    <group><text level=\"1\">Nested</text></group>\n"
+                    + "    <image level=\"1\" name=\"picture.gif\"/>\n"
+                    + "  </slide>\n"
+                    + "</presentation>");
+        }
+
+        Presentation dom = load(XMLParsingStrategyFactory.StrategyType.DOM);
+        assertEquals("Mixed", dom.getTitle());
+        assertEquals(2, dom.getSize());
+        assertEquals(3, dom.getSlide(0).getSize());
+        assertEquals(3, dom.getSlide(1).getSize());
+        assertSameSlides(dom, load(XMLParsingStrategyFactory.StrategyType.SAX));
+        assertSameSlides(dom, load(XMLParsingStrategyFactory.StrategyType.STAX));
+    }
+
+    private Presentation load(XMLParsingStrategyFactory.StrategyType strategy) throws Exception
+    {
+        Presentation loaded = new Presentation();
+        new StrategicXMLPresentationReader(strategy).loadPresentation(loaded, testFile.getAbsolutePath());
+        return loaded;
+    }
+
+    private void assertSameSlides(Presentation expected, Presentation actual)
+    {
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getSize(), actual.getSize());
+        for (int number = 0; number < expected.getSize(); number++)
+        {
+            Slide expectedSlide = expected.getSlide(number);
+            Slide actualSlide = actual.getSlide(number);
+            assertEquals(expectedSlide.getTitle(), actualSlide.getTitle());
+            assertEquals(expectedSlide.getSize(), actualSlide.getSize());
+            for (int item = 0; item < expectedSlide.getSize(); item++)
+            {
+                assertEquals(describe(expectedSlide.getSlideItem(item)), describe(actualSlide.getSlideItem(item)));
+            }
+        }
+    }
+
+    private String describe(com.jabberpoint.SlideItem item)
+    {
+        String content = item instanceof TextItem ? ((TextItem) item).getText() : ((BitmapItem) item).getName();
+        return item.getClass().getSimpleName() + " " + item.getLevel() + " " + content;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.jabberpoint.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import com.jabberpoint.BitmapItem;
+import com.jabberpoint.Presentation;
+import com.jabberpoint.Slide;
+import com.jabberpoint.SlideItem;
+import com.jabberpoint.TextItem;
+
+public class SyntheticDeckGeneratorTest
+{
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String generate(SyntheticDeckGenerator generator) throws IOException
+    {
+        StringWriter out = new StringWriter();
+        generator.write(out);
+        return out.toString();
+    }
+
+    @Test
+    public void testSameSeedGivesTheSameDeck() throws IOException
+    {
+        String first = generate(new SyntheticDeckGenerator(7).setSlides(200));
+        String second = generate(new SyntheticDeckGenerator(7).setSlides(200));
+        String other = generate(new SyntheticDeckGenerator(8).setSlides(200));
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    public void testDeckFollowsTheSettings() throws Exception
+    {
+        File file = folder.newFile("deck.xml");
+        new SyntheticDeckGenerator(1)
+                .setSlides(500)
+                .setItemsPerSlide(2, 4)
+                .setTextLength(5, 10)
+                .setLevelWeights(0, 1, 1)
+                .setImages(0.25, "JabberPoint.gif")
+                .write(file);
+
+        Presentation presentation = new Presentation();
+        new StrategicXMLPresentationReader(XMLParsingStrategyFactory.StrategyType.SAX)
+                .loadPresentation(presentation, file.getPath());
+
+        assertEquals(500, presentation.getSize());
+        int items = 0;
+        int images = 0;
+        for (int number = 0; number < presentation.getSize(); number++)
+        {
+            Slide slide = presentation.getSlide(number);
+            assertEquals("Slide " + (number + 1), slide.getTitle());
+            assertTrue(slide.getSize() >= 2 && slide.getSize() <= 4);
+            for (int index = 0; index < slide.getSize(); index++)
+            {
+                SlideItem item = slide.getSlideItem(index);
+                assertTrue("Only levels 2 and 3 have a weight", item.getLevel() == 2 || item.getLevel() == 3);
+                items++;
+                if (item instanceof BitmapItem)
+                {
+                    images++;
+                    assertEquals("JabberPoint.gif", ((BitmapItem) item).getName());
+                }
+                else
+                {
+                    int words = ((TextItem) item).getText().split(" ").length;
+                    assertTrue(words >= 1 && words <= 10);
+                }
+            }
+        }
+        double ratio = (double) images / items;
+        assertTrue("About a quarter of the items are images: " + ratio, ratio > 0.2 && ratio < 0.3);
+    }
+
+    @Test
+    public void testLargeDeckIsStreamed() throws IOException
+    {
+        long[] written = new long[1];
+        Writer counting = new Writer()
+        {
+            @Override
+            public void write(char[] buffer, int offset, int length)
+            {
+                written[0] += length;
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+
+        new SyntheticDeckGenerator(3).setSlides(100_000).write(counting);
+
+        assertTrue("Written " + written[0] + " characters", written[0] > 50_000_000);
+    }
+
+    @Test
+    public void testImageNamesAreEscaped() throws Exception
+    {
+        File file = folder.newFile("escaped.xml");
+        new SyntheticDeckGenerator(1)
+                .setSlides(5)
+                .setImages(1, "R&D <draft>.gif")
+                .write(file);
+
+        Presentation presentation = new Presentation();
+        new StrategicXMLPresentationReader(XMLParsingStrategyFactory.StrategyType.DOM)
+                .loadPresentation(presentation, file.getPath());
+
+        assertEquals(5, presentation.getSize());
+        SlideItem item = presentation.getSlide(0).getSlideItem(0);
+        assertEquals("R&D <draft>.gif", ((BitmapItem) item).getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testImagesNeedNames()
+    {
+        new SyntheticDeckGenerator(1).setImages(0.5);
+    }
+}
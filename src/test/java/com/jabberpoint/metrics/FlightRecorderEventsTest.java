@@ -0,0 +1,171 @@
+package com.jabberpoint.metrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.swing.SwingUtilities;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import com.jabberpoint.BitmapItem;
+import com.jabberpoint.ImageCache;
+import com.jabberpoint.Presentation;
+import com.jabberpoint.RenderedSlideCache;
+import com.jabberpoint.SlideViewerComponent;
+import com.jabberpoint.Style;
+import com.jabberpoint.io.StrategicXMLPresentationReader;
+import com.jabberpoint.io.SyntheticDeckGenerator;
+import com.jabberpoint.io.XMLParsingStrategyFactory;
+
+public class FlightRecorderEventsTest
+{
+    private static final String[] EVENTS = {
+            "com.jabberpoint.DeckLoad", "com.jabberpoint.SlideParse", "com.jabberpoint.ImageDecode",
+            "com.jabberpoint.CacheLookup", "com.jabberpoint.SlidePaint"
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Recording recording;
+
+    @BeforeClass
+    public static void setUpClass()
+    {
+        Style.createStyles();
+    }
+
+    @Before
+    public void setUp()
+    {
+        this.recording = new Recording();
+        for (String event : EVENTS)
+        {
+            this.recording.enable(event).withoutThreshold();
+        }
+        this.recording.start();
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.recording.close();
+    }
+
+    private List<RecordedEvent> stop() throws Exception
+    {
+        this.recording.stop();
+        Path dump = this.folder.newFile("recording.jfr").toPath();
+        this.recording.dump(dump);
+        return RecordingFile.readAllEvents(dump);
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name)
+    {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    private Presentation load(int slides) throws Exception
+    {
+        File deck = this.folder.newFile("deck.xml");
+        new SyntheticDeckGenerator(7).setSlides(slides).setImages(0).write(deck);
+        Presentation presentation = new Presentation();
+        new StrategicXMLPresentationReader(XMLParsingStrategyFactory.StrategyType.STAX)
+                .loadPresentation(presentation, deck.getPath());
+        return presentation;
+    }
+
+    @Test
+    public void testLoadingRecordsTheDeckAndEverySlide() throws Exception
+    {
+        Presentation presentation = load(5);
+        long items = presentation.getSlides().stream().mapToLong(slide -> slide.getSize()).sum();
+        List<RecordedEvent> events = stop();
+
+        List<RecordedEvent> decks = named(events, "com.jabberpoint.DeckLoad");
+        assertEquals(1, decks.size());
+        RecordedEvent deck = decks.get(0);
+        assertEquals(5, deck.getInt("slideCount"));
+        assertEquals(items, deck.getLong("itemCount"));
+        assertTrue(deck.getLong("bytes") > 0);
+        assertEquals(StrategicXMLPresentationReader.class.getName(), deck.getClass("reader").getName());
+
+        List<RecordedEvent> slides = named(events, "com.jabberpoint.SlideParse");
+        assertEquals(5, slides.size());
+        for (int number = 0; number < 5; number++)
+        {
+            RecordedEvent slide = slides.get(number);
+            assertEquals(number, slide.getInt("slideNumber"));
+            assertEquals(presentation.getSlide(number).getSize(), slide.getInt("itemCount"));
+            assertTrue(slide.getLong("bytes") > 0);
+        }
+    }
+
+    @Test
+    public void testCacheLookupsAreHitsOrMisses() throws Exception
+    {
+        Presentation presentation = load(1);
+        RenderedSlideCache cache = new RenderedSlideCache(1L << 24);
+        cache.getRendered(0, presentation.getSlide(0), 200, 150, null, null);
+        cache.getRendered(0, presentation.getSlide(0), 200, 150, null, null);
+
+        List<RecordedEvent> lookups = named(stop(), "com.jabberpoint.CacheLookup");
+        assertEquals(2, lookups.size());
+        String key = RenderedSlideCache.key(0, 200, 150);
+        assertEquals(key, lookups.get(0).getString("key"));
+        assertFalse(lookups.get(0).getBoolean("hit"));
+        assertTrue(lookups.get(1).getBoolean("hit"));
+        assertEquals(200L * 150 * 4, lookups.get(1).getLong("bytes"));
+        assertEquals(RenderedSlideCache.class.getName(), lookups.get(1).getClass("cache").getName());
+    }
+
+    @Test
+    public void testImageDecodeCarriesTheSize() throws Exception
+    {
+        ImageCache.getShared().clear();
+        BufferedImage image = new BitmapItem(1, "serclogo_fc.jpg").getImage();
+        assertNotNull(image);
+
+        List<RecordedEvent> decodes = named(stop(), "com.jabberpoint.ImageDecode");
+        assertEquals(1, decodes.size());
+        assertEquals(image.getWidth(), decodes.get(0).getInt("width"));
+        assertEquals(image.getHeight(), decodes.get(0).getInt("height"));
+        assertTrue(decodes.get(0).getString("source").endsWith("serclogo_fc.jpg"));
+        assertTrue(decodes.get(0).getLong("bytes") > 0);
+    }
+
+    @Test
+    public void testPaintingRecordsTheSlide() throws Exception
+    {
+        Presentation presentation = load(3);
+        presentation.setSettleDelay(0);
+        SlideViewerComponent component = new SlideViewerComponent(presentation);
+        component.setSize(400, 300);
+        presentation.setSlideNumber(2);
+        BufferedImage screen = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+        // The component is told about the slide change on the event thread, so it paints there too
+        SwingUtilities.invokeAndWait(() -> component.paintComponent(g));
+        g.dispose();
+
+        List<RecordedEvent> paints = named(stop(), "com.jabberpoint.SlidePaint");
+        assertEquals(1, paints.size());
+        assertEquals(2, paints.get(0).getInt("slideNumber"));
+        assertEquals(presentation.getSlide(2).getSize(), paints.get(0).getInt("itemCount"));
+        assertEquals(400, paints.get(0).getInt("width"));
+        assertFalse(paints.get(0).getBoolean("background"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.jabberpoint.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest
+{
+
+    @Test
+    public void testBucketsCoverEveryValue()
+    {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE};
+        for (long value : values)
+        {
+            int bucket = Histogram.bucket(value);
+            assertTrue("Value " + value + " is at most its bucket's bound", value <= Histogram.upperBound(bucket));
+            if (bucket > 0)
+            {
+                assertTrue("Value " + value + " is above the previous bucket", value > Histogram.upperBound(bucket - 1));
+            }
+        }
+    }
+
+    @Test
+    public void testPercentilesAreWithinAnEighth()
+    {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 10_000; value++)
+        {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_500, histogram.getMean(), 0.5);
+        assertEquals(5_000_000, histogram.getPercentile(50), 5_000_000 / 8.0);
+        assertEquals(9_900_000, histogram.getPercentile(99), 9_900_000 / 8.0);
+        assertEquals(10_000_000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testReset()
+    {
+        Histogram histogram = new Histogram();
+        histogram.record(42);
+        histogram.record(-5);
+
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+}
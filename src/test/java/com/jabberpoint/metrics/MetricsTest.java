@@ -0,0 +1,103 @@
+package com.jabberpoint.metrics;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.jabberpoint.Slide;
+import com.jabberpoint.Style;
+
+public class MetricsTest
+{
+
+    /**
+     * A sink that counts the runs of each phase
+     */
+    private static class CountingSink implements MetricsSink
+    {
+        final Map<Phase, Integer> counts = new EnumMap<>(Phase.class);
+
+        @Override
+        public synchronized void record(Phase phase, long nanos)
+        {
+            assertTrue(nanos >= 0);
+            this.counts.merge(phase, 1, Integer::sum);
+        }
+
+        synchronized int count(Phase phase)
+        {
+            return this.counts.getOrDefault(phase, 0);
+        }
+    }
+
+    @BeforeClass
+    public static void setUpClass()
+    {
+        Style.createStyles();
+    }
+
+    @After
+    public void tearDown()
+    {
+        Metrics.disable();
+    }
+
+    private static void drawSlide(Slide slide)
+    {
+        BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+        slide.draw(image.createGraphics(), new Rectangle(0, 0, 200, 100), null);
+    }
+
+    @Test
+    public void testNothingIsTimedWhileOff()
+    {
+        assertEquals(0, Metrics.start());
+        // Must not fail without a sink
+        Metrics.record(Phase.PARSE, System.nanoTime());
+    }
+
+    @Test
+    public void testLayoutAndPaintGoToTheSink()
+    {
+        CountingSink sink = new CountingSink();
+        Metrics.setSink(sink);
+        Slide slide = new Slide();
+        slide.append(1, "Timed");
+
+        drawSlide(slide);
+        drawSlide(slide);
+
+        assertEquals("The slide is laid out once", 1, sink.count(Phase.LAYOUT));
+        assertEquals(2, sink.count(Phase.SLIDE_PAINT));
+    }
+
+    @Test
+    public void testPhasesArePublishedAsMBeans() throws Exception
+    {
+        HistogramMetricsSink histograms = Metrics.enable();
+        assertSame("Enabling twice keeps the sink", histograms, Metrics.enable());
+        Slide slide = new Slide();
+        slide.append(1, "Timed");
+
+        drawSlide(slide);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName layout = Metrics.objectName(Phase.LAYOUT);
+        assertEquals(1L, server.getAttribute(layout, "Count"));
+        assertTrue((Double) server.getAttribute(layout, "P99Millis") > 0);
+        assertEquals(0L, server.getAttribute(Metrics.objectName(Phase.IMAGE_DECODE), "Count"));
+
+        server.invoke(layout, "reset", null, null);
+        assertEquals(0L, server.getAttribute(layout, "Count"));
+    }
+}